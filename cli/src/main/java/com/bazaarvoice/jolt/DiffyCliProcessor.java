@@ -76,6 +76,12 @@ public class DiffyCliProcessor implements JoltCliProcessor {
         } else {
             diffy = new Diffy();
         }
+
+        if ( suppressOutput ) {
+            // only the exit code is wanted, so skip building the Result
+            return diffy.isEqual( jsonObject1, jsonObject2 );
+        }
+
         Diffy.Result result = diffy.diff( jsonObject1, jsonObject2 );
 
         if ( result.isEmpty() ) {
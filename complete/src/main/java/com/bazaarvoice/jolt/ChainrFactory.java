@@ -22,6 +22,8 @@ import java.io.FileInputStream;
 
 /**
  * A factory class with various static methods that return instances of Chainr.
+ *
+ * Every call parses the spec and builds a new Chainr.  To reuse Chainrs across calls, see {@link ChainrRegistry}.
  */
 public class ChainrFactory {
 
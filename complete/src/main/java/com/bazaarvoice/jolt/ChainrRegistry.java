@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caching alternative to {@link ChainrFactory}, for services that load many Chainr specs lazily.
+ *
+ * Chainrs are cached by where the spec came from, along with a SHA-256 of the spec's bytes, so an edited
+ *  spec file is picked up on the next call and replaces the Chainr built from its old contents, while an
+ *  unchanged one is only ever parsed and built once.
+ * The spec bytes are still read on every call, but reading is cheap compared to building the Chainr.
+ *
+ * The cache holds at most maximumSize Chainrs, and evicts the least recently used one when full.
+ *
+ * Loading is "single flight" : if several threads ask for the same spec at the same time, one of them
+ *  builds the Chainr and the others wait for it.  If building fails, every waiting thread gets the exception,
+ *  and nothing is cached, so the next call tries again.
+ *
+ * Thread safe; meant to be created once and shared.
+ */
+public class ChainrRegistry {
+
+    private final int maximumSize;
+    private final ChainrInstantiator chainrInstantiator;
+
+    // access ordered, so iteration order is least recently used first.  Guarded by "this".
+    private final LinkedHashMap<String, CachedChainr> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize the most Chainrs to keep cached
+     */
+    public ChainrRegistry( int maximumSize ) {
+        this( maximumSize, null );
+    }
+
+    /**
+     * @param maximumSize the most Chainrs to keep cached
+     * @param chainrInstantiator the ChainrInstantiator to build every Chainr with, if null the default one is used
+     */
+    public ChainrRegistry( int maximumSize, ChainrInstantiator chainrInstantiator ) {
+
+        if ( maximumSize < 1 ) {
+            throw new IllegalArgumentException( "ChainrRegistry requires a maximumSize of at least 1, was : " + maximumSize );
+        }
+
+        this.maximumSize = maximumSize;
+        this.chainrInstantiator = chainrInstantiator;
+        this.cache = new LinkedHashMap<String, CachedChainr>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, CachedChainr> eldest ) {
+                if ( size() > ChainrRegistry.this.maximumSize ) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached version of {@link ChainrFactory#fromClassPath(String)}.
+     *
+     * @param chainrSpecClassPath The class path that points to the chainr spec.
+     * @return a Chainr instance, shared with any other callers of the same spec
+     */
+    public Chainr fromClassPath( String chainrSpecClassPath ) {
+        byte[] specBytes;
+        try ( InputStream inputStream = JsonUtils.class.getResourceAsStream( chainrSpecClassPath ) ) {
+            if ( inputStream == null ) {
+                throw new IOException( "No such resource" );
+            }
+            specBytes = readFully( inputStream );
+        }
+        catch ( IOException e ) {
+            throw new RuntimeException( "Unable to load JSON object from classPath : " + chainrSpecClassPath, e );
+        }
+        return getChainr( "classpath:" + chainrSpecClassPath, specBytes );
+    }
+
+    /**
+     * Cached version of {@link ChainrFactory#fromFileSystem(String)}.
+     *
+     * @param chainrSpecFilePath The file path that points to the chainr spec.
+     * @return a Chainr instance, shared with any other callers of the same spec
+     */
+    public Chainr fromFileSystem( String chainrSpecFilePath ) {
+        return fromFile( new File( chainrSpecFilePath ) );
+    }
+
+    /**
+     * Cached version of {@link ChainrFactory#fromFile(File)}.
+     *
+     * @param chainrSpecFile The File which contains the chainr spec.
+     * @return a Chainr instance, shared with any other callers of the same spec
+     */
+    public Chainr fromFile( File chainrSpecFile ) {
+        byte[] specBytes;
+        try ( InputStream inputStream = new FileInputStream( chainrSpecFile ) ) {
+            specBytes = readFully( inputStream );
+        }
+        catch ( IOException e ) {
+            throw new RuntimeException( "Unable to load chainr spec file " + chainrSpecFile.getAbsolutePath(), e );
+        }
+        return getChainr( "file:" + chainrSpecFile.getAbsolutePath(), specBytes );
+    }
+
+    private Chainr getChainr( String location, byte[] specBytes ) {
+
+        String specHash = sha256( specBytes );
+
+        CachedChainr cached;
+        boolean isLoader = false;
+        synchronized ( this ) {
+            cached = cache.get( location );
+            if ( cached == null || ! cached.specHash.equals( specHash ) ) {
+                // new, or the spec has been edited, in which case this replaces the Chainr built from the old contents
+                cached = new CachedChainr( specHash );
+                cache.put( location, cached );
+                isLoader = true;
+            }
+        }
+        CompletableFuture<Chainr> future = cached.future;
+
+        if ( !isLoader ) {
+            hits.increment();
+            try {
+                return future.join();
+            }
+            catch ( CompletionException e ) {
+                // the loading thread already got the original exception, rethrow it for this caller as well
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        misses.increment();
+        try {
+            Object chainrSpec = JsonUtils.jsonToObject( new ByteArrayInputStream( specBytes ) );
+            Chainr chainr = chainrInstantiator == null ?
+                    Chainr.fromSpec( chainrSpec ) : Chainr.fromSpec( chainrSpec, chainrInstantiator );
+            future.complete( chainr );
+            return chainr;
+        }
+        catch ( RuntimeException | Error e ) {
+            synchronized ( this ) {
+                cache.remove( location, cached );
+            }
+            future.completeExceptionally( e );
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of calls that were served a Chainr that had been, or was being, built by an earlier call
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of calls that had to build a Chainr
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of Chainrs dropped from the cache to stay within maximumSize
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of Chainrs currently cached
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Drops every cached Chainr.  Does not reset the counters.
+     */
+    public synchronized void invalidateAll() {
+        cache.clear();
+    }
+
+    private static final class CachedChainr {
+        private final String specHash;
+        private final CompletableFuture<Chainr> future = new CompletableFuture<>();
+
+        private CachedChainr( String specHash ) {
+            this.specHash = specHash;
+        }
+    }
+
+    private static byte[] readFully( InputStream inputStream ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ( ( read = inputStream.read( buffer ) ) != -1 ) {
+            out.write( buffer, 0, read );
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256( byte[] bytes ) {
+        try {
+            byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( bytes );
+            StringBuilder hex = new StringBuilder( digest.length * 2 );
+            for ( byte b : digest ) {
+                hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+            }
+            return hex.toString();
+        }
+        catch ( NoSuchAlgorithmException e ) {
+            // every JVM is required to provide SHA-256
+            throw new IllegalStateException( e );
+        }
+    }
+}
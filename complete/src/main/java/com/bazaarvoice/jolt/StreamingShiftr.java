@@ -0,0 +1,476 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.LiteralChildrenIndex;
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.exception.JsonUnmarshalException;
+import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.shiftr.ShiftrStreamability;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a Shiftr spec directly off the events of a Jackson JsonParser, so that the input is never built
+ *  as a whole.  Only the current WalkedPath, the values that leaf specs write out, and the output are kept,
+ *  so a huge input, aka a top level array of product records, is transformed in bounded memory.
+ *
+ * The output is the same as Shiftr gives for the parsed input.  Each Map and List the spec walks into is
+ *  streamed, with its keys run in the same order Shiftr would run them
+ *  - keys that can match both literal and computed children are run in input order
+ *  - otherwise the literal children run in spec order, and then the computed children in input order
+ * Keys that show up earlier in the input than that order allows are built and held until their turn.
+ *  Memory stays bounded only when the input has the literal keys in spec order: once a literal key is
+ *  late or missing, every later literal and computed value of that container is built and held until
+ *  the late key shows up, or until the end of the container.  Aka with the spec
+ *  { "meta" : ..., "records" : { "*" : ... } }, an input without "meta" builds the whole "records" array.
+ *
+ * Duplicate keys in a JSON object are rejected with a JsonUnmarshalException, as Shiftr would only see
+ *  the last of them, while a stream sees them all.
+ *
+ * Only specs without "@" keys and transposes can be streamed, see {@link ShiftrStreamability}, and
+ *  isStreamable() checks a spec up front.
+ */
+public class StreamingShiftr {
+
+    private final ShiftrCompositeSpec rootSpec;
+    private final ObjectMapper objectMapper;
+
+    // Whether numbers can be read straight off the parser, the way the ObjectMapper would read them
+    private final boolean plainNumbers;
+
+    private final Map<ShiftrCompositeSpec, ContainerPlan> plans = new IdentityHashMap<>();
+
+    /**
+     * @return true if the Shiftr spec can be run by a StreamingShiftr
+     * @throws SpecException for a malformed spec
+     */
+    public static boolean isStreamable( Object spec ) {
+        return ShiftrStreamability.isStreamable( buildRootSpec( spec ) );
+    }
+
+    /**
+     * Initialize a StreamingShiftr with a Shiftr spec, reading the input with a stock Jolt ObjectMapper.
+     *
+     * @throws SpecException for a malformed spec, or one that can not be streamed
+     */
+    public StreamingShiftr( Object spec ) {
+        this( spec, null );
+    }
+
+    /**
+     * Initialize a StreamingShiftr with a Shiftr spec, reading the input with the given ObjectMapper.
+     *
+     * @throws SpecException for a malformed spec, or one that can not be streamed
+     */
+    public StreamingShiftr( Object spec, ObjectMapper objectMapper ) {
+
+        rootSpec = buildRootSpec( spec );
+
+        List<String> unstreamableKeys = ShiftrStreamability.findUnstreamableKeys( rootSpec );
+        if ( ! unstreamableKeys.isEmpty() ) {
+            throw new SpecException( "StreamingShiftr can not stream a spec that reads the input tree, thru : " + unstreamableKeys );
+        }
+
+        this.objectMapper = objectMapper == null ? new ObjectMapper() : objectMapper;
+        JsonUtilImpl.configureStockJoltObjectMapper( this.objectMapper );
+        plainNumbers = ! this.objectMapper.isEnabled( DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS ) &&
+                       ! this.objectMapper.isEnabled( DeserializationFeature.USE_BIG_INTEGER_FOR_INTS ) &&
+                       ! this.objectMapper.isEnabled( DeserializationFeature.USE_LONG_FOR_INTS );
+
+        addPlans( rootSpec );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static ShiftrCompositeSpec buildRootSpec( Object spec ) {
+        if ( spec == null ) {
+            throw new SpecException( "StreamingShiftr expected a spec of Map type, got 'null'." );
+        }
+        if ( ! ( spec instanceof Map ) ) {
+            throw new SpecException( "StreamingShiftr expected a spec of Map type, got " + spec.getClass().getSimpleName() );
+        }
+        return new ShiftrCompositeSpec( SpecDriven.ROOT_KEY, (Map<String, Object>) spec );
+    }
+
+    private void addPlans( ShiftrCompositeSpec spec ) {
+        plans.put( spec, new ContainerPlan( spec ) );
+        for ( ShiftrSpec child : spec.getLiteralChildren().values() ) {
+            if ( child instanceof ShiftrCompositeSpec ) {
+                addPlans( (ShiftrCompositeSpec) child );
+            }
+        }
+        for ( ShiftrSpec child : spec.getComputedChildren() ) {
+            if ( child instanceof ShiftrCompositeSpec ) {
+                addPlans( (ShiftrCompositeSpec) child );
+            }
+        }
+    }
+
+    /**
+     * Applies the Shiftr spec to the JSON read from the InputStream, which is closed afterwards.
+     *
+     * @throws JsonUnmarshalException if the input can not be read
+     */
+    public Object transform( InputStream in ) {
+        try ( JsonParser parser = objectMapper.getFactory().createParser( in ) ) {
+            return transform( parser );
+        }
+        catch ( IOException e ) {
+            throw new JsonUnmarshalException( "Unable to stream JSON thru StreamingShiftr.", e );
+        }
+    }
+
+    /**
+     * Applies the Shiftr spec to the value at the current token of the parser, or at the next token if
+     *  the parser has no current token.  The parser is left on the last token of that value, and with
+     *  STRICT_DUPLICATE_DETECTION enabled.
+     *
+     * @throws JsonUnmarshalException if the input can not be read
+     */
+    public Object transform( JsonParser parser ) {
+        try {
+            parser.enable( JsonParser.Feature.STRICT_DUPLICATE_DETECTION );
+            if ( parser.currentToken() == null && parser.nextToken() == null ) {
+                throw new EOFException( "No content to map due to end-of-input" );
+            }
+
+            Map<String, Object> output = new HashMap<>();
+
+            // Create a root LiteralPathElement so that # is useful at the root level, like Shiftr does
+            WalkedPath walkedPath = new WalkedPath();
+            walkedPath.add( null, new MatchedElement( SpecDriven.ROOT_KEY ) );
+
+            applyValue( rootSpec, SpecDriven.ROOT_KEY, parser, walkedPath, output );
+
+            return output.get( SpecDriven.ROOT_KEY );
+        }
+        catch ( IOException e ) {
+            throw new JsonUnmarshalException( "Unable to stream JSON thru StreamingShiftr.", e );
+        }
+    }
+
+    /**
+     * Apply a spec to the value at the parser's current token, streaming into it if it is a Map or List
+     *  that the spec has children for.
+     */
+    private void applyValue( ShiftrSpec spec, String inputKey, JsonParser parser, WalkedPath walkedPath, Map<String, Object> output ) throws IOException {
+
+        JsonToken token = parser.currentToken();
+        if ( spec instanceof ShiftrCompositeSpec && ( token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY ) ) {
+
+            MatchedElement thisLevel = spec.getPathElement().match( inputKey, walkedPath );
+            if ( thisLevel == null ) {
+                parser.skipChildren();
+                return;
+            }
+            streamComposite( (ShiftrCompositeSpec) spec, thisLevel, inputKey, parser, walkedPath, output );
+        }
+        else {
+            spec.apply( inputKey, Optional.of( readValue( parser ) ), walkedPath, output, null );
+        }
+    }
+
+    /**
+     * The streaming version of ShiftrCompositeSpec.apply, for a Map or List input.
+     */
+    private void streamComposite( ShiftrCompositeSpec spec, MatchedElement thisLevel, String inputKey, JsonParser parser,
+                                  WalkedPath walkedPath, Map<String, Object> output ) throws IOException {
+
+        // the input tree is never built, and without "@" and transposes nothing reads it from the WalkedPath
+        walkedPath.add( null, thisLevel );
+
+        // "$" and "#" children only need the key
+        for ( ShiftrSpec special : spec.getSpecialChildren() ) {
+            special.apply( inputKey, Optional.of( null ), walkedPath, output, null );
+        }
+
+        ContainerWalk walk = new ContainerWalk( plans.get( spec ), walkedPath, output );
+        if ( parser.currentToken() == JsonToken.START_OBJECT ) {
+            for ( String name = parser.nextFieldName(); name != null; name = parser.nextFieldName() ) {
+                parser.nextToken();
+                walk.accept( name, -1, parser );
+            }
+        }
+        else {
+            for ( int index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++ ) {
+                walk.accept( Integer.toString( index ), index, parser );
+            }
+        }
+        walk.finish();
+
+        walkedPath.removeLast();
+
+        // we matched so increment the matchCount of our parent
+        walkedPath.lastElement().getMatchedElement().incrementHashCount();
+    }
+
+    private Object readValue( JsonParser parser ) throws IOException {
+        switch ( parser.currentToken() ) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                if ( plainNumbers ) {
+                    return parser.getNumberValue();
+                }
+                break;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                break;
+        }
+        return objectMapper.readValue( parser, Object.class );
+    }
+
+    /**
+     * What a ShiftrCompositeSpec's ExecutionStrategy boils down to, when its input arrives one key at a time.
+     */
+    private static final class ContainerPlan {
+
+        private final Map<String, ShiftrSpec> literalChildren;
+        private final LiteralChildrenIndex literals;
+        private final List<ShiftrSpec> computedChildren;
+
+        // true when the literal children all run before the computed ones, false when every key runs in input order
+        private final boolean literalsFirst;
+
+        // the List index each literal key is applied to, the way AVAILABLE_LITERALS parses it, or -1
+        private final int[] literalListIndexes;
+
+        private ContainerPlan( ShiftrCompositeSpec spec ) {
+            literalChildren = spec.getLiteralChildren();
+            literals = spec.getLiteralChildrenIndex();
+            computedChildren = spec.getComputedChildren();
+
+            ExecutionStrategy strategy = spec.determineExecutionStrategy();
+            literalsFirst = strategy == ExecutionStrategy.AVAILABLE_LITERALS ||
+                            strategy == ExecutionStrategy.AVAILABLE_LITERALS_WITH_COMPUTED;
+
+            literalListIndexes = new int[ literals.size() ];
+            for ( int ordinal = 0; ordinal < literals.size(); ordinal++ ) {
+                try {
+                    literalListIndexes[ordinal] = Math.max( -1, Integer.parseInt( literals.getKey( ordinal ) ) );
+                }
+                catch ( NumberFormatException nfe ) {
+                    literalListIndexes[ordinal] = -1;
+                }
+            }
+        }
+
+        /**
+         * @return the first computed child, in priority order, that matches the key
+         */
+        private ShiftrSpec matchComputed( String key, WalkedPath walkedPath ) {
+            for ( ShiftrSpec computed : computedChildren ) {
+                if ( computed.getPathElement().match( key, walkedPath ) != null ) {
+                    return computed;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Runs the keys of one streamed Map or List thru its spec's children, in the order Shiftr would.
+     *
+     * With literalsFirst, literal ordinals below nextOrdinal have been run, or never will be, and a key
+     *  that can not run yet is built and held in pendingLiterals or pendingComputed until its turn.
+     */
+    private final class ContainerWalk {
+
+        private final ContainerPlan plan;
+        private final WalkedPath walkedPath;
+        private final Map<String, Object> output;
+
+        private int nextOrdinal;
+        private Object[] pendingLiterals;
+        private boolean[] hasPendingLiteral;
+        private List<Object[]> pendingComputed;
+
+        private ContainerWalk( ContainerPlan plan, WalkedPath walkedPath, Map<String, Object> output ) {
+            this.plan = plan;
+            this.walkedPath = walkedPath;
+            this.output = output;
+        }
+
+        /**
+         * @param listIndex the index of the key in a List input, -1 for a Map input
+         */
+        private void accept( String key, int listIndex, JsonParser parser ) throws IOException {
+
+            if ( ! plan.literalsFirst ) {
+                ShiftrSpec child = plan.literalChildren.get( key );
+                if ( child == null ) {
+                    child = plan.matchComputed( key, walkedPath );
+                }
+                if ( child == null ) {
+                    parser.skipChildren();
+                }
+                else {
+                    applyValue( child, key, parser, walkedPath, output );
+                }
+                return;
+            }
+
+            int literalCount = plan.literals.size();
+            int firstOrdinal = LiteralChildrenIndex.NOT_FOUND;
+            int ordinalCount = 0;
+            if ( listIndex < 0 ) {
+                firstOrdinal = plan.literals.ordinalOf( key );
+                ordinalCount = firstOrdinal == LiteralChildrenIndex.NOT_FOUND ? 0 : 1;
+            }
+            else {
+                for ( int ordinal = 0; ordinal < literalCount; ordinal++ ) {
+                    if ( plan.literalListIndexes[ordinal] == listIndex ) {
+                        firstOrdinal = ordinalCount == 0 ? ordinal : firstOrdinal;
+                        ordinalCount++;
+                    }
+                }
+            }
+
+            // Map keys that are literals never match a computed child, as that would have made the strategy CONFLICT,
+            //  but List indexes are run thru the computed children whether they had a literal or not
+            ShiftrSpec computed = ordinalCount == 0 || listIndex >= 0 ? plan.matchComputed( key, walkedPath ) : null;
+
+            int uses = ordinalCount + ( computed == null ? 0 : 1 );
+            if ( uses == 0 ) {
+                parser.skipChildren();
+                return;
+            }
+
+            // the common case, the one use of the value can run now, so stream it
+            if ( uses == 1 ) {
+                if ( ordinalCount == 1 && firstOrdinal == nextOrdinal ) {
+                    applyValue( (ShiftrSpec) plan.literals.getChild( firstOrdinal ), plan.literals.getKey( firstOrdinal ), parser, walkedPath, output );
+                    advance();
+                    return;
+                }
+                if ( computed != null && nextOrdinal == literalCount ) {
+                    applyValue( computed, key, parser, walkedPath, output );
+                    return;
+                }
+            }
+
+            // otherwise build the value, and run or hold each use of it
+            Object value = readValue( parser );
+            if ( listIndex < 0 ) {
+                if ( ordinalCount == 1 ) {
+                    useLiteral( firstOrdinal, value );
+                }
+            }
+            else {
+                for ( int ordinal = firstOrdinal; ordinalCount > 0 && ordinal < literalCount; ordinal++ ) {
+                    if ( plan.literalListIndexes[ordinal] == listIndex ) {
+                        useLiteral( ordinal, value );
+                    }
+                }
+            }
+            if ( computed != null ) {
+                if ( nextOrdinal == literalCount ) {
+                    computed.apply( key, Optional.of( value ), walkedPath, output, null );
+                }
+                else {
+                    if ( pendingComputed == null ) {
+                        pendingComputed = new ArrayList<>();
+                    }
+                    pendingComputed.add( new Object[] { key, computed, value } );
+                }
+            }
+        }
+
+        private void useLiteral( int ordinal, Object value ) {
+            if ( ordinal == nextOrdinal ) {
+                applyLiteral( ordinal, value );
+                advance();
+            }
+            else if ( ordinal > nextOrdinal ) {
+                holdLiteral( ordinal, value );
+            }
+            // else its literal has already run, which only a repeated Map key could cause, and the parser rejects those
+        }
+
+        private void applyLiteral( int ordinal, Object value ) {
+            plan.literals.getChild( ordinal ).apply( plan.literals.getKey( ordinal ), Optional.of( value ), walkedPath, output, null );
+        }
+
+        private void holdLiteral( int ordinal, Object value ) {
+            if ( pendingLiterals == null ) {
+                pendingLiterals = new Object[ plan.literals.size() ];
+                hasPendingLiteral = new boolean[ plan.literals.size() ];
+            }
+            pendingLiterals[ordinal] = value;
+            hasPendingLiteral[ordinal] = true;
+        }
+
+        /**
+         * The literal at nextOrdinal has run, so run whatever was held waiting on it.
+         */
+        private void advance() {
+            nextOrdinal++;
+            while ( pendingLiterals != null && nextOrdinal < pendingLiterals.length && hasPendingLiteral[nextOrdinal] ) {
+                applyLiteral( nextOrdinal, pendingLiterals[nextOrdinal] );
+                pendingLiterals[nextOrdinal] = null;
+                hasPendingLiteral[nextOrdinal] = false;
+                nextOrdinal++;
+            }
+            if ( nextOrdinal == plan.literals.size() ) {
+                runPendingComputed();
+            }
+        }
+
+        /**
+         * The end of the input, so every literal that is going to show up has, and anything held can run.
+         */
+        private void finish() {
+            for ( ; nextOrdinal < plan.literals.size(); nextOrdinal++ ) {
+                if ( pendingLiterals != null && hasPendingLiteral[nextOrdinal] ) {
+                    applyLiteral( nextOrdinal, pendingLiterals[nextOrdinal] );
+                }
+            }
+            runPendingComputed();
+        }
+
+        private void runPendingComputed() {
+            if ( pendingComputed == null ) {
+                return;
+            }
+            for ( Object[] held : pendingComputed ) {
+                ( (ShiftrSpec) held[1] ).apply( (String) held[0], Optional.of( held[2] ), walkedPath, output, null );
+            }
+            pendingComputed = null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
+import com.bazaarvoice.jolt.exception.JsonUnmarshalException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChainrRegistryTest {
+
+    private static final String WELLFORMED = "/json/wellformed-input.json";
+    private static final String MALFORMED = "/json/malformed-input.json";
+
+    private static final String SORT_SPEC = "[ { \"operation\" : \"sort\" } ]";
+    private static final String SHIFT_SPEC = "[ { \"operation\" : \"shift\", \"spec\" : { \"a\" : \"b\" } } ]";
+
+    /**
+     * Counts how many transforms get built, and can hold up building until released.
+     */
+    private static class CountingInstantiator extends DefaultChainrInstantiator {
+
+        private final AtomicInteger hydrated = new AtomicInteger();
+        private final CountDownLatch release;
+
+        private CountingInstantiator( CountDownLatch release ) {
+            this.release = release;
+        }
+
+        @Override
+        public JoltTransform hydrateTransform( ChainrEntry entry ) {
+            hydrated.incrementAndGet();
+            try {
+                release.await();
+            }
+            catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            return super.hydrateTransform( entry );
+        }
+    }
+
+    @Test
+    public void sameSpecIsOnlyBuiltOnce() {
+        ChainrRegistry registry = new ChainrRegistry( 10 );
+
+        Chainr first = registry.fromClassPath( WELLFORMED );
+        Chainr second = registry.fromClassPath( WELLFORMED );
+
+        Assert.assertSame( first, second );
+        Assert.assertEquals( registry.getMissCount(), 1 );
+        Assert.assertEquals( registry.getHitCount(), 1 );
+        Assert.assertEquals( registry.size(), 1 );
+    }
+
+    @Test
+    public void changedFileIsRebuilt() throws Exception {
+        File specFile = File.createTempFile( "chainrRegistry", ".json" );
+        specFile.deleteOnExit();
+        ChainrRegistry registry = new ChainrRegistry( 10 );
+
+        Files.write( specFile.toPath(), SORT_SPEC.getBytes( StandardCharsets.UTF_8 ) );
+        Chainr sort = registry.fromFile( specFile );
+        Assert.assertSame( registry.fromFileSystem( specFile.getAbsolutePath() ), sort );
+
+        Files.write( specFile.toPath(), SHIFT_SPEC.getBytes( StandardCharsets.UTF_8 ) );
+        Chainr shift = registry.fromFile( specFile );
+        Assert.assertNotSame( shift, sort );
+        Assert.assertEquals( registry.getMissCount(), 2 );
+        // the Chainr built from the old contents was replaced, not left in the cache
+        Assert.assertEquals( registry.size(), 1 );
+        Assert.assertSame( registry.fromFile( specFile ), shift );
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws Exception {
+        File sortFile = File.createTempFile( "chainrRegistrySort", ".json" );
+        File shiftFile = File.createTempFile( "chainrRegistryShift", ".json" );
+        sortFile.deleteOnExit();
+        shiftFile.deleteOnExit();
+        Files.write( sortFile.toPath(), SORT_SPEC.getBytes( StandardCharsets.UTF_8 ) );
+        Files.write( shiftFile.toPath(), SHIFT_SPEC.getBytes( StandardCharsets.UTF_8 ) );
+
+        ChainrRegistry registry = new ChainrRegistry( 2 );
+        Chainr wellformed = registry.fromClassPath( WELLFORMED );
+        registry.fromFile( sortFile );
+        registry.fromClassPath( WELLFORMED );   // now the sort spec is the least recently used
+        registry.fromFile( shiftFile );
+
+        Assert.assertEquals( registry.size(), 2 );
+        Assert.assertEquals( registry.getEvictionCount(), 1 );
+        Assert.assertSame( registry.fromClassPath( WELLFORMED ), wellformed );
+
+        registry.fromFile( sortFile );
+        Assert.assertEquals( registry.getMissCount(), 4 );
+    }
+
+    @Test
+    public void concurrentCallersShareOneBuild() throws Exception {
+        CountDownLatch release = new CountDownLatch( 1 );
+        CountingInstantiator instantiator = new CountingInstantiator( release );
+        final ChainrRegistry registry = new ChainrRegistry( 10, instantiator );
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try {
+            List<Future<Chainr>> futures = new ArrayList<>();
+            for ( int thread = 0; thread < threads; thread++ ) {
+                futures.add( executor.submit( new Callable<Chainr>() {
+                    @Override
+                    public Chainr call() {
+                        return registry.fromClassPath( WELLFORMED );
+                    }
+                } ) );
+            }
+
+            // give every thread the chance to ask for the spec while the first build is held up
+            while ( registry.getHitCount() + registry.getMissCount() < threads ) {
+                Thread.sleep( 5 );
+            }
+            release.countDown();
+
+            Chainr first = futures.get( 0 ).get();
+            for ( Future<Chainr> future : futures ) {
+                Assert.assertSame( future.get(), first );
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        // the wellformed spec has two operations
+        Assert.assertEquals( instantiator.hydrated.get(), 2 );
+        Assert.assertEquals( registry.getMissCount(), 1 );
+        Assert.assertEquals( registry.getHitCount(), threads - 1 );
+    }
+
+    @Test
+    public void failedBuildsAreNotCached() {
+        ChainrRegistry registry = new ChainrRegistry( 10 );
+        for ( int attempt = 0; attempt < 2; attempt++ ) {
+            try {
+                registry.fromClassPath( MALFORMED );
+                Assert.fail( "expected the malformed spec to fail" );
+            }
+            catch ( JsonUnmarshalException e ) {
+                // expected
+            }
+        }
+        Assert.assertEquals( registry.getMissCount(), 2 );
+        Assert.assertEquals( registry.size(), 0 );
+    }
+
+    @Test( expectedExceptions = RuntimeException.class, expectedExceptionsMessageRegExp = "Unable to load JSON object from classPath.*" )
+    public void missingClassPathSpec() {
+        new ChainrRegistry( 10 ).fromClassPath( "/json/no-such-spec.json" );
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.JsonUnmarshalException;
+import com.bazaarvoice.jolt.exception.SpecException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class StreamingShiftrTest {
+
+    private static final String[] SPECS = {
+            // literals run in spec order, not input order, which shows in the order of the appends
+            "{ 'b' : 'out[]', 'a' : 'out[]', 'c' : 'out[]' }",
+            // a top level array of records
+            "{ '*' : { 'id' : 'ids[]', 'name' : 'names.&1', '$' : 'indexes[]' } }",
+            // literal and "*" children that can match the same key, run in input order
+            "{ 'abc' : 'literal[]', 'a*' : 'star.&', '*' : 'rest[]' }",
+            // literal children with composites under them, and a computed sibling
+            "{ 'header' : { 'id' : 'headerId', 'version' : 'version[]' }, 'products' : { '*' : { 'id' : 'productIds[]', '1*' : 'ones[]' } }, 'x*' : 'x.&' }",
+            // List indexes as literals, including "01" which AVAILABLE_LITERALS parses to index 1
+            "{ 'list' : { '2' : 'picked[]', '0' : 'picked[]', '01' : 'picked[]', '1*' : 'computed[]' } }",
+            // matching on scalar values
+            "{ 'a' : { 'yes' : { '#matched' : 'out.a' }, '*' : { '$' : 'out.other' } } }",
+            // "&" keys, whose match depends on the WalkedPath
+            "{ '*' : { '*' : { '&(1,0)' : 'same.&2', '*' : 'different.&2.&' } } }",
+            // "#" counts, which depend on the order everything runs in
+            "{ '*' : { '*' : { 'value' : 'values[#3].&1', '$' : 'keys[#2]' } } }",
+            // deep stars, nulls and empty containers
+            "{ '*' : { '*' : { '*' : 'deep.&2.&1.&' } }, 'c' : { '#constant' : 'constants[]' } }",
+    };
+
+    private static Object spec( int index ) {
+        return JsonUtils.javason( SPECS[index] );
+    }
+
+    private static void assertSameAsShiftr( Object spec, String json ) {
+        Object expected = new Shiftr( spec ).transform( JsonUtils.jsonToObject( json ) );
+        Object actual = new StreamingShiftr( spec ).transform( new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) );
+        Assert.assertEquals( actual, expected, "spec " + JsonUtils.toJsonString( spec ) + " input " + json );
+    }
+
+    @DataProvider
+    public Object[][] getCases() {
+        return new Object[][] {
+                { 0, "{ 'c' : 3, 'a' : 1, 'd' : 4, 'b' : 2 }" },
+                { 0, "{ 'a' : 1, 'c' : 3 }" },
+                { 1, "[ { 'name' : 'n0', 'id' : 0 }, { 'id' : 1, 'extra' : [ 1, 2 ] }, 'scalar', { 'name' : { 'deep' : true } } ]" },
+                { 2, "{ 'x' : 1, 'abc' : 2, 'ab' : 3, 'abc2' : 4 }" },
+                { 3, "{ 'x1' : 1, 'products' : [ { 'id' : 'p0', '10' : 'ten' }, { 'id' : 'p1' } ], 'x2' : 2, 'header' : { 'version' : 2, 'id' : 'h' } }" },
+                { 3, "{ 'header' : { 'id' : 'h' }, 'x1' : 1, 'products' : { 'a' : { 'id' : 'p0' } } }" },
+                { 4, "{ 'list' : [ 'zero', 'one', 'two', 'three', 'four', 'five', 'six', 'seven', 'eight', 'nine', 'ten', 'eleven' ] }" },
+                { 4, "{ 'list' : { '2' : 'two', '1' : 'one', '01' : 'zero one', '0' : 'zero', '11' : 'eleven' } }" },
+                { 5, "{ 'a' : 'yes' }" },
+                { 5, "{ 'a' : 'no' }" },
+                { 5, "{ 'a' : { 'yes' : 1 } }" },
+                { 6, "{ 'a' : { 'a' : 1, 'b' : 2 }, 'b' : [ 'x', 'y' ], 'c' : { 'c' : { 'c' : 3 } } }" },
+                { 7, "{ 'a' : { 'x' : { 'value' : 1 }, 'y' : { 'value' : 2 } }, 'b' : [ { 'value' : 3 }, 'no value', { 'value' : 4 } ] }" },
+                { 8, "{ 'a' : { 'x' : { 'n' : null, 'e' : {}, 'l' : [] } }, 'b' : [ [ 1, [ 2 ] ], { 'm' : {} } ], 'c' : {} }" },
+                { 8, "[ null, 1, [ ], { } ]" },
+                { 8, "'just a string'" },
+        };
+    }
+
+    @Test( dataProvider = "getCases" )
+    public void sameOutputAsShiftr( int specIndex, String input ) {
+        assertSameAsShiftr( spec( specIndex ), input.replace( '\'', '"' ) );
+    }
+
+    /**
+     * Random inputs built from keys the specs look for, run thru every spec.
+     */
+    @Test
+    public void randomInputsGiveTheSameOutputAsShiftr() {
+        Random random = new Random( 4242 );
+        for ( int run = 0; run < 300; run++ ) {
+            String json = JsonUtils.toJsonString( randomValue( random, 0 ) );
+            for ( int specIndex = 0; specIndex < SPECS.length; specIndex++ ) {
+                assertSameAsShiftr( spec( specIndex ), json );
+            }
+        }
+    }
+
+    private static final String[] KEYS = { "a", "b", "c", "abc", "x1", "10", "1", "01", "0", "2", "id", "name", "value", "header", "products", "list", "yes" };
+
+    private static Object randomValue( Random random, int depth ) {
+        int kind = depth >= 4 ? 3 + random.nextInt( 3 ) : random.nextInt( 6 );
+        switch ( kind ) {
+            case 0:
+            case 1: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                for ( int count = random.nextInt( 5 ); count > 0; count-- ) {
+                    map.put( KEYS[random.nextInt( KEYS.length )], randomValue( random, depth + 1 ) );
+                }
+                return map;
+            }
+            case 2: {
+                List<Object> list = new ArrayList<>();
+                for ( int count = random.nextInt( 4 ); count > 0; count-- ) {
+                    list.add( randomValue( random, depth + 1 ) );
+                }
+                return list;
+            }
+            case 3:
+                return KEYS[random.nextInt( KEYS.length )];
+            case 4:
+                return random.nextInt( 3 ) == 0 ? null : random.nextInt( 100 );
+            default:
+                return random.nextBoolean() ? 1.5 : Boolean.TRUE;
+        }
+    }
+
+    @DataProvider
+    public Object[][] getUnstreamableSpecs() {
+        return new Object[][] {
+                { "{ 'a' : { '@' : 'copy' } }", "@" },
+                { "{ 'a' : { '@(1,b)' : 'copy' } }", "@(1,b)" },
+                { "{ 'a' : { '@(1,b)' : { 'c' : 'copy' } } }", "@(1,b)" },
+                { "{ 'a' : { '*' : 'out.@(1,id)' } }", "out.@(1,id)" },
+                { "{ 'a' : { '*' : 'out[@(1,index)]' } }", "out.[@(1,index)]" },
+        };
+    }
+
+    @Test( dataProvider = "getUnstreamableSpecs" )
+    public void unstreamableSpecs( String specString, String key ) {
+        Object spec = JsonUtils.javason( specString );
+        Assert.assertFalse( StreamingShiftr.isStreamable( spec ) );
+        try {
+            new StreamingShiftr( spec );
+            Assert.fail( "expected a SpecException" );
+        }
+        catch ( SpecException e ) {
+            Assert.assertTrue( e.getMessage().contains( key ), e.getMessage() );
+        }
+    }
+
+    @Test
+    public void streamableSpecs() {
+        for ( int specIndex = 0; specIndex < SPECS.length; specIndex++ ) {
+            Assert.assertTrue( StreamingShiftr.isStreamable( spec( specIndex ) ), SPECS[specIndex] );
+        }
+    }
+
+    @DataProvider
+    public Object[][] getDuplicateKeyCases() {
+        return new Object[][] {
+                // literals first
+                { 0, "{ 'a' : 1, 'b' : 2, 'a' : 3 }" },
+                // computed only
+                { 1, "[ { 'id' : 1, 'id' : 2 } ]" },
+                // literal and computed children in input order
+                { 2, "{ 'abc' : 1, 'ab' : 2, 'abc' : 3 }" },
+                // a duplicate under a key the spec skips
+                { 0, "{ 'a' : 1, 'skipped' : { 'x' : 1, 'x' : 2 } }" },
+        };
+    }
+
+    /**
+     * Shiftr only sees the last value of a duplicate key, as that is all the ObjectMapper keeps, so streaming
+     *  every value would give a different output.
+     */
+    @Test( dataProvider = "getDuplicateKeyCases" )
+    public void duplicateKeysAreRejected( int specIndex, String input ) {
+        String json = input.replace( '\'', '"' );
+        Assert.assertNotNull( new Shiftr( spec( specIndex ) ).transform( JsonUtils.jsonToObject( json ) ) );
+        try {
+            new StreamingShiftr( spec( specIndex ) ).transform( new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) ) );
+            Assert.fail( "expected a JsonUnmarshalException for " + json );
+        }
+        catch ( JsonUnmarshalException e ) {
+            Assert.assertTrue( e.getCause().getMessage().contains( "Duplicate field" ), e.getCause().getMessage() );
+        }
+    }
+
+    @Test( expectedExceptions = JsonUnmarshalException.class )
+    public void duplicateKeysAreRejectedOffAParser() throws IOException {
+        String json = "[ { 'id' : 1, 'id' : 2 } ]".replace( '\'', '"' );
+        try ( JsonParser parser = new ObjectMapper().getFactory().createParser( json ) ) {
+            new StreamingShiftr( spec( 1 ) ).transform( parser );
+        }
+    }
+
+    /**
+     * A missing literal holds everything after it until the end of the container, which costs memory but not correctness.
+     */
+    @Test
+    public void missingLiteralHoldsTheRestOfTheContainer() {
+        assertSameAsShiftr( spec( 3 ), "{ 'products' : [ { 'id' : 1 }, { 'id' : 2 } ], 'x1' : 'x' }".replace( '\'', '"' ) );
+    }
+
+    @Test( expectedExceptions = SpecException.class )
+    public void specMustBeAMap() {
+        new StreamingShiftr( new ArrayList<>() );
+    }
+
+    @Test
+    public void transformsOneValueOffAParser() throws IOException {
+        StreamingShiftr shiftr = new StreamingShiftr( spec( 1 ) );
+        String json = "[ [ { 'id' : 1 } ], [ { 'id' : 2 }, { 'id' : 3 } ] ]".replace( '\'', '"' );
+
+        List<Object> outputs = new ArrayList<>();
+        try ( JsonParser parser = new ObjectMapper().getFactory().createParser( json ) ) {
+            Assert.assertEquals( parser.nextToken(), JsonToken.START_ARRAY );
+            while ( parser.nextToken() == JsonToken.START_ARRAY ) {
+                outputs.add( shiftr.transform( parser ) );
+            }
+        }
+
+        Assert.assertEquals( outputs, JsonUtils.jsonToList( "[ { 'ids' : [ 1 ], 'indexes' : [ '0' ] }, { 'ids' : [ 2, 3 ], 'indexes' : [ '0', '1' ] } ]".replace( '\'', '"' ) ) );
+    }
+
+    /**
+     * A long stream of records, generated as it is read, so the whole input never exists at once.
+     */
+    @Test
+    public void longStreamOfRecords() {
+        final int records = 100000;
+        InputStream in = new InputStream() {
+            private byte[] chunk = "[".getBytes( StandardCharsets.UTF_8 );
+            private int position;
+            private int record;
+
+            @Override
+            public int read() {
+                if ( position == chunk.length ) {
+                    if ( record > records ) {
+                        return -1;
+                    }
+                    String next = record == records ? "]" :
+                            ( record == 0 ? "" : "," ) + "{\"id\":" + record + ",\"name\":\"n" + record + "\",\"tags\":[\"a\",\"b\",\"c\"]}";
+                    chunk = next.getBytes( StandardCharsets.UTF_8 );
+                    position = 0;
+                    record++;
+                }
+                return chunk[position++];
+            }
+        };
+
+        Map<?, ?> output = (Map<?, ?>) new StreamingShiftr( JsonUtils.javason( "{ '*' : { 'id' : 'ids[]' } }" ) ).transform( in );
+        List<?> ids = (List<?>) output.get( "ids" );
+        Assert.assertEquals( ids.size(), records );
+        Assert.assertEquals( ids.get( records - 1 ), records - 1 );
+    }
+}
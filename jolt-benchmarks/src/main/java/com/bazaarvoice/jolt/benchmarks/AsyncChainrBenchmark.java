@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.chainr.ChainrExecutors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires off 10k concurrent Chainr.transformAsync requests and waits for all of them, comparing a pool of
+ *  platform threads against a virtual thread per request.
+ *
+ * The "virtual" executor needs a JDK with virtual threads (21+), on older JDKs that benchmark fails in setup.
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class AsyncChainrBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 10000;
+
+    @Param( { "platform", "virtual" } )
+    public String executor;
+
+    Chainr chainr;
+    Object input;
+    ExecutorService executorService;
+
+    @Setup
+    public void setup() {
+        chainr = Chainr.fromSpec( Fixtures.spec( "chainr/integration/firstSample" ) );
+        input = Fixtures.input( "chainr/integration/firstSample" );
+
+        if ( "virtual".equals( executor ) ) {
+            executorService = ChainrExecutors.newVirtualThreadPerTaskExecutor();
+            if ( executorService == null ) {
+                throw new IllegalStateException( "This JVM does not have virtual threads, run on JDK 21 or later." );
+            }
+        }
+        else {
+            executorService = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public Object concurrentRequests() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[ CONCURRENT_REQUESTS ];
+        for ( int request = 0; request < CONCURRENT_REQUESTS; request++ ) {
+            futures[request] = chainr.transformAsync( Fixtures.copy( input ), null, executorService );
+        }
+        return CompletableFuture.allOf( futures ).join();
+    }
+}
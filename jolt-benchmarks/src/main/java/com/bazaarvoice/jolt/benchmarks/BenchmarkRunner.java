@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the shaded benchmarks jar.
+ *
+ * Accepts the normal JMH command line options, but always attaches the GC profiler so that every
+ *  result comes with its allocation rate ("gc.alloc.rate.norm" is bytes allocated per operation).
+ *
+ * Examples :
+ *   java -jar jolt-benchmarks/target/benchmarks.jar                            // everything
+ *   java -jar jolt-benchmarks/target/benchmarks.jar ShiftrBenchmark             // one transform
+ *   java -jar jolt-benchmarks/target/benchmarks.jar Shiftr -p fixture=wildcards  // one spec
+ */
+public class BenchmarkRunner {
+
+    public static void main( String[] args ) throws RunnerException, CommandLineOptionException {
+
+        Options options = new OptionsBuilder()
+                .parent( new CommandLineOptions( args ) )
+                .addProfiler( GCProfiler.class )
+                .build();
+
+        new Runner( options ).run();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.Chainr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks multi-stage chains.
+ *
+ * A chain may start with a transform that modifies its input, so each invocation transforms a fresh
+ *  copy of the input.  Subtract the matching "copyBaseline" result to get the cost of the chain itself.
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ChainrBenchmark {
+
+    @State( Scope.Benchmark )
+    public static class Fixture {
+
+        @Param( { "andrewkcarter1", "andrewkcarter2", "firstSample", "ismith", "ritwickgupta", "wolfermann1", "wolfermann2" } )
+        public String fixture;
+
+        Chainr chainr;
+        Object input;
+
+        @Setup
+        public void setup() {
+            chainr = Chainr.fromSpec( Fixtures.spec( "chainr/integration/" + fixture ) );
+            input = Fixtures.input( "chainr/integration/" + fixture );
+        }
+    }
+
+    @State( Scope.Benchmark )
+    public static class Synthetic {
+
+        @Param( { "100", "10000" } )
+        public int products;
+
+        Chainr chainr;
+        Object input;
+
+        @Setup
+        public void setup() {
+            chainr = Chainr.fromSpec( Fixtures.syntheticSpec( "chainr" ) );
+            input = SyntheticCatalog.build( products );
+        }
+    }
+
+    @Benchmark
+    public Object fixture( Fixture state ) {
+        return state.chainr.transform( Fixtures.copy( state.input ) );
+    }
+
+    @Benchmark
+    public Object fixtureCopyBaseline( Fixture state ) {
+        return Fixtures.copy( state.input );
+    }
+
+    @Benchmark
+    public Object synthetic( Synthetic state ) {
+        return state.chainr.transform( Fixtures.copy( state.input ) );
+    }
+
+    @Benchmark
+    public Object syntheticCopyBaseline( Synthetic state ) {
+        return Fixtures.copy( state.input );
+    }
+}
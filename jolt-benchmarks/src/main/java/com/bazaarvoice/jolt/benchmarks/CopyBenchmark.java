@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.common.DeepCopy;
+import com.bazaarvoice.jolt.common.JsonCopier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Java Serialization based DeepCopy against the structural JsonCopier,
+ *  which is what Defaultr uses to copy its default values.
+ *
+ * Also compares JsonUtils.cloneJson against the String round trip that it used to do.
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class CopyBenchmark {
+
+    @Param( { "1", "100" } )
+    public int products;
+
+    Object json;
+
+    @Setup
+    public void setup() {
+        json = SyntheticCatalog.build( products );
+    }
+
+    @Benchmark
+    public Object deepCopy() {
+        return DeepCopy.simpleDeepCopy( json );
+    }
+
+    @Benchmark
+    public Object jsonCopier() {
+        return JsonCopier.copy( json );
+    }
+
+    @Benchmark
+    public Object cloneJson() {
+        return JsonUtils.cloneJson( json );
+    }
+
+    @Benchmark
+    public Object stringRoundTrip() {
+        return JsonUtils.jsonToObject( JsonUtils.toJsonString( json ) );
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.common.JsonCopier;
+
+import java.util.Map;
+
+/**
+ * Loads the "input" / "spec" pairs that the jolt-core unit tests use, so that the benchmarks
+ *  exercise the same specs that the tests verify.
+ *
+ * The fixture files are copied out of jolt-core/src/test/resources by the jolt-benchmarks pom,
+ *  and are referenced by their path under "/json", minus the ".json" suffix, aka "shiftr/firstSample".
+ */
+public final class Fixtures {
+
+    private Fixtures() {}
+
+    public static Map<String, Object> load( String fixture ) {
+        return JsonUtils.classpathToMap( "/json/" + fixture + ".json" );
+    }
+
+    public static Object input( String fixture ) {
+        return load( fixture ).get( "input" );
+    }
+
+    public static Object spec( String fixture ) {
+        return load( fixture ).get( "spec" );
+    }
+
+    /**
+     * Loads a spec that lives under the benchmark module's own "/synthetic" resource directory.
+     */
+    public static Object syntheticSpec( String name ) {
+        return JsonUtils.classpathToObject( "/synthetic/" + name + ".json" );
+    }
+
+    /**
+     * Defaultr, Removr, Modifier and Cardinality modify their input in place, so benchmarks
+     *  of those transforms need a fresh copy of the input for every invocation.
+     *
+     * Each of those benchmark classes also has a "copyBaseline" benchmark, so that the cost
+     *  of this copy can be subtracted out.
+     */
+    public static Object copy( Object json ) {
+        return JsonCopier.copy( json );
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.Shiftr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shiftr specs with only literal keys, skewed either way between the number of spec literals and input keys.
+ *
+ * "wideSpec" is 500 spec literals against 5 input keys, "wideInput" is 5 spec literals against 500 input keys.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class LiteralKeysBenchmark {
+
+    @State( Scope.Benchmark )
+    public static class Skew {
+
+        @Param( { "wideSpec", "wideInput" } )
+        public String skew;
+
+        Shiftr shiftr;
+        Object input;
+
+        @Setup
+        public void setup() {
+            boolean wideSpec = "wideSpec".equals( skew );
+            int specKeys = wideSpec ? 500 : 5;
+            int inputKeys = wideSpec ? 5 : 500;
+
+            Map<String, Object> spec = new LinkedHashMap<>();
+            for ( int index = 0; index < specKeys; index++ ) {
+                spec.put( "key" + index, "out.key" + index );
+            }
+
+            // spread the input keys over the spec keys, so that every input key has a literal when the spec is wide
+            Map<String, Object> data = new LinkedHashMap<>();
+            for ( int index = 0; index < inputKeys; index++ ) {
+                int keyIndex = wideSpec ? index * 100 : index;
+                data.put( "key" + keyIndex, "value" + index );
+            }
+
+            shiftr = new Shiftr( spec );
+            input = data;
+        }
+    }
+
+    @Benchmark
+    public Object shiftr( Skew state ) {
+        return state.shiftr.transform( state.input );
+    }
+}
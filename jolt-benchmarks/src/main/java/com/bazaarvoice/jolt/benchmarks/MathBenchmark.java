@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.modifier.function.Math;
+import com.bazaarvoice.jolt.modifier.function.Objects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Modifier Math functions over long lists against the boxing implementations they replaced,
+ *  which are copied below as "Boxed".
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class MathBenchmark {
+
+    public enum Values {
+        INTS, LONGS, DOUBLES, STRINGS
+    }
+
+    @Param( { "10000" } )
+    public int size;
+
+    @Param
+    public Values values;
+
+    List<Object> list;
+
+    @Setup
+    public void setup() {
+        Random random = new Random( 42 );
+        list = new ArrayList<>( size );
+        for ( int index = 0; index < size; index++ ) {
+            switch ( values ) {
+                case INTS:
+                    list.add( random.nextInt( 100000 ) );
+                    break;
+                case LONGS:
+                    list.add( random.nextLong() >> 20 );
+                    break;
+                case DOUBLES:
+                    list.add( random.nextDouble() * 1000 );
+                    break;
+                default:
+                    list.add( Integer.toString( random.nextInt( 100000 ) ) );
+            }
+        }
+    }
+
+    @Benchmark
+    public Object doubleSum() {
+        return Math.doubleSum( list );
+    }
+
+    @Benchmark
+    public Object doubleSumBoxed() {
+        return Boxed.doubleSum( list );
+    }
+
+    @Benchmark
+    public Object avg() {
+        return Math.avg( list );
+    }
+
+    @Benchmark
+    public Object avgBoxed() {
+        return Boxed.avg( list );
+    }
+
+    @Benchmark
+    public Object intSum() {
+        return Math.intSum( list );
+    }
+
+    @Benchmark
+    public Object intSumBoxed() {
+        return Boxed.intSum( list );
+    }
+
+    @Benchmark
+    public Object longSum() {
+        return Math.longSum( list );
+    }
+
+    @Benchmark
+    public Object longSumBoxed() {
+        return Boxed.longSum( list );
+    }
+
+    @Benchmark
+    public Object max() {
+        return Math.max( list );
+    }
+
+    @Benchmark
+    public Object maxBoxed() {
+        return Boxed.max( list );
+    }
+
+    /**
+     * Math's list functions as they were before the primitive kernels
+     */
+    private static final class Boxed {
+
+        static Optional<Double> doubleSum( List<Object> args ) {
+            Double sum = 0.0;
+            for ( Object arg : args ) {
+                Optional<? extends Double> numberOptional = Objects.toDouble( arg );
+                if ( numberOptional.isPresent() ) {
+                    sum = sum + numberOptional.get();
+                }
+            }
+            return Optional.of( sum );
+        }
+
+        static Optional<Double> avg( List<Object> args ) {
+            double sum = 0d;
+            int count = 0;
+            for ( Object arg : args ) {
+                Optional<? extends Number> numberOptional = Objects.toNumber( arg );
+                if ( numberOptional.isPresent() ) {
+                    sum = sum + numberOptional.get().doubleValue();
+                    count = count + 1;
+                }
+            }
+            return count == 0 ? Optional.<Double>empty() : Optional.of( sum / count );
+        }
+
+        static Optional<Integer> intSum( List<Object> args ) {
+            Integer sum = 0;
+            for ( Object arg : args ) {
+                Optional<? extends Integer> numberOptional = Objects.toInteger( arg );
+                if ( numberOptional.isPresent() ) {
+                    sum = sum + numberOptional.get();
+                }
+            }
+            return Optional.of( sum );
+        }
+
+        static Optional<Long> longSum( List<Object> args ) {
+            Long sum = 0L;
+            for ( Object arg : args ) {
+                Optional<? extends Long> numberOptional = Objects.toLong( arg );
+                if ( numberOptional.isPresent() ) {
+                    sum = sum + numberOptional.get();
+                }
+            }
+            return Optional.of( sum );
+        }
+
+        static Optional<Number> max( List<Object> args ) {
+            if ( args == null || args.size() == 0 ) {
+                return Optional.empty();
+            }
+            Integer maxInt = Integer.MIN_VALUE;
+            Double maxDouble = -( Double.MAX_VALUE );
+            Long maxLong = Long.MIN_VALUE;
+            boolean found = false;
+            for ( Object arg : args ) {
+                if ( arg instanceof String ) {
+                    Optional<?> optional = Objects.toNumber( arg );
+                    if ( optional.isPresent() ) {
+                        arg = optional.get();
+                    }
+                }
+                if ( arg instanceof Integer ) {
+                    maxInt = java.lang.Math.max( maxInt, (Integer) arg );
+                    found = true;
+                }
+                else if ( arg instanceof Double ) {
+                    maxDouble = java.lang.Math.max( maxDouble, (Double) arg );
+                    found = true;
+                }
+                else if ( arg instanceof Long ) {
+                    maxLong = java.lang.Math.max( maxLong, (Long) arg );
+                    found = true;
+                }
+            }
+            if ( !found ) {
+                return Optional.empty();
+            }
+            if ( maxInt.longValue() >= maxDouble.longValue() && maxInt.longValue() >= maxLong ) {
+                return Optional.<Number>of( maxInt );
+            }
+            else if ( maxLong >= maxDouble.longValue() ) {
+                return Optional.<Number>of( maxLong );
+            }
+            else {
+                return Optional.<Number>of( maxDouble );
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.Modifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks all three Modifier flavors against the same specs.
+ *
+ * Modifier modifies its input, so each invocation transforms a fresh copy of the input.
+ * Subtract the matching "copyBaseline" result to get the cost of Modifier itself.
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ModifierBenchmark {
+
+    public enum Op {
+        OVERWRITR {
+            @Override
+            Modifier create( Object spec ) {
+                return new Modifier.Overwritr( spec );
+            }
+        },
+        DEFAULTR {
+            @Override
+            Modifier create( Object spec ) {
+                return new Modifier.Defaultr( spec );
+            }
+        },
+        DEFINR {
+            @Override
+            Modifier create( Object spec ) {
+                return new Modifier.Definr( spec );
+            }
+        };
+
+        abstract Modifier create( Object spec );
+    }
+
+    @State( Scope.Benchmark )
+    public static class Fixture {
+
+        @Param( {
+            "mapLiteral", "mapLiteralWithNullInput", "mapLiteralWithMissingInput", "mapLiteralWithEmptyInput",
+            "arrayElementAt", "arrayLiteral", "arrayLiteralWithNullInput", "arrayLiteralWithEmptyInput",
+            "arrayLiteralWithMissingInput", "simple", "simpleArray", "arrayObject", "simpleMapNullToArray",
+            "simpleMapRuntimeNull", "simpleLookup", "complexLookup", "simpleArrayLookup", "complexArrayLookup",
+            "valueCheckSimpleArray", "valueCheckSimpleArrayNullInput", "valueCheckSimpleArrayEmptyInput",
+            "valueCheckSimpleMap", "valueCheckSimpleMapNullInput", "valueCheckSimpleMapEmptyInput",
+            "simpleMapOpOverride", "simpleArrayOpOverride", "testListOfFunction"
+        } )
+        public String fixture;
+
+        @Param
+        public Op op;
+
+        Modifier modifier;
+        Object input;
+        Map<String, Object> context;
+
+        @Setup
+        @SuppressWarnings( "unchecked" )
+        public void setup() {
+            Map<String, Object> testUnit = Fixtures.load( "modifier/" + fixture );
+            modifier = op.create( testUnit.get( "spec" ) );
+            input = testUnit.get( "input" );
+            context = (Map<String, Object>) testUnit.get( "context" );
+        }
+    }
+
+    @State( Scope.Benchmark )
+    public static class Synthetic {
+
+        @Param( { "100", "10000" } )
+        public int products;
+
+        @Param
+        public Op op;
+
+        Modifier modifier;
+        Object input;
+
+        @Setup
+        public void setup() {
+            modifier = op.create( Fixtures.syntheticSpec( "modifier" ) );
+            input = SyntheticCatalog.build( products );
+        }
+    }
+
+    /**
+     * toInteger/toDouble over values where a fraction of them are not numbers, the case where a failed parse
+     *  used to cost a thrown and swallowed NumberFormatException.
+     */
+    @State( Scope.Benchmark )
+    public static class DirtyData {
+
+        @Param( { "0", "20", "100" } )
+        public int percentDirty;
+
+        Modifier modifier;
+        Object input;
+
+        @Setup
+        public void setup() {
+            Map<String, Object> spec = new LinkedHashMap<>();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put( "count", "=toInteger" );
+            item.put( "price", "=toDouble" );
+            spec.put( "items", Collections.singletonMap( "*", item ) );
+            modifier = new Modifier.Overwritr( spec );
+
+            Random random = new Random( 42 );
+            List<Object> items = new ArrayList<>();
+            for ( int index = 0; index < 1000; index++ ) {
+                boolean dirty = random.nextInt( 100 ) < percentDirty;
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put( "count", dirty ? "n/a" : Integer.toString( index ) );
+                values.put( "price", dirty ? "call us" : index + ".99" );
+                items.add( values );
+            }
+            input = Collections.singletonMap( "items", items );
+        }
+    }
+
+    @Benchmark
+    public Object dirtyData( DirtyData state ) {
+        return state.modifier.transform( Fixtures.copy( state.input ), null );
+    }
+
+    /**
+     * Function calls with literal arguments: a regex split separator, pad widths, and calls that are constant outright.
+     */
+    @State( Scope.Benchmark )
+    public static class ConstantArgs {
+
+        Modifier modifier;
+        Object input;
+
+        @Setup
+        public void setup() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put( "tags", "=split('\\s*[,;]\\s*', @(1,tagList))" );
+            item.put( "code", "=leftPad(@(1,id), 8, '0')" );
+            item.put( "source", "=concat('catalog', '-', 'v2')" );
+            item.put( "ratio", "=divideAndRound(2, @(1,sold), @(1,stock))" );
+            item.put( "limit", "=divideAndRound(2, 10, 3)" );
+            Map<String, Object> spec = new LinkedHashMap<>();
+            spec.put( "items", Collections.singletonMap( "*", item ) );
+            modifier = new Modifier.Overwritr( spec );
+
+            List<Object> items = new ArrayList<>();
+            for ( int index = 0; index < 1000; index++ ) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put( "tagList", "red, green ;blue" );
+                values.put( "id", Integer.toString( index ) );
+                values.put( "sold", index );
+                values.put( "stock", 1000 - index );
+                items.add( values );
+            }
+            input = Collections.singletonMap( "items", items );
+        }
+    }
+
+    @Benchmark
+    public Object constantArgs( ConstantArgs state ) {
+        return state.modifier.transform( Fixtures.copy( state.input ), null );
+    }
+
+    /**
+     * Lookups into a deep context from inside a "*": fixed paths, which are read once per transform, and a path
+     *  with an & reference, which is read for each item.
+     */
+    @State( Scope.Benchmark )
+    public static class ContextLookups {
+
+        Modifier modifier;
+        Object input;
+        Map<String, Object> context;
+
+        @Setup
+        public void setup() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put( "rate", "^tables.currency.rates.usd" );
+            item.put( "price", "=divideAndRound(2, @(1,cents), ^tables.currency.centsPerUnit)" );
+            item.put( "region", "^tables.regions.&1" );
+            Map<String, Object> spec = new LinkedHashMap<>();
+            spec.put( "items", Collections.singletonMap( "*", item ) );
+            modifier = new Modifier.Overwritr( spec );
+
+            Map<String, Object> rates = new LinkedHashMap<>();
+            Map<String, Object> regions = new LinkedHashMap<>();
+            List<Object> items = new ArrayList<>();
+            for ( int index = 0; index < 1000; index++ ) {
+                rates.put( "c" + index, 1.0 + index / 1000.0 );
+                regions.put( Integer.toString( index ), "region-" + index % 10 );
+                items.add( new LinkedHashMap<>( Collections.singletonMap( "cents", index * 100 ) ) );
+            }
+            rates.put( "usd", 1.0 );
+            Map<String, Object> currency = new LinkedHashMap<>();
+            currency.put( "rates", rates );
+            currency.put( "centsPerUnit", 100 );
+            Map<String, Object> tables = new LinkedHashMap<>();
+            tables.put( "currency", currency );
+            tables.put( "regions", regions );
+            context = Collections.<String, Object>singletonMap( "tables", tables );
+            input = Collections.singletonMap( "items", items );
+        }
+    }
+
+    @Benchmark
+    public Object contextLookups( ContextLookups state ) {
+        return state.modifier.transform( Fixtures.copy( state.input ), state.context );
+    }
+
+    /**
+     * trim, then toUpper, then concat a prefix, over each item's name: as three Modifier stages, the way it had to be
+     *  done before function calls could nest, or as one nested call.
+     */
+    @State( Scope.Benchmark )
+    public static class Pipeline {
+
+        @Param( { "stages", "nested" } )
+        public String style;
+
+        List<Modifier> modifiers = new ArrayList<>();
+        Object input;
+
+        @Setup
+        public void setup() {
+            if ( "stages".equals( style ) ) {
+                modifiers.add( itemModifier( "=trim" ) );
+                modifiers.add( itemModifier( "=toUpper" ) );
+                modifiers.add( itemModifier( "=concat('SKU-', @(1,name))" ) );
+            }
+            else {
+                modifiers.add( itemModifier( "=concat('SKU-', =toUpper(=trim))" ) );
+            }
+
+            List<Object> items = new ArrayList<>();
+            for ( int index = 0; index < 1000; index++ ) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put( "name", "  product " + index + " " );
+                items.add( values );
+            }
+            input = Collections.singletonMap( "items", items );
+        }
+
+        private static Modifier itemModifier( String expression ) {
+            Map<String, Object> spec = new LinkedHashMap<>();
+            spec.put( "items", Collections.singletonMap( "*", Collections.singletonMap( "name", expression ) ) );
+            return new Modifier.Overwritr( spec );
+        }
+    }
+
+    @Benchmark
+    public Object pipeline( Pipeline state ) {
+        Object output = Fixtures.copy( state.input );
+        for ( Modifier modifier : state.modifiers ) {
+            output = modifier.transform( output, null );
+        }
+        return output;
+    }
+
+    @Benchmark
+    public Object fixture( Fixture state ) {
+        return state.modifier.transform( Fixtures.copy( state.input ), state.context );
+    }
+
+    @Benchmark
+    public Object fixtureCopyBaseline( Fixture state ) {
+        return Fixtures.copy( state.input );
+    }
+
+    @Benchmark
+    public Object synthetic( Synthetic state ) {
+        return state.modifier.transform( Fixtures.copy( state.input ), null );
+    }
+
+    @Benchmark
+    public Object syntheticCopyBaseline( Synthetic state ) {
+        return Fixtures.copy( state.input );
+    }
+}
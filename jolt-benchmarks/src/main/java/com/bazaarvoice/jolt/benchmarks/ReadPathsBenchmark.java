@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.ReadPathFilter;
+import com.bazaarvoice.jolt.Shiftr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a serialized SyntheticCatalog and shifting a few fields out of it, with the whole document
+ *  parsed, or with only the paths the Shiftr spec reads parsed.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ReadPathsBenchmark {
+
+    @State( Scope.Benchmark )
+    public static class Catalog {
+
+        @Param( { "1000" } )
+        public int productCount;
+
+        Shiftr shiftr;
+        ReadPathFilter readPaths;
+        byte[] json;
+
+        @Setup
+        public void setup() {
+            shiftr = new Shiftr( JsonUtils.javason( "{ 'products' : { '*' : { " +
+                    "'id' : 'products[&1].id', 'name' : 'products[&1].name', 'rating' : { 'primary' : { 'value' : 'products[&2].rating' } } } } }" ) );
+            readPaths = ReadPathFilter.fromReadPaths( shiftr.getInputReadPaths() );
+            json = JsonUtils.toJsonString( SyntheticCatalog.build( productCount ) ).getBytes( StandardCharsets.UTF_8 );
+        }
+    }
+
+    @Benchmark
+    public Object fullParse( Catalog state ) {
+        return state.shiftr.transform( JsonUtils.jsonToObject( new ByteArrayInputStream( state.json ) ) );
+    }
+
+    @Benchmark
+    public Object readPathsParse( Catalog state ) {
+        return state.shiftr.transform( JsonUtils.jsonToObject( new ByteArrayInputStream( state.json ), state.readPaths ) );
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import com.bazaarvoice.jolt.Shiftr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shiftr does not modify its input, so the same input is reused for every invocation.
+ */
+@BenchmarkMode( { Mode.Throughput, Mode.AverageTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ShiftrBenchmark {
+
+    @State( Scope.Benchmark )
+    public static class Fixture {
+
+        @Param( {
+            "arrayExample", "arrayMismatch", "bucketToPrefixSoup", "declaredOutputArray", "escapeAllTheThings",
+            "escapeAllTheThings2", "explicitArrayKey", "filterParallelArrays", "filterParents1", "filterParents2",
+            "filterParents3", "firstSample", "hashDefault", "identity", "inputArrayToPrefix", "invertMap",
+            "json-ld-escaping", "keyref", "lhsAmpMatch", "listKeys", "mapToList", "mapToList2",
+            "mergeParallelArrays1_and-transpose", "mergeParallelArrays2_and-do-not-transpose",
+            "mergeParallelArrays3_and-filter", "multiPlacement", "objectToArray", "passNullThru", "passThru",
+            "pollaxman_218_duplicate_speclines_bug", "prefixDataToArray", "prefixedData", "prefixSoupToBuckets",
+            "queryMappingXform", "shiftToTrash", "simpleLHSEscape", "simpleRHSEscape", "singlePlacement",
+            "specialKeys", "transposeArrayContents1", "transposeArrayContents2", "transposeComplex1",
+            "transposeComplex2", "transposeComplex3_both-sides-multipart", "transposeComplex4_lhs-multipart-rhs-sugar",
+            "transposeComplex5_at-logic-with-embedded-array-lookups", "transposeComplex6_rhs-complex-at",
+            "transposeComplex7_coerce-int-string-conversion", "transposeComplex8_coerce-boolean-string-conversion",
+            "transposeComplex9_lookup_an_array_index", "transposeInverseMap1", "transposeInverseMap2",
+            "transposeLHS1", "transposeLHS2", "transposeLHS3", "transposeNestedLookup", "transposeSimple1",
+            "transposeSimple2", "transposeSimple3", "wildcards", "wildcardSelfAndRef", "wildcardsWithOr"
+        } )
+        public String fixture;
+
+        Shiftr shiftr;
+        Object input;
+
+        @Setup
+        public void setup() {
+            shiftr = new Shiftr( Fixtures.spec( "shiftr/" + fixture ) );
+            input = Fixtures.input( "shiftr/" + fixture );
+        }
+    }
+
+    @State( Scope.Benchmark )
+    public static class Synthetic {
+
+        @Param( { "100", "10000" } )
+        public int products;
+
+        Shiftr shiftr;
+        Object input;
+
+        @Setup
+        public void setup() {
+            shiftr = new Shiftr( Fixtures.syntheticSpec( "shiftr" ) );
+            input = SyntheticCatalog.build( products );
+        }
+    }
+
+    @Benchmark
+    public Object fixture( Fixture state ) {
+        return state.shiftr.transform( state.input );
+    }
+
+    @Benchmark
+    public Object synthetic( Synthetic state ) {
+        return state.shiftr.transform( state.input );
+    }
+}
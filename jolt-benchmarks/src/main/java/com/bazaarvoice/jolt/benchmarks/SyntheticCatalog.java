@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates large, deterministic inputs for the specs under "/synthetic".
+ *
+ * The unit test fixtures are all small, hand written documents, which says little about how
+ *  a transform behaves on a production sized payload.  The catalog looks like :
+ *
+ * {
+ *   "products" : [
+ *     {
+ *       "id" : "p0",
+ *       "name" : "Product 0",
+ *       "brand" : "brand-0",
+ *       "price" : "10.99",
+ *       "rating" : { "primary" : { "value" : 3, "max" : 5 }, "quality" : { ... }, ... },
+ *       "tags" : [ "tag-0", "tag-1", ... ],
+ *       "attributes" : { "color-primary" : "red", "color-secondary" : "blue", "size" : "M", ... },
+ *       "reviews" : [ { "author" : "author-0", "score" : 4, "text" : "..." }, ... ]
+ *     },
+ *     ...
+ *   ]
+ * }
+ */
+public final class SyntheticCatalog {
+
+    private static final String[] COLORS = { "red", "green", "blue", "black", "white" };
+    private static final String[] SIZES = { "XS", "S", "M", "L", "XL" };
+    private static final String[] SECONDARY_RATINGS = { "quality", "value", "sizing", "comfort" };
+
+    private SyntheticCatalog() {}
+
+    /**
+     * @param productCount number of product records in the catalog
+     * @return a fresh, mutable catalog document
+     */
+    public static Map<String, Object> build( int productCount ) {
+        List<Object> products = new ArrayList<>( productCount );
+        for ( int index = 0; index < productCount; index++ ) {
+            products.add( product( index ) );
+        }
+
+        Map<String, Object> catalog = new LinkedHashMap<>();
+        catalog.put( "products", products );
+        return catalog;
+    }
+
+    private static Map<String, Object> product( int index ) {
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put( "id", "p" + index );
+        product.put( "name", "Product " + index );
+        product.put( "brand", "brand-" + ( index % 37 ) );
+        product.put( "price", ( 10 + index % 90 ) + ".99" );
+
+        Map<String, Object> rating = new LinkedHashMap<>();
+        rating.put( "primary", rating( 1 + index % 5 ) );
+        for ( int sub = 0; sub < SECONDARY_RATINGS.length; sub++ ) {
+            rating.put( SECONDARY_RATINGS[sub], rating( 1 + ( index + sub ) % 5 ) );
+        }
+        product.put( "rating", rating );
+
+        List<Object> tags = new ArrayList<>();
+        for ( int tag = 0; tag < 1 + index % 6; tag++ ) {
+            tags.add( "tag-" + ( ( index + tag ) % 50 ) );
+        }
+        product.put( "tags", tags );
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put( "color-primary", COLORS[index % COLORS.length] );
+        attributes.put( "color-secondary", COLORS[( index + 2 ) % COLORS.length] );
+        attributes.put( "size", SIZES[index % SIZES.length] );
+        attributes.put( "material", "material-" + ( index % 11 ) );
+        product.put( "attributes", attributes );
+
+        List<Object> reviews = new ArrayList<>();
+        for ( int review = 0; review < index % 4; review++ ) {
+            Map<String, Object> reviewMap = new LinkedHashMap<>();
+            reviewMap.put( "author", "author-" + ( ( index * 7 + review ) % 1000 ) );
+            reviewMap.put( "score", 1 + ( index + review ) % 5 );
+            reviewMap.put( "text", "Review " + review + " of product " + index );
+            reviews.add( reviewMap );
+        }
+        product.put( "reviews", reviews );
+
+        return product;
+    }
+
+    private static Map<String, Object> rating( int value ) {
+        Map<String, Object> rating = new LinkedHashMap<>();
+        rating.put( "value", value );
+        rating.put( "max", 5 );
+        return rating;
+    }
+}
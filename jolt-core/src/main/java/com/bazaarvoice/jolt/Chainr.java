@@ -16,15 +16,28 @@
 package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.chainr.ChainrBuilder;
+import com.bazaarvoice.jolt.chainr.ChainrExecutors;
+import com.bazaarvoice.jolt.chainr.TransformResult;
 import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.listener.AllocationCounter;
+import com.bazaarvoice.jolt.chainr.listener.ChainrListener;
+import com.bazaarvoice.jolt.chainr.listener.NoOpChainrListener;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Chainr is the JOLT mechanism for chaining {@link JoltTransform}s together. Any of the built-in JOLT
@@ -88,6 +101,14 @@ public class Chainr implements Transform, ContextualTransform {
     // The list of actual ContextualTransforms, for clients that specifically care.
     private final List<ContextualTransform> actualContextualTransforms;
 
+    // Parallel to transformsList, the "operation" of each transform, for the listener to report
+    private final String[] operationNames;
+
+    private final ChainrListener listener;
+
+    // The first transform, which is the only one that sees the raw input
+    private final JoltTransform firstTransform;
+
     public static Chainr fromSpec( Object input ) {
         return new ChainrBuilder( input ).build();
     }
@@ -115,10 +136,33 @@ public class Chainr implements Transform, ContextualTransform {
     }
 
     public Chainr( List<JoltTransform> joltTransforms ) {
+        this( joltTransforms, null, NoOpChainrListener.INSTANCE );
+    }
+
+    /**
+     * @param joltTransforms the transforms to run, in order
+     * @param operationNames the name to report each transform as to the listener, if null the transform class names are used
+     * @param listener told how long each transform takes, see {@link ChainrListener}
+     */
+    public Chainr( List<JoltTransform> joltTransforms, List<String> operationNames, ChainrListener listener ) {
 
         if ( joltTransforms == null ) {
             throw new IllegalArgumentException( "Chainr requires a list of JoltTransforms." );
         }
+        if ( operationNames != null && operationNames.size() != joltTransforms.size() ) {
+            throw new IllegalArgumentException( "Chainr requires an operation name for each JoltTransform." );
+        }
+        if ( listener == null ) {
+            throw new IllegalArgumentException( "Chainr requires a non-null listener." );
+        }
+
+        this.listener = listener;
+        this.operationNames = new String[ joltTransforms.size() ];
+        for ( int index = 0; index < joltTransforms.size(); index++ ) {
+            JoltTransform joltTransform = joltTransforms.get( index );
+            this.operationNames[index] = operationNames != null ? operationNames.get( index ) :
+                    joltTransform == null ? null : joltTransform.getClass().getName();
+        }
 
         transformsList = new ArrayList<>( joltTransforms.size() );
         List<ContextualTransform> realContextualTransforms = new LinkedList<>();
@@ -153,6 +197,21 @@ public class Chainr implements Transform, ContextualTransform {
         }
 
         actualContextualTransforms = Collections.unmodifiableList( realContextualTransforms );
+        firstTransform = joltTransforms.isEmpty() ? null : joltTransforms.get( 0 );
+    }
+
+    /**
+     * The parts of an input that this Chainr can read, in the JSON form described by ShiftrReadSet, so that
+     *  parsing the input can skip the rest, aka
+     *  JsonUtils.jsonToObject( inputStream, ReadPathFilter.fromReadPaths( chainr.getInputReadPaths() ) )
+     *
+     * Only a leading Shiftr is analyzed, any other first transform reads everything, aka Boolean.TRUE.
+     */
+    public Object getInputReadPaths() {
+        if ( firstTransform instanceof Shiftr ) {
+            return ( (Shiftr) firstTransform ).getInputReadPaths();
+        }
+        return Boolean.TRUE;
     }
 
     /**
@@ -172,12 +231,12 @@ public class Chainr implements Transform, ContextualTransform {
      */
     @Override
     public Object transform( Object input, Map<String, Object> context ) {
-        return doTransform( transformsList, input, context );
+        return doTransform( 0, transformsList.size(), input, context );
     }
 
     @Override
     public Object transform( Object input ) {
-        return doTransform( transformsList, input, null );
+        return doTransform( 0, transformsList.size(), input, null );
     }
 
     /**
@@ -230,14 +289,242 @@ public class Chainr implements Transform, ContextualTransform {
             throw new TransformException( "JOLT Chainr : invalid from and to parameters : from=" + from + " to=" + to );
         }
 
-        return doTransform( transformsList.subList( from, to ), input, context );
+        return doTransform( from, to, input, context );
+    }
+
+    /**
+     * Runs the transforms on the default async Executor : virtual threads when the JVM has them,
+     *  otherwise the ForkJoinPool common pool.  See {@link ChainrExecutors#defaultAsyncExecutor()}.
+     *
+     * @see #transformAsync(Object, Map, Executor)
+     */
+    public CompletableFuture<Object> transformAsync( Object input, Map<String, Object> context ) {
+        return transformAsync( input, context, ChainrExecutors.defaultAsyncExecutor() );
+    }
+
+    /**
+     * Runs the transforms on the given Executor.
+     *
+     * The transforms themselves never block, so while a Chainr runs on a virtual thread it does not pin its carrier
+     *  thread, unless a custom Java transform in the chain does something that does.
+     *
+     * @param input a JSON (Jackson-parsed) maps-of-maps object to transform
+     * @param context optional tweaks that the consumer of the transform would like
+     * @param executor where to run the transforms
+     * @return a future of the transformed output, which completes exceptionally if a transform throws
+     */
+    public CompletableFuture<Object> transformAsync( Object input, Map<String, Object> context, Executor executor ) {
+        if ( executor == null ) {
+            throw new IllegalArgumentException( "Chainr transformAsync requires a non-null executor." );
+        }
+        return CompletableFuture.supplyAsync( () -> doTransform( 0, transformsList.size(), input, context ), executor );
+    }
+
+    /**
+     * Transforms each of the inputs, spreading the work across the ForkJoinPool common pool.
+     *
+     * @see #transformAll(List, Map, Executor)
+     */
+    public List<TransformResult> transformAll( List<?> inputs ) {
+        return transformAll( inputs, null, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Transforms each of the inputs, spreading the work across the ForkJoinPool common pool.
+     *
+     * @see #transformAll(List, Map, Executor)
+     */
+    public List<TransformResult> transformAll( List<?> inputs, Map<String, Object> context ) {
+        return transformAll( inputs, context, ForkJoinPool.commonPool() );
+    }
+
+    /**
+     * Transforms each of the inputs, spreading the work across the given Executor.
+     *
+     * The inputs are split into contiguous chunks, and each chunk is transformed on a single thread.
+     * The calling thread waits for all the chunks to finish.
+     *
+     * Each input is isolated from the others : if one throws, its TransformResult carries the exception
+     *  and the rest of the batch carries on.  Errors are not caught.
+     *
+     * @param inputs JSON inputs to transform, which like {@link #transform(Object, Map)} may be modified
+     * @param context optional context passed to every transform of every input, so it will be read concurrently
+     * @param executor where to run the chunks
+     * @return one TransformResult per input, in the same order as the inputs
+     */
+    public List<TransformResult> transformAll( List<?> inputs, Map<String, Object> context, Executor executor ) {
+
+        if ( inputs == null ) {
+            throw new IllegalArgumentException( "Chainr transformAll requires a non-null list of inputs." );
+        }
+        if ( executor == null ) {
+            throw new IllegalArgumentException( "Chainr transformAll requires a non-null executor." );
+        }
+
+        TransformResult[] results = new TransformResult[ inputs.size() ];
+
+        int parallelism = executor instanceof ForkJoinPool ?
+                ( (ForkJoinPool) executor ).getParallelism() : Runtime.getRuntime().availableProcessors();
+
+        // A few chunks per thread, so that one slow chunk does not hold up the whole batch
+        int chunkCount = Math.min( inputs.size(), parallelism * 4 );
+        if ( chunkCount <= 1 ) {
+            transformChunk( inputs, 0, inputs.size(), context, results );
+            return Arrays.asList( results );
+        }
+
+        int chunkSize = ( inputs.size() + chunkCount - 1 ) / chunkCount;
+        List<CompletableFuture<Void>> chunks = new ArrayList<>( chunkCount );
+        for ( int from = 0; from < inputs.size(); from += chunkSize ) {
+            final int chunkFrom = from;
+            final int chunkTo = Math.min( from + chunkSize, inputs.size() );
+            chunks.add( CompletableFuture.runAsync( () -> transformChunk( inputs, chunkFrom, chunkTo, context, results ), executor ) );
+        }
+
+        try {
+            CompletableFuture.allOf( chunks.toArray( new CompletableFuture[ chunks.size() ] ) ).join();
+        }
+        catch ( CompletionException e ) {
+            // Only an Error thrown by a transform, or an Executor rejecting the work, gets here
+            if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw new TransformException( "JOLT Chainr transformAll could not complete the batch.", e.getCause() );
+        }
+
+        return Arrays.asList( results );
+    }
+
+    /**
+     * Lazily transforms each of the inputs as the returned Iterator is advanced, on the calling thread.
+     *
+     * @param inputs JSON inputs to transform
+     * @param context optional context passed to every transform
+     * @return an Iterator of one TransformResult per input, in the same order as the inputs
+     */
+    public Iterator<TransformResult> transformEach( final Iterator<?> inputs, final Map<String, Object> context ) {
+
+        if ( inputs == null ) {
+            throw new IllegalArgumentException( "Chainr transformEach requires a non-null Iterator of inputs." );
+        }
+
+        return new Iterator<TransformResult>() {
+            @Override
+            public boolean hasNext() {
+                return inputs.hasNext();
+            }
+
+            @Override
+            public TransformResult next() {
+                return transformIsolated( inputs.next(), context );
+            }
+        };
     }
 
-    private static Object doTransform( List<ContextualTransform> transforms, Object input, Map<String, Object> context ) {
+    /**
+     * Lazily transforms each of the inputs as the returned Spliterator is advanced.
+     *
+     * The returned Spliterator splits whenever the input Spliterator does, so
+     *  StreamSupport.stream( chainr.transformEach( inputs, context ), true ) runs the transforms in parallel.
+     *
+     * @param inputs JSON inputs to transform
+     * @param context optional context passed to every transform, which will be read concurrently by parallel streams
+     * @return a Spliterator of one TransformResult per input, in the same encounter order as the inputs
+     */
+    public Spliterator<TransformResult> transformEach( Spliterator<?> inputs, Map<String, Object> context ) {
+
+        if ( inputs == null ) {
+            throw new IllegalArgumentException( "Chainr transformEach requires a non-null Spliterator of inputs." );
+        }
+
+        return new TransformingSpliterator( inputs, context );
+    }
+
+    private class TransformingSpliterator implements Spliterator<TransformResult> {
+
+        private final Spliterator<?> inputs;
+        private final Map<String, Object> context;
+
+        private TransformingSpliterator( Spliterator<?> inputs, Map<String, Object> context ) {
+            this.inputs = inputs;
+            this.context = context;
+        }
+
+        @Override
+        public boolean tryAdvance( Consumer<? super TransformResult> action ) {
+            return inputs.tryAdvance( input -> action.accept( transformIsolated( input, context ) ) );
+        }
+
+        @Override
+        public Spliterator<TransformResult> trySplit() {
+            Spliterator<?> split = inputs.trySplit();
+            return split == null ? null : new TransformingSpliterator( split, context );
+        }
+
+        @Override
+        public long estimateSize() {
+            return inputs.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            // every input maps to exactly one non-null TransformResult
+            return ( inputs.characteristics() & ( ORDERED | SIZED | SUBSIZED ) ) | NONNULL;
+        }
+    }
+
+    private void transformChunk( List<?> inputs, int from, int to, Map<String, Object> context, TransformResult[] results ) {
+        for ( int index = from; index < to; index++ ) {
+            results[index] = transformIsolated( inputs.get( index ), context );
+        }
+    }
+
+    private TransformResult transformIsolated( Object input, Map<String, Object> context ) {
+        try {
+            return TransformResult.success( doTransform( 0, transformsList.size(), input, context ) );
+        }
+        catch ( RuntimeException e ) {
+            return TransformResult.failure( e );
+        }
+    }
+
+    private Object doTransform( int from, int to, Object input, Map<String, Object> context ) {
+
+        if ( listener != NoOpChainrListener.INSTANCE ) {
+            return doListenedTransform( from, to, input, context );
+        }
 
         Object intermediate = input;
-        for ( ContextualTransform transform : transforms ) {
-            intermediate = transform.transform( intermediate, context );
+        for ( int index = from; index < to; index++ ) {
+            intermediate = transformsList.get( index ).transform( intermediate, context );
+        }
+
+        return intermediate;
+    }
+
+    /**
+     * Same as doTransform, but times each transform and reports it to the listener.
+     */
+    private Object doListenedTransform( int from, int to, Object input, Map<String, Object> context ) {
+
+        boolean measureAllocatedBytes = listener.measuresAllocatedBytes() && AllocationCounter.isSupported();
+
+        Object intermediate = input;
+        for ( int index = from; index < to; index++ ) {
+
+            long allocatedBefore = measureAllocatedBytes ? AllocationCounter.currentThreadAllocatedBytes() : -1;
+            long start = System.nanoTime();
+            try {
+                intermediate = transformsList.get( index ).transform( intermediate, context );
+            }
+            catch ( RuntimeException | Error e ) {
+                listener.stageFailed( index, operationNames[index], System.nanoTime() - start, e );
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = measureAllocatedBytes ? AllocationCounter.currentThreadAllocatedBytes() - allocatedBefore : -1;
+
+            listener.stageCompleted( index, operationNames[index], elapsed, allocated );
         }
 
         return intermediate;
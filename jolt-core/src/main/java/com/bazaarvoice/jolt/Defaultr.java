@@ -198,7 +198,7 @@ public class Defaultr implements SpecDriven, Transform {
         {
             Map<String, Object> rootSpec = new LinkedHashMap<>();
             rootSpec.put( rootString, spec );
-            mapRoot = Key.parseSpec( rootSpec ).iterator().next();
+            mapRoot = Key.parseSpecInOrder( rootSpec ).get( 0 );
         }
 
         //  Thus we check the top level type of the input.
@@ -207,7 +207,7 @@ public class Defaultr implements SpecDriven, Transform {
             rootSpec.put( rootString + WildCards.ARRAY, spec );
             Key tempKey = null;
             try {
-                tempKey = Key.parseSpec( rootSpec ).iterator().next();
+                tempKey = Key.parseSpecInOrder( rootSpec ).get( 0 );
             }
             catch ( NumberFormatException nfe ) {
                 // this is fine, it means the top level spec has non numeric keys
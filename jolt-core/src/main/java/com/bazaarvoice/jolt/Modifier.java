@@ -17,20 +17,26 @@
 package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.common.spec.BaseSpec;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.modifier.OpMode;
 import com.bazaarvoice.jolt.modifier.TemplatrSpecBuilder;
 import com.bazaarvoice.jolt.modifier.function.Function;
+import com.bazaarvoice.jolt.modifier.function.FunctionStats;
 import com.bazaarvoice.jolt.modifier.function.Lists;
+import com.bazaarvoice.jolt.modifier.function.LookupCachingContext;
 import com.bazaarvoice.jolt.modifier.function.Math;
 import com.bazaarvoice.jolt.modifier.function.Objects;
 import com.bazaarvoice.jolt.modifier.function.Strings;
 import com.bazaarvoice.jolt.modifier.spec.ModifierCompositeSpec;
+import com.bazaarvoice.jolt.modifier.spec.ModifierLeafSpec;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -111,8 +117,8 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
     @Override
     public Object transform( final Object input, final Map<String, Object> context ) {
 
-        Map<String, Object> contextWrapper = new HashMap<>(  );
-        contextWrapper.put( ROOT_KEY, context );
+        // a fresh one per transform, so that remembered context lookups never outlive the context they came from
+        Map<String, Object> contextWrapper = new LookupCachingContext( ROOT_KEY, context );
 
         MatchedElement rootLpe = new MatchedElement( ROOT_KEY );
         WalkedPath walkedPath = new WalkedPath();
@@ -122,6 +128,42 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
         return input;
     }
 
+    /**
+     * Counters for every function call in the spec, so that callers can see which spec lines are
+     *  seeing input their functions can not handle.  The counters are live, and shared by every
+     *  thread running this Modifier.
+     *
+     * @return the functions' stats, keyed by the spec keys leading to them, i.e. "ratings.*.score", in spec order
+     */
+    public Map<String, List<FunctionStats>> getFunctionStats() {
+        Map<String, List<FunctionStats>> functionStats = new LinkedHashMap<>();
+        collectFunctionStats( rootSpec, null, functionStats );
+        return Collections.unmodifiableMap( functionStats );
+    }
+
+    private static void collectFunctionStats( BaseSpec spec, String path, Map<String, List<FunctionStats>> functionStats ) {
+        if ( spec instanceof ModifierLeafSpec ) {
+            List<FunctionStats> leafStats = ( (ModifierLeafSpec) spec ).getFunctionStats();
+            if ( ! leafStats.isEmpty() ) {
+                functionStats.put( path, leafStats );
+            }
+        }
+        else if ( spec instanceof ModifierCompositeSpec ) {
+            ModifierCompositeSpec compositeSpec = (ModifierCompositeSpec) spec;
+            for ( BaseSpec child : compositeSpec.getLiteralChildren().values() ) {
+                collectFunctionStats( child, childPath( path, child ), functionStats );
+            }
+            for ( BaseSpec child : compositeSpec.getComputedChildren() ) {
+                collectFunctionStats( child, childPath( path, child ), functionStats );
+            }
+        }
+    }
+
+    private static String childPath( String path, BaseSpec child ) {
+        String key = child.getPathElement().getRawKey();
+        return path == null ? key : path + "." + key;
+    }
+
     /**
      * This variant of modifier creates the key/index is missing,
      * and overwrites the value if present
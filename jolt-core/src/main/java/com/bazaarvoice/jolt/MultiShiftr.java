@@ -0,0 +1,330 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs several Shiftr specs over the same input, producing one output per spec, while walking
+ *  the parts of the input that the specs have in common only once.
+ *
+ * Example : specs for a search index document and an analytics document, that both pull from
+ *  "data.product", share the lookups of "data" and "product" in the input.
+ *
+ * The spec trees are merged along their literal keys.  A merged level looks each of its literal keys
+ *  up in the input once, and hands the value to the children of every spec that has that key.
+ * A level is only merged when that does not change what any single spec would do on its own, namely
+ *  - every spec at that level runs its literal children before any "*" children
+ *  - the specs do not disagree on the order of their shared literal keys, so each spec's literal
+ *    children still run in its own spec order, which matters for things like "out[]" appends
+ * Everything else, "*", "&", "@", "$" and "#" children and List or scalar input, is run by each
+ *  spec on its own, with its own WalkedPath, so "#" counts and references stay per spec.
+ *
+ * The spec is a List of Shiftr specs, and the output is a List with the output of each of them, in
+ *  the same order, so a MultiShiftr can be used as a fan out stage at the end of a Chainr.
+ *
+ * As with Shiftr, the outputs share Lists and Maps with the input, so a spec that appends onto a List
+ *  it passed through from the input changes the input for the specs after it, just as it would running
+ *  separate Shiftrs one after another over the same input.
+ */
+public class MultiShiftr implements SpecDriven, Transform {
+
+    // stands in for a missing key, as a null value in the input is a real value
+    private static final Object MISSING = new Object();
+
+    private final int specCount;
+    private final Level root;
+
+    /**
+     * Initialize a MultiShiftr transform with a List of Shiftr Specs.
+     *
+     * @throws com.bazaarvoice.jolt.exception.SpecException for a malformed spec
+     */
+    @Inject
+    @SuppressWarnings( "unchecked" )
+    public MultiShiftr( Object spec ) {
+
+        if ( ! ( spec instanceof List ) || ( (List<Object>) spec ).isEmpty() ) {
+            throw new SpecException( "MultiShiftr expected a spec of a non empty List of Shiftr specs, got " +
+                    ( spec == null ? "null" : spec.getClass().getSimpleName() ) );
+        }
+
+        List<Object> specs = (List<Object>) spec;
+
+        specCount = specs.size();
+        int[] specIndexes = new int[ specCount ];
+        ShiftrCompositeSpec[] rootSpecs = new ShiftrCompositeSpec[ specCount ];
+        for ( int index = 0; index < specCount; index++ ) {
+            Object shiftrSpec = specs.get( index );
+            if ( ! ( shiftrSpec instanceof Map ) ) {
+                throw new SpecException( "MultiShiftr expected each spec to be of Map type, spec " + index + " was " +
+                        ( shiftrSpec == null ? "null" : shiftrSpec.getClass().getSimpleName() ) );
+            }
+            specIndexes[index] = index;
+            rootSpecs[index] = new ShiftrCompositeSpec( ROOT_KEY, (Map<String, Object>) shiftrSpec );
+        }
+
+        root = Level.build( specIndexes, rootSpecs );
+    }
+
+    /**
+     * Applies every Shiftr spec to the input.
+     *
+     * @param input the JSON object to transform
+     * @return a List with the output of each spec, in spec order
+     */
+    @Override
+    public List<Object> transform( Object input ) {
+
+        WalkedPath[] walkedPaths = new WalkedPath[ specCount ];
+        @SuppressWarnings( "unchecked" )
+        Map<String, Object>[] outputs = new Map[ specCount ];
+
+        for ( int index = 0; index < specCount; index++ ) {
+            // Create a root LiteralPathElement so that # is useful at the root level
+            walkedPaths[index] = new WalkedPath( input, new MatchedElement( ROOT_KEY ) );
+            outputs[index] = new HashMap<>();
+        }
+
+        root.apply( ROOT_KEY, Optional.of( input ), walkedPaths, outputs );
+
+        List<Object> results = new ArrayList<>( specCount );
+        for ( Map<String, Object> output : outputs ) {
+            results.add( output.get( ROOT_KEY ) );
+        }
+        return results;
+    }
+
+    /**
+     * The composite specs of one or more of the specs, that sit at the same literal key path.
+     */
+    private static final class Level {
+
+        private final int[] specIndexes;
+        private final ShiftrCompositeSpec[] specs;
+
+        // null if this Level is not merged, and each spec just applies itself
+        private final ExecutionStrategy[] executionStrategies;
+        private final String[] literalKeys;
+        private final LiteralKey[] literalChildren;
+
+        private Level( int[] specIndexes, ShiftrCompositeSpec[] specs, ExecutionStrategy[] executionStrategies, String[] literalKeys, LiteralKey[] literalChildren ) {
+            this.specIndexes = specIndexes;
+            this.specs = specs;
+            this.executionStrategies = executionStrategies;
+            this.literalKeys = literalKeys;
+            this.literalChildren = literalChildren;
+        }
+
+        private static Level build( int[] specIndexes, ShiftrCompositeSpec[] specs ) {
+
+            Level unmerged = new Level( specIndexes, specs, null, null, null );
+            if ( specs.length == 1 ) {
+                return unmerged;
+            }
+
+            ExecutionStrategy[] executionStrategies = new ExecutionStrategy[ specs.length ];
+            for ( int member = 0; member < specs.length; member++ ) {
+                executionStrategies[member] = specs[member].determineExecutionStrategy();
+                if ( executionStrategies[member] != ExecutionStrategy.AVAILABLE_LITERALS &&
+                     executionStrategies[member] != ExecutionStrategy.AVAILABLE_LITERALS_WITH_COMPUTED ) {
+                    return unmerged;
+                }
+            }
+
+            List<String> mergedKeys = mergeLiteralOrder( specs );
+            if ( mergedKeys == null ) {
+                return unmerged;
+            }
+
+            LiteralKey[] literalChildren = new LiteralKey[ mergedKeys.size() ];
+            for ( int ordinal = 0; ordinal < literalChildren.length; ordinal++ ) {
+                literalChildren[ordinal] = LiteralKey.build( mergedKeys.get( ordinal ), specIndexes, specs );
+            }
+
+            return new Level( specIndexes, specs, executionStrategies, mergedKeys.toArray( new String[ mergedKeys.size() ] ), literalChildren );
+        }
+
+        /**
+         * Merges the literal key orders of the specs into one order, that keeps the order of each of them.
+         *
+         * @return the merged order, or null if two of the specs have shared keys in different orders
+         */
+        private static List<String> mergeLiteralOrder( ShiftrCompositeSpec[] specs ) {
+
+            List<String> merged = new ArrayList<>();
+            for ( ShiftrCompositeSpec spec : specs ) {
+
+                // where the last key of this spec went in the merged order
+                int position = -1;
+                for ( String key : spec.getLiteralChildren().keySet() ) {
+                    int existing = merged.indexOf( key );
+                    if ( existing < 0 ) {
+                        merged.add( ++position, key );
+                    }
+                    else if ( existing > position ) {
+                        position = existing;
+                    }
+                    else {
+                        return null;
+                    }
+                }
+            }
+            return merged;
+        }
+
+        private void apply( String inputKey, Optional<Object> inputOptional, WalkedPath[] walkedPaths, Map<String, Object>[] outputs ) {
+
+            if ( executionStrategies == null ) {
+                for ( int member = 0; member < specs.length; member++ ) {
+                    int specIndex = specIndexes[member];
+                    specs[member].apply( inputKey, inputOptional, walkedPaths[specIndex], outputs[specIndex], null );
+                }
+                return;
+            }
+
+            // the same steps as ShiftrCompositeSpec.apply, done for each spec, with the literal children shared
+            Object input = inputOptional.get();
+            for ( int member = 0; member < specs.length; member++ ) {
+                int specIndex = specIndexes[member];
+                WalkedPath walkedPath = walkedPaths[specIndex];
+
+                // literal keys, or the root key, so this always matches
+                MatchedElement thisLevel = specs[member].getPathElement().match( inputKey, walkedPath );
+                walkedPath.add( input, thisLevel );
+
+                for ( ShiftrSpec specialChild : specs[member].getSpecialChildren() ) {
+                    specialChild.apply( inputKey, inputOptional, walkedPath, outputs[specIndex], null );
+                }
+            }
+
+            if ( input instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> inputMap = (Map<String, Object>) input;
+
+                for ( int ordinal = 0; ordinal < literalKeys.length; ordinal++ ) {
+                    Object subInput = inputMap.getOrDefault( literalKeys[ordinal], MISSING );
+                    if ( subInput != MISSING ) {
+                        literalChildren[ordinal].apply( Optional.of( subInput ), walkedPaths, outputs );
+                    }
+                }
+
+                for ( int member = 0; member < specs.length; member++ ) {
+                    if ( executionStrategies[member] == ExecutionStrategy.AVAILABLE_LITERALS_WITH_COMPUTED ) {
+                        int specIndex = specIndexes[member];
+                        for ( Map.Entry<String, Object> inputEntry : inputMap.entrySet() ) {
+                            specs[member].getComputedKeysMatcher().apply( inputEntry.getKey(), Optional.of( inputEntry.getValue() ),
+                                    walkedPaths[specIndex], outputs[specIndex], null );
+                        }
+                    }
+                }
+            }
+            else {
+                for ( int member = 0; member < specs.length; member++ ) {
+                    int specIndex = specIndexes[member];
+                    executionStrategies[member].process( specs[member], inputOptional, walkedPaths[specIndex], outputs[specIndex], null );
+                }
+            }
+
+            for ( int member = 0; member < specs.length; member++ ) {
+                WalkedPath walkedPath = walkedPaths[ specIndexes[member] ];
+
+                // We are done, so remove ourselves from the walkedPath
+                walkedPath.removeLast();
+
+                // we matched so increment the matchCount of our parent
+                walkedPath.lastElement().getMatchedElement().incrementHashCount();
+            }
+        }
+    }
+
+    /**
+     * The literal children of the specs of a merged Level, for one literal key.
+     */
+    private static final class LiteralKey {
+
+        private final String key;
+
+        // leaf children, which each write to their own spec's output
+        private final int[] leafSpecIndexes;
+        private final ShiftrSpec[] leaves;
+
+        // composite children, which carry on the merged walk, or null if none of the specs have one
+        private final Level composites;
+
+        private LiteralKey( String key, int[] leafSpecIndexes, ShiftrSpec[] leaves, Level composites ) {
+            this.key = key;
+            this.leafSpecIndexes = leafSpecIndexes;
+            this.leaves = leaves;
+            this.composites = composites;
+        }
+
+        private static LiteralKey build( String key, int[] specIndexes, ShiftrCompositeSpec[] specs ) {
+
+            List<Integer> leafSpecIndexes = new ArrayList<>();
+            List<ShiftrSpec> leaves = new ArrayList<>();
+            List<Integer> compositeSpecIndexes = new ArrayList<>();
+            List<ShiftrCompositeSpec> composites = new ArrayList<>();
+
+            for ( int member = 0; member < specs.length; member++ ) {
+                ShiftrSpec child = specs[member].getLiteralChildren().get( key );
+                if ( child instanceof ShiftrCompositeSpec ) {
+                    compositeSpecIndexes.add( specIndexes[member] );
+                    composites.add( (ShiftrCompositeSpec) child );
+                }
+                else if ( child != null ) {
+                    leafSpecIndexes.add( specIndexes[member] );
+                    leaves.add( child );
+                }
+            }
+
+            Level compositeLevel = composites.isEmpty() ? null :
+                    Level.build( toArray( compositeSpecIndexes ), composites.toArray( new ShiftrCompositeSpec[ composites.size() ] ) );
+
+            return new LiteralKey( key, toArray( leafSpecIndexes ), leaves.toArray( new ShiftrSpec[ leaves.size() ] ), compositeLevel );
+        }
+
+        private void apply( Optional<Object> inputOptional, WalkedPath[] walkedPaths, Map<String, Object>[] outputs ) {
+            for ( int leaf = 0; leaf < leaves.length; leaf++ ) {
+                int specIndex = leafSpecIndexes[leaf];
+                leaves[leaf].apply( key, inputOptional, walkedPaths[specIndex], outputs[specIndex], null );
+            }
+            if ( composites != null ) {
+                composites.apply( key, inputOptional, walkedPaths, outputs );
+            }
+        }
+
+        private static int[] toArray( List<Integer> list ) {
+            int[] array = new int[ list.size() ];
+            for ( int index = 0; index < array.length; index++ ) {
+                array[index] = list.get( index );
+            }
+            return array;
+        }
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.common.ComputedKeysMatcher;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.shiftr.ShiftrReadSet;
 import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
 
 import javax.inject.Inject;
@@ -472,6 +474,22 @@ public class Shiftr implements SpecDriven, Transform {
      */
     @Inject
     public Shiftr( Object spec ) {
+        this( spec, ComputedKeysMatcher.DEFAULT_DISPATCH_CACHE_SIZE );
+    }
+
+    /**
+     * Initialize a Shiftr transform with a Spec, and the size of the caches that remember which "*" key
+     *  handles an input key, see ComputedKeysMatcher.  Specs run over input with many distinct keys may want
+     *  a smaller cache, or 0 to turn it off.
+     *
+     * @throws com.bazaarvoice.jolt.exception.SpecException for a malformed spec
+     * @throws IllegalArgumentException for a negative dispatchCacheSize
+     */
+    public Shiftr( Object spec, int dispatchCacheSize ) {
+
+        if ( dispatchCacheSize < 0 ) {
+            throw new IllegalArgumentException( "Shiftr dispatchCacheSize can not be negative, was:" + dispatchCacheSize );
+        }
 
         if ( spec == null ){
             throw new SpecException( "Shiftr expected a spec of Map type, got 'null'." );
@@ -480,9 +498,15 @@ public class Shiftr implements SpecDriven, Transform {
             throw new SpecException( "Shiftr expected a spec of Map type, got " + spec.getClass().getSimpleName() );
         }
 
-        rootSpec = new ShiftrCompositeSpec( ROOT_KEY, (Map<String, Object>) spec );
+        rootSpec = new ShiftrCompositeSpec( ROOT_KEY, (Map<String, Object>) spec, dispatchCacheSize );
     }
 
+    /**
+     * @return the parts of an input that this Shiftr can read, so a parser can skip the rest, see ShiftrReadSet
+     */
+    public Object getInputReadPaths() {
+        return ShiftrReadSet.of( rootSpec );
+    }
 
     /**
      * Applies the Shiftr transform.
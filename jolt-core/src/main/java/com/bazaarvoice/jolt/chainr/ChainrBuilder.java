@@ -19,6 +19,8 @@ import com.bazaarvoice.jolt.Chainr;
 import com.bazaarvoice.jolt.JoltTransform;
 import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
 import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.listener.ChainrListener;
+import com.bazaarvoice.jolt.chainr.listener.NoOpChainrListener;
 import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
 import com.bazaarvoice.jolt.chainr.spec.ChainrSpec;
 
@@ -27,9 +29,14 @@ import java.util.List;
 
 public class ChainrBuilder {
 
+    private static final ChainrInstantiator DEFAULT_INSTANTIATOR = new DefaultChainrInstantiator();
+
     private final Object chainrSpecObj;
-    protected ChainrInstantiator chainrInstantiator = new DefaultChainrInstantiator();
+    protected ChainrInstantiator chainrInstantiator = DEFAULT_INSTANTIATOR;
+    // null to leave the dispatch cache size of each Shiftr at its default
+    private Integer dispatchCacheSize;
     private ClassLoader classLoader = ChainrBuilder.class.getClassLoader();
+    private ChainrListener listener = NoOpChainrListener.INSTANCE;
 
     /**
      * Initialize a Chainr to run a list of Transforms.
@@ -57,6 +64,22 @@ public class ChainrBuilder {
         return this;
     }
 
+    /**
+     * Set the dispatch cache size of every Shiftr in the Chainr, see Shiftr( Object, int ).
+     * Other transforms, including ones that extend Shiftr, are built as usual.
+     *
+     * Only the default loader knows how to pass the size on, so build() fails if a loader was set as well.
+     *
+     * @param dispatchCacheSize max number of input keys each "*" dispatch cache remembers, 0 to turn them off
+     */
+    public ChainrBuilder dispatchCacheSize( int dispatchCacheSize ) {
+        if ( dispatchCacheSize < 0 ) {
+            throw new IllegalArgumentException( "ChainrBuilder requires a non-negative dispatchCacheSize, was:" + dispatchCacheSize );
+        }
+        this.dispatchCacheSize = dispatchCacheSize;
+        return this;
+    }
+
     public ChainrBuilder withClassLoader( ClassLoader classLoader ) {
         if ( classLoader == null ) {
             throw new IllegalArgumentException( "ChainrBuilder requires a non-null classLoader." );
@@ -65,15 +88,39 @@ public class ChainrBuilder {
         return this;
     }
 
+    /**
+     * Set a ChainrListener to be told how long each transform in the Chainr takes.
+     * If one is not set, defaults to NoOpChainrListener, which has no runtime cost.
+     *
+     * @param listener ChainrListener to call after every transform
+     */
+    public ChainrBuilder listener( ChainrListener listener ) {
+        if ( listener == null ) {
+            throw new IllegalArgumentException( "ChainrBuilder requires a non-null listener." );
+        }
+        this.listener = listener;
+        return this;
+    }
+
     public Chainr build() {
+        ChainrInstantiator chainrInstantiator = this.chainrInstantiator;
+        if ( dispatchCacheSize != null ) {
+            if ( chainrInstantiator != DEFAULT_INSTANTIATOR ) {
+                throw new IllegalArgumentException( "ChainrBuilder can not apply a dispatchCacheSize thru a custom loader, set one or the other." );
+            }
+            chainrInstantiator = new DefaultChainrInstantiator( dispatchCacheSize );
+        }
+
         ChainrSpec chainrSpec = new ChainrSpec( chainrSpecObj, classLoader );
         List<JoltTransform> transforms = new ArrayList<>( chainrSpec.getChainrEntries().size() );
+        List<String> operationNames = new ArrayList<>( chainrSpec.getChainrEntries().size() );
         for ( ChainrEntry entry : chainrSpec.getChainrEntries() ) {
 
             JoltTransform transform = chainrInstantiator.hydrateTransform( entry );
             transforms.add( transform );
+            operationNames.add( entry.getOperationName() );
         }
 
-        return new Chainr( transforms );
+        return new Chainr( transforms, operationNames, listener );
     }
 }
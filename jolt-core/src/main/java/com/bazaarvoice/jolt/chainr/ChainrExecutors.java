@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executors for running Chainr asynchronously, see {@link com.bazaarvoice.jolt.Chainr#transformAsync}.
+ *
+ * Jolt is built for Java 8, so virtual threads (Java 21+) are looked up reflectively.
+ */
+public final class ChainrExecutors {
+
+    private ChainrExecutors() {}
+
+    /**
+     * Lazy holder, so that the reflection only happens if async transforms are actually used.
+     */
+    private static class DefaultExecutorHolder {
+        private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            return virtual != null ? virtual : ForkJoinPool.commonPool();
+        }
+    }
+
+    /**
+     * @return a shared Executor that starts a virtual thread per task when the JVM has them,
+     *  otherwise the ForkJoinPool common pool
+     */
+    public static Executor defaultAsyncExecutor() {
+        return DefaultExecutorHolder.DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * @return true if {@link #defaultAsyncExecutor()} runs tasks on virtual threads
+     */
+    public static boolean isVirtualThreadDefault() {
+        return defaultAsyncExecutor() != ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @return a new Executors.newVirtualThreadPerTaskExecutor(), or null if the JVM does not have virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return (ExecutorService) factory.invoke( null );
+        }
+        catch ( NoSuchMethodException | IllegalAccessException e ) {
+            return null;
+        }
+        catch ( InvocationTargetException e ) {
+            // eg Java 19 / 20, where virtual threads are a preview feature that has not been enabled
+            return null;
+        }
+    }
+}
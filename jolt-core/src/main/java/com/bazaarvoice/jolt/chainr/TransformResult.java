@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+/**
+ * Outcome of transforming a single input as part of a batch, see {@link com.bazaarvoice.jolt.Chainr#transformAll}.
+ *
+ * One input failing does not fail the batch, instead its TransformResult carries the exception.
+ */
+public final class TransformResult {
+
+    private final Object output;
+    private final RuntimeException failure;
+
+    private TransformResult( Object output, RuntimeException failure ) {
+        this.output = output;
+        this.failure = failure;
+    }
+
+    public static TransformResult success( Object output ) {
+        return new TransformResult( output, null );
+    }
+
+    public static TransformResult failure( RuntimeException failure ) {
+        if ( failure == null ) {
+            throw new IllegalArgumentException( "TransformResult.failure requires a non-null exception." );
+        }
+        return new TransformResult( null, failure );
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return the output of the transform, which can legitimately be null, or null if the transform failed
+     */
+    public Object getOutput() {
+        return output;
+    }
+
+    /**
+     * @return what the transform threw, or null if it succeeded
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return the output of the transform
+     * @throws RuntimeException the exception the transform threw, if it failed
+     */
+    public Object getOrThrow() {
+        if ( failure != null ) {
+            throw failure;
+        }
+        return output;
+    }
+}
@@ -16,6 +16,7 @@
 package com.bazaarvoice.jolt.chainr.instantiator;
 
 import com.bazaarvoice.jolt.JoltTransform;
+import com.bazaarvoice.jolt.Shiftr;
 import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
 import com.bazaarvoice.jolt.exception.SpecException;
 
@@ -26,6 +27,24 @@ import java.lang.reflect.Constructor;
  */
 public class DefaultChainrInstantiator implements ChainrInstantiator {
 
+    // null to build Shiftrs with the default dispatch cache size
+    private final Integer dispatchCacheSize;
+
+    public DefaultChainrInstantiator() {
+        this.dispatchCacheSize = null;
+    }
+
+    /**
+     * @param dispatchCacheSize dispatch cache size for every Shiftr this builds, see Shiftr( Object, int ).
+     *                          Other transforms, subclasses of Shiftr included, are built without it.
+     */
+    public DefaultChainrInstantiator( int dispatchCacheSize ) {
+        if ( dispatchCacheSize < 0 ) {
+            throw new IllegalArgumentException( "DefaultChainrInstantiator dispatchCacheSize can not be negative, was:" + dispatchCacheSize );
+        }
+        this.dispatchCacheSize = dispatchCacheSize;
+    }
+
     @Override
     public JoltTransform hydrateTransform( ChainrEntry entry ) {
 
@@ -36,6 +55,10 @@ public class DefaultChainrInstantiator implements ChainrInstantiator {
             // If the transform class is a SpecTransform, we try to construct it with the provided spec.
             if ( entry.isSpecDriven() ) {
 
+                if ( dispatchCacheSize != null && transformClass == Shiftr.class ) {
+                    return new Shiftr( spec, dispatchCacheSize );
+                }
+
                 try {
                     // Lookup a Constructor with a Single "Object" arg.
                     Constructor constructor = transformClass.getConstructor( Object.class );
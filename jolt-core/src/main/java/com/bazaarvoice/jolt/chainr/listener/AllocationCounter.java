@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.listener;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads the number of bytes the current thread has allocated, where the JVM supports it.
+ *
+ * HotSpot based JVMs expose this via com.sun.management.ThreadMXBean, other JVMs may not have
+ *  that class at all, so all access to it is guarded.
+ */
+public final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = loadThreadMXBean();
+
+    private AllocationCounter() {}
+
+    private static com.sun.management.ThreadMXBean loadThreadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if ( bean instanceof com.sun.management.ThreadMXBean ) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if ( sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled() ) {
+                    return sunBean;
+                }
+            }
+        }
+        catch ( LinkageError | SecurityException e ) {
+            // not a HotSpot JVM, or not allowed to look
+        }
+        return null;
+    }
+
+    /**
+     * @return true if {@link #currentThreadAllocatedBytes()} returns real values
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * @return running total of bytes allocated by the current thread, or -1 if not supported
+     */
+    public static long currentThreadAllocatedBytes() {
+        if ( THREAD_MX_BEAN == null ) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes( Thread.currentThread().getId() );
+    }
+}
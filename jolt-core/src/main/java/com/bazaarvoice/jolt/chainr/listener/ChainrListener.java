@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.listener;
+
+/**
+ * Callback that a Chainr makes after running each of its transforms, aka "stages".
+ *
+ * Attach one with {@link com.bazaarvoice.jolt.chainr.ChainrBuilder#listener(ChainrListener)}.
+ *
+ * Chainrs are used by many threads at once, so implementations need to be thread safe.
+ * They are called inline on the transform thread, so they should be cheap and should not throw.
+ */
+public interface ChainrListener {
+
+    /**
+     * @return true if the Chainr should measure the bytes allocated by the current thread while running
+     *  each stage, which costs a call to the JVM's ThreadMXBean before and after every stage
+     */
+    default boolean measuresAllocatedBytes() {
+        return false;
+    }
+
+    /**
+     * Called after a stage returned normally.
+     *
+     * @param stageIndex 0 based index of the stage in the Chainr spec
+     * @param operationName the "operation" of the stage, aka "shift" or a Java class name
+     * @param elapsedNanos wall time the stage took
+     * @param allocatedBytes bytes allocated by this thread during the stage,
+     *                       or -1 if not measured or not supported by the JVM
+     */
+    void stageCompleted( int stageIndex, String operationName, long elapsedNanos, long allocatedBytes );
+
+    /**
+     * Called after a stage threw, before the exception propagates out of the Chainr.
+     *
+     * @param stageIndex 0 based index of the stage in the Chainr spec
+     * @param operationName the "operation" of the stage, aka "shift" or a Java class name
+     * @param elapsedNanos wall time until the stage threw
+     * @param failure what the stage threw
+     */
+    default void stageFailed( int stageIndex, String operationName, long elapsedNanos, Throwable failure ) {
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ChainrListener that keeps a {@link LatencyHistogram} of wall time for each stage of a Chainr,
+ *  as well as failure counts and, optionally, total allocated bytes.
+ *
+ * Callers periodically call {@link #snapshot()} and ship the numbers off to their metrics system.
+ *
+ * An instance is meant to be attached to a single Chainr, as stages are tracked by their index.
+ */
+public class HistogramChainrListener implements ChainrListener {
+
+    private final boolean measureAllocatedBytes;
+
+    // indexed by stage index, copied on write
+    private final AtomicReference<Stage[]> stages = new AtomicReference<>( new Stage[0] );
+
+    public HistogramChainrListener() {
+        this( false );
+    }
+
+    /**
+     * @param measureAllocatedBytes also track bytes allocated by each stage, see {@link ChainrListener#measuresAllocatedBytes()}
+     */
+    public HistogramChainrListener( boolean measureAllocatedBytes ) {
+        this.measureAllocatedBytes = measureAllocatedBytes;
+    }
+
+    @Override
+    public boolean measuresAllocatedBytes() {
+        return measureAllocatedBytes;
+    }
+
+    @Override
+    public void stageCompleted( int stageIndex, String operationName, long elapsedNanos, long allocatedBytes ) {
+        Stage stage = getStage( stageIndex, operationName );
+        stage.latency.record( elapsedNanos );
+        if ( allocatedBytes >= 0 ) {
+            stage.allocatedBytes.add( allocatedBytes );
+        }
+    }
+
+    @Override
+    public void stageFailed( int stageIndex, String operationName, long elapsedNanos, Throwable failure ) {
+        getStage( stageIndex, operationName ).failures.increment();
+    }
+
+    /**
+     * @return a snapshot of each stage that has run at least once, in stage order
+     */
+    public List<StageSnapshot> snapshot() {
+        Stage[] current = stages.get();
+        List<StageSnapshot> snapshots = new ArrayList<>( current.length );
+        for ( int stageIndex = 0; stageIndex < current.length; stageIndex++ ) {
+            Stage stage = current[stageIndex];
+            if ( stage != null ) {
+                snapshots.add( new StageSnapshot( stageIndex, stage.operationName, stage.latency.snapshot(),
+                        stage.failures.sum(), measureAllocatedBytes ? stage.allocatedBytes.sum() : -1 ) );
+            }
+        }
+        return Collections.unmodifiableList( snapshots );
+    }
+
+    private Stage getStage( int stageIndex, String operationName ) {
+        Stage[] current = stages.get();
+        if ( stageIndex < current.length && current[stageIndex] != null ) {
+            return current[stageIndex];
+        }
+        return addStage( stageIndex, operationName );
+    }
+
+    /**
+     * Copy on write with a CAS rather than a lock, so that a virtual thread running a Chainr never pins its carrier.
+     */
+    private Stage addStage( int stageIndex, String operationName ) {
+        Stage stage = new Stage( operationName );
+        while ( true ) {
+            Stage[] current = stages.get();
+            if ( stageIndex < current.length && current[stageIndex] != null ) {
+                return current[stageIndex];
+            }
+            Stage[] grown = Arrays.copyOf( current, Math.max( current.length, stageIndex + 1 ) );
+            grown[stageIndex] = stage;
+            if ( stages.compareAndSet( current, grown ) ) {
+                return stage;
+            }
+        }
+    }
+
+    private static class Stage {
+        private final String operationName;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private Stage( String operationName ) {
+            this.operationName = operationName;
+        }
+    }
+
+    /**
+     * Numbers for a single stage, as of the time {@link #snapshot()} was called.
+     */
+    public static class StageSnapshot {
+
+        private final int stageIndex;
+        private final String operationName;
+        private final LatencyHistogram.Snapshot latencyNanos;
+        private final long failureCount;
+        private final long allocatedBytes;
+
+        private StageSnapshot( int stageIndex, String operationName, LatencyHistogram.Snapshot latencyNanos,
+                               long failureCount, long allocatedBytes ) {
+            this.stageIndex = stageIndex;
+            this.operationName = operationName;
+            this.latencyNanos = latencyNanos;
+            this.failureCount = failureCount;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public int getStageIndex() {
+            return stageIndex;
+        }
+
+        public String getOperationName() {
+            return operationName;
+        }
+
+        /**
+         * @return wall time of the successful runs of this stage, in nanoseconds
+         */
+        public LatencyHistogram.Snapshot getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public long getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return total bytes allocated by the successful runs of this stage, or -1 if not measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.listener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe, fixed memory histogram of non-negative long values, aka latencies in nanoseconds.
+ *
+ * Uses the same log-linear bucketing as HdrHistogram : values below 128 each get their own bucket,
+ *  and every power of two range above that is split into 64 equal buckets.  Thus any recorded value
+ *  is reported back within 1/64th (~1.6%) of what it was, across the whole range of a long,
+ *  with a fixed ~30KB of buckets.
+ *
+ * Recording is lock free.  Readers take a {@link Snapshot}.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    // the linear buckets, plus half a set of sub buckets for each power of two above them
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + ( Long.SIZE - 1 - SUB_BUCKET_BITS ) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKET_COUNT );
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator( Math::min, Long.MAX_VALUE );
+    private final LongAccumulator max = new LongAccumulator( Math::max, 0 );
+
+    /**
+     * @param value the value to record, negative values are recorded as 0
+     */
+    public void record( long value ) {
+        if ( value < 0 ) {
+            value = 0;
+        }
+        counts.incrementAndGet( bucketIndex( value ) );
+        sum.add( value );
+        min.accumulate( value );
+        max.accumulate( value );
+    }
+
+    public Snapshot snapshot() {
+        long[] snapshotCounts = new long[ BUCKET_COUNT ];
+        long count = 0;
+        for ( int index = 0; index < BUCKET_COUNT; index++ ) {
+            snapshotCounts[index] = counts.get( index );
+            count += snapshotCounts[index];
+        }
+        return new Snapshot( snapshotCounts, count, sum.sum(), count == 0 ? 0 : min.get(), max.get() );
+    }
+
+    static int bucketIndex( long value ) {
+        if ( value < SUB_BUCKET_COUNT ) {
+            return (int) value;
+        }
+        // shift the value down so that it lands in [64, 128), keeping its top 7 bits
+        int shift = ( Long.SIZE - 1 - Long.numberOfLeadingZeros( value ) ) - ( SUB_BUCKET_BITS - 1 );
+        int subBucket = (int) ( value >>> shift ) - SUB_BUCKET_HALF_COUNT;
+        return SUB_BUCKET_COUNT + ( shift - 1 ) * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    /**
+     * @return the largest value that lands in the given bucket
+     */
+    static long highestValueInBucket( int bucketIndex ) {
+        if ( bucketIndex < SUB_BUCKET_COUNT ) {
+            return bucketIndex;
+        }
+        int offset = bucketIndex - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ( ( subBucket + 1 ) << shift ) - 1;
+    }
+
+    /**
+     * Point in time copy of a LatencyHistogram.
+     *
+     * Taken without stopping writers, so a value recorded during the snapshot may be reflected in
+     *  some of the statistics and not others.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        private Snapshot( long[] counts, long count, long sum, long min, long max ) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile between 0 and 100, aka 99.9
+         * @return the value that the given percentage of recorded values are less than or equal to,
+         *  or 0 if nothing has been recorded
+         */
+        public long getValueAtPercentile( double percentile ) {
+
+            if ( percentile < 0 || percentile > 100 ) {
+                throw new IllegalArgumentException( "Percentile must be between 0 and 100, was : " + percentile );
+            }
+            if ( count == 0 ) {
+                return 0;
+            }
+
+            long target = Math.max( 1, (long) Math.ceil( percentile / 100 * count ) );
+            long seen = 0;
+            for ( int index = 0; index < counts.length; index++ ) {
+                seen += counts[index];
+                if ( seen >= target ) {
+                    return Math.min( highestValueInBucket( index ), max );
+                }
+            }
+            return max;
+        }
+    }
+}
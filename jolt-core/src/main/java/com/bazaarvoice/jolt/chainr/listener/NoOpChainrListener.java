@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.listener;
+
+/**
+ * The default ChainrListener, which does nothing.
+ *
+ * Chainr recognizes this instance and skips taking timestamps altogether, so it costs nothing.
+ */
+public final class NoOpChainrListener implements ChainrListener {
+
+    public static final NoOpChainrListener INSTANCE = new NoOpChainrListener();
+
+    private NoOpChainrListener() {}
+
+    @Override
+    public void stageCompleted( int stageIndex, String operationName, long elapsedNanos, long allocatedBytes ) {
+    }
+}
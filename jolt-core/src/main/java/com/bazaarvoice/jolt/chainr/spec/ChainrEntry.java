@@ -64,6 +64,7 @@ public class ChainrEntry {
 
     private final int index;
     private final Object spec;
+    private final String operationName;
     private final String operationClassName;
 
     private final Class<? extends JoltTransform> joltTransformClass;
@@ -94,6 +95,8 @@ public class ChainrEntry {
             throw new SpecException( "JOLT Chainr 'operation' must implement Transform or ContextualTransform" + getErrorMessageIndexSuffix() );
         }
 
+        operationName = opString;
+
         if ( STOCK_TRANSFORMS.containsKey( opString ) ) {
             operationClassName = STOCK_TRANSFORMS.get( opString );
         }
@@ -160,6 +163,13 @@ public class ChainrEntry {
         return " at index:" + index + ".";
     }
 
+    /**
+     * @return the "operation" as written in the Chainr spec, aka "shift" or a fully qualified Java class name
+     */
+    public String getOperationName() {
+        return operationName;
+    }
+
     /**
      * @return Spec for the transform, can be null
      */
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarPathElement;
+import com.bazaarvoice.jolt.common.spec.BaseSpec;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Precompiled matcher over the computed children of an OrderedCompositeSpec, that picks out the
+ *  computed children which could possibly match a given input key, without calling each one of them.
+ *
+ * Every "*" key is boiled down to its literal prefix and suffix, aka "rating-*-range" has the prefix
+ *  "rating-" and the suffix "-range", which go into a prefix trie and a (reversed) suffix trie.
+ * Walking the input key down both tries gives two bitsets of candidate children, and only the children
+ *  in both are applied, in their existing ComputedKeysComparator priority order.
+ *
+ * Computed children that are not "*" keys, aka "&" with children, can not be filtered this way, and
+ *  are always candidates.
+ *
+ * On top of that, which "*" child handles a key depends only on the key, so the answer is remembered in a
+ *  bounded dispatch cache, and records with the same keys skip straight to the child that handles them.
+ * Once the cache is full it stops taking new keys, so high cardinality keys just fall back to the tries.
+ *  Scalar input values are never cached, see applyToScalar.
+ * The size of the cache can be set per Shiftr, see Shiftr( Object, int ) and ChainrBuilder.dispatchCacheSize,
+ *  and otherwise defaults to the "jolt.dispatchCacheSize" system property, or 1024.  0 turns it off.
+ *
+ * The cache holds the index of the child, not its MatchedElement, as MatchedElements are mutable and
+ *  per transform, so the child still does its own single match to get its captures.
+ */
+public class ComputedKeysMatcher {
+
+    /**
+     * From the "jolt.dispatchCacheSize" system property, read once, with a negative value treated as 0 (off),
+     *  rather than failing every spec build.
+     */
+    public static final int DEFAULT_DISPATCH_CACHE_SIZE = Math.max( 0, Integer.getInteger( "jolt.dispatchCacheSize", 1024 ) );
+
+    // dispatch cache value for keys that none of the "*" children match
+    private static final int NO_MATCH = -1;
+
+    private final BaseSpec[] computedChildren;
+    private final TrieNode prefixRoot;
+    private final TrieNode suffixRoot;
+
+    // computed children whose match depends on more than the key, aka "&", which the dispatch cache can not answer for
+    private final int[] pathDependentIndexes;
+
+    private final int dispatchCacheSize;
+    private final ConcurrentMap<String, Integer> dispatchCache;
+    private final LongAdder dispatchCacheHits = new LongAdder();
+    private final LongAdder dispatchCacheMisses = new LongAdder();
+
+    public ComputedKeysMatcher( List<? extends BaseSpec> computedChildren ) {
+        this( computedChildren, DEFAULT_DISPATCH_CACHE_SIZE );
+    }
+
+    /**
+     * @param dispatchCacheSize max number of input keys to remember the dispatch of, 0 to disable the dispatch cache
+     */
+    public ComputedKeysMatcher( List<? extends BaseSpec> computedChildren, int dispatchCacheSize ) {
+
+        if ( dispatchCacheSize < 0 ) {
+            throw new IllegalArgumentException( "ComputedKeysMatcher dispatchCacheSize can not be negative, was:" + dispatchCacheSize );
+        }
+
+        this.computedChildren = computedChildren.toArray( new BaseSpec[ computedChildren.size() ] );
+
+        int words = Math.max( 1, ( this.computedChildren.length + 63 ) / 64 );
+        prefixRoot = new TrieNode( words );
+        suffixRoot = new TrieNode( words );
+
+        int[] pathDependent = new int[ this.computedChildren.length ];
+        int pathDependentCount = 0;
+
+        for ( int index = 0; index < this.computedChildren.length; index++ ) {
+
+            MatchablePathElement pathElement = this.computedChildren[index].getPathElement();
+            String prefix = "";
+            String suffix = "";
+
+            if ( pathElement instanceof StarPathElement ) {
+                String key = pathElement.getRawKey();
+                prefix = key.substring( 0, key.indexOf( '*' ) );
+                suffix = key.substring( key.lastIndexOf( '*' ) + 1 );
+            }
+            else {
+                pathDependent[ pathDependentCount++ ] = index;
+            }
+
+            prefixRoot.add( prefix, false, index );
+            suffixRoot.add( suffix, true, index );
+        }
+
+        prefixRoot.accumulate( prefixRoot.mask );
+        suffixRoot.accumulate( suffixRoot.mask );
+
+        pathDependentIndexes = Arrays.copyOf( pathDependent, pathDependentCount );
+
+        // if every computed child depends on more than the key, there is nothing to cache
+        this.dispatchCacheSize = pathDependentCount == this.computedChildren.length ? 0 : dispatchCacheSize;
+        dispatchCache = this.dispatchCacheSize == 0 ? null : new ConcurrentHashMap<String, Integer>();
+    }
+
+    /**
+     * Applies the first computed child, in priority order, that matches the key.
+     *
+     * @return true if one of the computed children handled the key
+     */
+    public boolean apply( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+
+        if ( dispatchCache == null ) {
+            return applyCandidates( inputKey, inputOptional, walkedPath, output, context );
+        }
+
+        int starIndex;
+        Integer cached = dispatchCache.get( inputKey );
+        if ( cached != null ) {
+            dispatchCacheHits.increment();
+            starIndex = cached;
+        }
+        else {
+            dispatchCacheMisses.increment();
+            starIndex = firstStarMatch( inputKey );
+            // a racy size check, which can overshoot by a few keys, but it is only there to bound the memory
+            if ( dispatchCache.size() < dispatchCacheSize ) {
+                dispatchCache.put( inputKey, starIndex );
+            }
+        }
+
+        // the path dependent children that come before the cached "*" child still get their shot
+        for ( int index : pathDependentIndexes ) {
+            if ( starIndex != NO_MATCH && index > starIndex ) {
+                break;
+            }
+            if ( computedChildren[index].apply( inputKey, inputOptional, walkedPath, output, context ) ) {
+                return true;
+            }
+        }
+
+        return starIndex != NO_MATCH && computedChildren[starIndex].apply( inputKey, inputOptional, walkedPath, output, context );
+    }
+
+    /**
+     * Same as apply, for a scalar input value matched as if it were a key, which skips the dispatch cache.
+     * Values, aka ids or free text, are too many and too varied to cache, and would fill up the cache with
+     *  entries that are never hit, leaving no room for the Map keys and List indexes it is there for.
+     *
+     * @return true if one of the computed children handled the value
+     */
+    public boolean applyToScalar( String scalarInput, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+        return applyCandidates( scalarInput, inputOptional, walkedPath, output, context );
+    }
+
+    private boolean applyCandidates( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+
+        long[] prefixMask = prefixRoot.walk( inputKey, false ).mask;
+        long[] suffixMask = suffixRoot.walk( inputKey, true ).mask;
+
+        for ( int word = 0; word < prefixMask.length; word++ ) {
+            long candidates = prefixMask[word] & suffixMask[word];
+            while ( candidates != 0 ) {
+                int bit = Long.numberOfTrailingZeros( candidates );
+                candidates &= candidates - 1;
+
+                // if the computed key does not match it will quickly return false
+                if ( computedChildren[ word * 64 + bit ].apply( inputKey, inputOptional, walkedPath, output, context ) ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A "*" child handles the key exactly when its path element matches it, so this can be worked out with
+     *  the allocation free stringMatch, and without touching the input or output.
+     *
+     * @return index of the first "*" child, in priority order, that matches the key, or NO_MATCH
+     */
+    private int firstStarMatch( String inputKey ) {
+
+        long[] prefixMask = prefixRoot.walk( inputKey, false ).mask;
+        long[] suffixMask = suffixRoot.walk( inputKey, true ).mask;
+
+        for ( int word = 0; word < prefixMask.length; word++ ) {
+            long candidates = prefixMask[word] & suffixMask[word];
+            while ( candidates != 0 ) {
+                int bit = Long.numberOfTrailingZeros( candidates );
+                candidates &= candidates - 1;
+
+                MatchablePathElement pathElement = computedChildren[ word * 64 + bit ].getPathElement();
+                if ( pathElement instanceof StarPathElement && ( (StarPathElement) pathElement ).stringMatch( inputKey ) ) {
+                    return word * 64 + bit;
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    public long getDispatchCacheHits() {
+        return dispatchCacheHits.sum();
+    }
+
+    public long getDispatchCacheMisses() {
+        return dispatchCacheMisses.sum();
+    }
+
+    public int getDispatchCacheSize() {
+        return dispatchCache == null ? 0 : dispatchCache.size();
+    }
+
+    /**
+     * Char trie node, where the mask of each node is the set of children whose prefix (or suffix) is the
+     *  path to that node, or any of its ancestors.
+     */
+    private static final class TrieNode {
+
+        private static final char[] NO_CHARS = new char[0];
+        private static final TrieNode[] NO_NODES = new TrieNode[0];
+
+        // sorted, so that they can be binary searched
+        private char[] chars = NO_CHARS;
+        private TrieNode[] nodes = NO_NODES;
+        private long[] mask;
+
+        private TrieNode( int words ) {
+            mask = new long[ words ];
+        }
+
+        private void add( String literal, boolean reversed, int index ) {
+            TrieNode node = this;
+            for ( int offset = 0; offset < literal.length(); offset++ ) {
+                char c = literal.charAt( reversed ? literal.length() - 1 - offset : offset );
+                int slot = Arrays.binarySearch( node.chars, c );
+                if ( slot < 0 ) {
+                    slot = -slot - 1;
+                    node.chars = insert( node.chars, slot, c );
+                    node.nodes = insert( node.nodes, slot, new TrieNode( node.mask.length ) );
+                }
+                node = node.nodes[slot];
+            }
+            node.mask[ index / 64 ] |= 1L << ( index % 64 );
+        }
+
+        /**
+         * Folds the masks of all the ancestors into each node, so that a walk only has to look at the last node it reaches.
+         */
+        private void accumulate( long[] parentMask ) {
+            for ( int word = 0; word < mask.length; word++ ) {
+                mask[word] |= parentMask[word];
+            }
+            for ( TrieNode node : nodes ) {
+                node.accumulate( mask );
+            }
+        }
+
+        /**
+         * @return the deepest node reachable by walking the key from its start, or from its end if reversed
+         */
+        private TrieNode walk( String key, boolean reversed ) {
+            TrieNode node = this;
+            int length = key.length();
+            for ( int offset = 0; offset < length && node.chars.length > 0; offset++ ) {
+                int slot = Arrays.binarySearch( node.chars, key.charAt( reversed ? length - 1 - offset : offset ) );
+                if ( slot < 0 ) {
+                    break;
+                }
+                node = node.nodes[slot];
+            }
+            return node;
+        }
+
+        private static char[] insert( char[] array, int slot, char c ) {
+            char[] grown = new char[ array.length + 1 ];
+            System.arraycopy( array, 0, grown, 0, slot );
+            grown[slot] = c;
+            System.arraycopy( array, slot, grown, slot + 1, array.length - slot );
+            return grown;
+        }
+
+        private static TrieNode[] insert( TrieNode[] array, int slot, TrieNode node ) {
+            TrieNode[] grown = new TrieNode[ array.length + 1 ];
+            System.arraycopy( array, 0, grown, 0, slot );
+            grown[slot] = node;
+            System.arraycopy( array, slot, grown, slot + 1, array.length - slot );
+            return grown;
+        }
+    }
+}
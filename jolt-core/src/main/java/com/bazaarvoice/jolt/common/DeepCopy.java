@@ -31,6 +31,8 @@ public class DeepCopy {
      * This is meant for copying small objects or object graphs, and will
      *  probably do nasty things if asked to copy a large graph.
      *
+     * For JSON trees of Maps, Lists and scalars, use the much faster {@link JsonCopier#copy(Object)}.
+     *
      * @param object object to deep copy
      * @return deep copy of the object
      */
@@ -20,6 +20,7 @@ import com.bazaarvoice.jolt.common.spec.BaseSpec;
 import com.bazaarvoice.jolt.common.spec.OrderedCompositeSpec;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -35,13 +36,33 @@ public enum ExecutionStrategy {
         @Override
         void processMap( OrderedCompositeSpec spec, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-            for( String key : spec.getLiteralChildren().keySet() ) {
+            LiteralChildrenIndex literals = spec.getLiteralChildrenIndex();
+            if ( literals == null ) {
+                for( Map.Entry<String, ? extends BaseSpec> literal : spec.getLiteralChildren().entrySet() ) {
 
-                // Do not work if the value is missing in the input map
-                if ( inputMap.containsKey( key ) ) {
+                    // Do not work if the value is missing in the input map
+                    Object subInput = inputMap.getOrDefault( literal.getKey(), MISSING );
+                    if ( subInput != MISSING ) {
+                        literal.getValue().apply( literal.getKey(), Optional.of( subInput ), walkedPath, output, context );
+                    }
+                }
+                return;
+            }
 
-                    Optional<Object> subInputOptional = Optional.of( inputMap.get( key ) );
-                    spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
+            // Walk whichever side is smaller, the spec literals or the input keys
+            if ( inputMap.size() < literals.size() ) {
+                applyInputKeysToLiterals( literals, inputMap, walkedPath, output, context );
+                return;
+            }
+
+            for( int ordinal = 0; ordinal < literals.size(); ordinal++ ) {
+
+                String key = literals.getKey( ordinal );
+                Object subInput = inputMap.getOrDefault( key, MISSING );
+
+                // Do not work if the value is missing in the input map
+                if ( subInput != MISSING ) {
+                    literals.getChild( ordinal ).apply( key, Optional.of( subInput ), walkedPath, output, context );
                 }
             }
         }
@@ -101,15 +122,25 @@ public enum ExecutionStrategy {
         @Override
         void processMap( OrderedCompositeSpec spec, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-            for( String key : spec.getLiteralChildren().keySet() ) {
+            LiteralChildrenIndex literals = spec.getLiteralChildrenIndex();
+            if ( literals == null ) {
+                for( Map.Entry<String, ? extends BaseSpec> literal : spec.getLiteralChildren().entrySet() ) {
+                    Object subInput = inputMap.getOrDefault( literal.getKey(), MISSING );
+                    Optional<Object> subInputOptional = subInput == MISSING ? Optional.empty() : Optional.of( subInput );
+                    literal.getValue().apply( literal.getKey(), subInputOptional, walkedPath, output, context );
+                }
+                return;
+            }
+
+            for( int ordinal = 0; ordinal < literals.size(); ordinal++ ) {
+
+                String key = literals.getKey( ordinal );
+                Object subInput = inputMap.getOrDefault( key, MISSING );
 
                 // if the input in not available in the map us null or else get value,
                 // then lookup and place a defined value from spec there
-                Optional<Object> subInputOptional = Optional.empty();
-                if ( inputMap.containsKey( key ) ) {
-                    subInputOptional = Optional.of( inputMap.get( key ));
-                }
-                spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
+                Optional<Object> subInputOptional = subInput == MISSING ? Optional.empty() : Optional.of( subInput );
+                literals.getChild( ordinal ).apply( key, subInputOptional, walkedPath, output, context );
             }
         }
 
@@ -161,7 +192,7 @@ public enum ExecutionStrategy {
 
             // Iterate over the whole entrySet rather than the keyset with follow on gets of the values
             for( Map.Entry<String, Object> inputEntry : inputMap.entrySet() ) {
-                applyKeyToComputed( spec.getComputedChildren(), walkedPath, output, inputEntry.getKey(), Optional.of( inputEntry.getValue() ), context );
+                applyKeyToComputed( spec, walkedPath, output, inputEntry.getKey(), Optional.of( inputEntry.getValue() ), context, false );
             }
         }
 
@@ -180,13 +211,13 @@ public enum ExecutionStrategy {
                     subInputOptional = Optional.of( subInput );
                 }
 
-                applyKeyToComputed( spec.getComputedChildren(), walkedPath, output, subKeyStr, subInputOptional, context );
+                applyKeyToComputed( spec, walkedPath, output, subKeyStr, subInputOptional, context, false );
             }
         }
 
         @Override
         void processScalar( OrderedCompositeSpec spec, String scalarInput, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
-            applyKeyToComputed( spec.getComputedChildren(), walkedPath, output, scalarInput, Optional.empty(), context );
+            applyKeyToComputed( spec, walkedPath, output, scalarInput, Optional.empty(), context, true );
         }
     },
 
@@ -200,7 +231,7 @@ public enum ExecutionStrategy {
 
             // Iterate over the whole entrySet rather than the keyset with follow on gets of the values
             for( Map.Entry<String, Object> inputEntry : inputMap.entrySet() ) {
-                applyKeyToLiteralAndComputed( spec, inputEntry.getKey(), Optional.of( inputEntry.getValue() ), walkedPath, output, context );
+                applyKeyToLiteralAndComputed( spec, inputEntry.getKey(), Optional.of( inputEntry.getValue() ), walkedPath, output, context, false );
             }
         }
 
@@ -219,13 +250,13 @@ public enum ExecutionStrategy {
                     subInputOptional = Optional.of( subInput );
                 }
 
-                applyKeyToLiteralAndComputed( spec, subKeyStr, subInputOptional, walkedPath, output, context );
+                applyKeyToLiteralAndComputed( spec, subKeyStr, subInputOptional, walkedPath, output, context, false );
             }
         }
 
         @Override
         void processScalar( OrderedCompositeSpec spec, String scalarInput, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
-            applyKeyToLiteralAndComputed( spec, scalarInput, Optional.empty(), walkedPath, output, context );
+            applyKeyToLiteralAndComputed( spec, scalarInput, Optional.empty(), walkedPath, output, context, true );
         }
     },
 
@@ -294,17 +325,60 @@ public enum ExecutionStrategy {
     abstract void processScalar( OrderedCompositeSpec spec, String scalarInput          , WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context );
 
 
+    // stands in for a missing key, as a null value in the input is a real value
+    private static final Object MISSING = new Object();
+
+    /**
+     * Applies the literal children to the keys of an input map that is smaller than the set of literal children,
+     *  in spec order, which is the same order as walking the literal children would have applied them in.
+     *
+     * Worse case : n + m log m, where
+     *   n is number of input keys
+     *   m is number of input keys that match a literal
+     */
+    private static void applyInputKeysToLiterals( LiteralChildrenIndex literals, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+
+        // each match is packed as its spec ordinal in the high int, and its position in values in the low int, so they sort into spec order
+        long[] matches = null;
+        Object[] values = null;
+        int matchCount = 0;
+
+        for( Map.Entry<String, Object> inputEntry : inputMap.entrySet() ) {
+            int ordinal = literals.ordinalOf( inputEntry.getKey() );
+            if ( ordinal != LiteralChildrenIndex.NOT_FOUND ) {
+                if ( matches == null ) {
+                    matches = new long[ inputMap.size() ];
+                    values = new Object[ inputMap.size() ];
+                }
+                matches[matchCount] = ( (long) ordinal << 32 ) | matchCount;
+                values[matchCount] = inputEntry.getValue();
+                matchCount++;
+            }
+        }
+
+        if ( matchCount > 1 ) {
+            Arrays.sort( matches, 0, matchCount );
+        }
+
+        for ( int index = 0; index < matchCount; index++ ) {
+            int ordinal = (int) ( matches[index] >>> 32 );
+            Object subInput = values[ (int) matches[index] ];
+            literals.getChild( ordinal ).apply( literals.getKey( ordinal ), Optional.of( subInput ), walkedPath, output, context );
+        }
+    }
+
     /**
      * This is the method we are trying to avoid calling.  It implements the matching behavior
      *  when we have both literal and computed children.
      *
-     * For each input key, we see if it matches a literal, and it not, try to match the key with every computed child.
+     * For each input key, we see if it matches a literal, and it not, try to match the key with the computed children
+     *  whose literal prefix and suffix fit it.
      *
      * Worse case : n + n * c, where
      *   n is number of input keys
-     *   c is number of computed children
+     *   c is number of computed children that share a prefix and suffix with the key
      */
-    private static <T extends OrderedCompositeSpec> void applyKeyToLiteralAndComputed( T spec, String subKeyStr, Optional<Object> subInputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+    private static <T extends OrderedCompositeSpec> void applyKeyToLiteralAndComputed( T spec, String subKeyStr, Optional<Object> subInputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context, boolean scalar ) {
 
         BaseSpec literalChild = spec.getLiteralChildren().get( subKeyStr );
 
@@ -314,19 +388,33 @@ public enum ExecutionStrategy {
         }
         else {
             // If no literal spec key matched, iterate through all the getComputedChildren()
-            applyKeyToComputed( spec.getComputedChildren(), walkedPath, output, subKeyStr, subInputOptional, context );
+            applyKeyToComputed( spec, walkedPath, output, subKeyStr, subInputOptional, context, scalar );
         }
     }
 
-    private static <T extends BaseSpec> void applyKeyToComputed( List<T> computedChildren, WalkedPath walkedPath, Map<String, Object> output, String subKeyStr, Optional<Object> subInputOptional, Map<String, Object> context ) {
+    private static <T extends OrderedCompositeSpec> void applyKeyToComputed( T spec, WalkedPath walkedPath, Map<String, Object> output, String subKeyStr, Optional<Object> subInputOptional, Map<String, Object> context, boolean scalar ) {
 
-        // Iterate through all the getComputedChildren() until we find a match
-        // This relies upon the getComputedChildren() having already been sorted in priority order
-        for ( BaseSpec computedChild : computedChildren ) {
-            // if the computed key does not match it will quickly return false
-            if ( computedChild.apply( subKeyStr, subInputOptional, walkedPath, output, context ) ) {
-                break;
+        ComputedKeysMatcher matcher = spec.getComputedKeysMatcher();
+        if ( matcher == null ) {
+            // Iterate through all the getComputedChildren() until we find a match
+            // This relies upon the getComputedChildren() having already been sorted in priority order
+            for ( BaseSpec computedChild : spec.getComputedChildren() ) {
+                // if the computed key does not match it will quickly return false
+                if ( computedChild.apply( subKeyStr, subInputOptional, walkedPath, output, context ) ) {
+                    break;
+                }
             }
+            return;
+        }
+
+        // Only try the getComputedChildren() that could match the key, until we find a match
+        // The matcher keeps the priority order the getComputedChildren() have already been sorted in
+        // Scalar values go around its dispatch cache, which is only for keys
+        if ( scalar ) {
+            matcher.applyToScalar( subKeyStr, subInputOptional, walkedPath, output, context );
+        }
+        else {
+            matcher.apply( subKeyStr, subInputOptional, walkedPath, output, context );
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural deep copy of "JSON" trees, aka the Maps, Lists, and scalars that Jackson produces.
+ *
+ * Maps and Lists are walked and rebuilt as pre-sized LinkedHashMaps and ArrayLists, so Map key
+ *  order is preserved.  Immutable scalars (String, Boolean, the boxed primitives, BigInteger, and
+ *  BigDecimal) are not copied, the copy shares them with the original.
+ *
+ * Anything else is handed off to {@link DeepCopy#simpleDeepCopy(Object)}, which is much slower
+ *  as it uses Java Serialization.
+ */
+public class JsonCopier {
+
+    private JsonCopier() {}
+
+    /**
+     * @param json a JSON tree of Maps, Lists and scalars
+     * @return deep copy of the json, that shares any immutable leaf values with the original
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Object copy( Object json ) {
+
+        if ( json == null || isImmutableScalar( json ) ) {
+            return json;
+        }
+        if ( json instanceof Map ) {
+            return copyMap( (Map<Object, Object>) json );
+        }
+        if ( json instanceof List ) {
+            return copyList( (List<Object>) json );
+        }
+
+        return DeepCopy.simpleDeepCopy( json );
+    }
+
+    private static Map<Object, Object> copyMap( Map<Object, Object> map ) {
+
+        // size the map so that it will not need to rehash, given the default load factor of 0.75
+        Map<Object, Object> copy = new LinkedHashMap<>( map.size() * 4 / 3 + 1 );
+        for ( Map.Entry<Object, Object> entry : map.entrySet() ) {
+            copy.put( entry.getKey(), copy( entry.getValue() ) );
+        }
+        return copy;
+    }
+
+    private static List<Object> copyList( List<Object> list ) {
+
+        List<Object> copy = new ArrayList<>( list.size() );
+        for ( Object element : list ) {
+            copy.add( copy( element ) );
+        }
+        return copy;
+    }
+
+    /**
+     * Exact class checks rather than instanceof, because Number has mutable subclasses like AtomicLong.
+     */
+    private static boolean isImmutableScalar( Object object ) {
+
+        Class<?> clazz = object.getClass();
+        return clazz == String.class ||
+               clazz == Integer.class ||
+               clazz == Long.class ||
+               clazz == Double.class ||
+               clazz == Boolean.class ||
+               clazz == Float.class ||
+               clazz == Short.class ||
+               clazz == Byte.class ||
+               clazz == Character.class ||
+               clazz == BigInteger.class ||
+               clazz == BigDecimal.class;
+    }
+}
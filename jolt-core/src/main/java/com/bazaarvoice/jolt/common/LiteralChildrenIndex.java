@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.common.spec.BaseSpec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Array view of the literal children of an OrderedCompositeSpec, in their spec order, plus a lookup
+ *  from literal key to its position in that order.
+ *
+ * This lets the ExecutionStrategy walk whichever of the input or the literal children is smaller,
+ *  and still apply the literal children in spec order.
+ */
+public class LiteralChildrenIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    private final String[] keys;
+    private final BaseSpec[] children;
+    private final Map<String, Integer> ordinals;
+
+    public LiteralChildrenIndex( Map<String, ? extends BaseSpec> literalChildren ) {
+
+        keys = new String[ literalChildren.size() ];
+        children = new BaseSpec[ literalChildren.size() ];
+        ordinals = new HashMap<>();
+
+        int ordinal = 0;
+        for ( Map.Entry<String, ? extends BaseSpec> entry : literalChildren.entrySet() ) {
+            keys[ordinal] = entry.getKey();
+            children[ordinal] = entry.getValue();
+            ordinals.put( entry.getKey(), ordinal );
+            ordinal++;
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String getKey( int ordinal ) {
+        return keys[ordinal];
+    }
+
+    public BaseSpec getChild( int ordinal ) {
+        return children[ordinal];
+    }
+
+    /**
+     * @return the position of the key in spec order, or NOT_FOUND if it is not one of the literal keys
+     */
+    public int ordinalOf( String key ) {
+        Integer ordinal = ordinals.get( key );
+        return ordinal == null ? NOT_FOUND : ordinal;
+    }
+}
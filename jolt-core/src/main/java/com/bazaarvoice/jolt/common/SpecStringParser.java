@@ -314,20 +314,21 @@ public class SpecStringParser {
         argString = argString.substring( firstBracket + 1, argString.length() - 1 );
 
         StringBuilder sb = new StringBuilder( );
-        boolean inBetweenBrackets = false;
+        // a depth rather than a flag, so that nested calls, i.e. "concat(=trim(@(1,a)), 'b')", split right
+        int bracketDepth = 0;
         boolean inBetweenQuotes = false;
         for (int i = 0; i < argString.length(); i++){
             char c = argString.charAt(i);
             switch ( c ) {
                 case '(':
                     if (!inBetweenQuotes) {
-                        inBetweenBrackets = true;
+                        bracketDepth++;
                     }
                     sb.append( c );
                     break;
                 case ')':
-                    if (!inBetweenQuotes) {
-                        inBetweenBrackets = false;
+                    if (!inBetweenQuotes && bracketDepth > 0) {
+                        bracketDepth--;
                     }
                     sb.append( c );
                     break;
@@ -336,7 +337,7 @@ public class SpecStringParser {
                     sb.append( c );
                     break;
                 case ',':
-                    if ( !inBetweenBrackets && !inBetweenQuotes ) {
+                    if ( bracketDepth == 0 && !inBetweenQuotes ) {
                         argsList.add( sb.toString().trim() );
                         sb = new StringBuilder();
                         break;
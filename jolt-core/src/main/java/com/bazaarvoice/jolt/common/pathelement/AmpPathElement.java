@@ -106,6 +106,15 @@ public class AmpPathElement extends BasePathElement implements MatchablePathElem
     @Override
     public String evaluate( WalkedPath walkedPath ) {
 
+        // A lone reference, aka "&1", is just the referenced value, so skip the StringBuilder
+        if ( tokens.size() == 1 && tokens.get( 0 ) instanceof AmpReference ) {
+            AmpReference ref = (AmpReference) tokens.get( 0 );
+            String value = walkedPath.elementFromEnd( ref.getPathIndex() ).getMatchedElement().getSubKeyRef( ref.getKeyGroup() );
+            if ( value != null ) {
+                return value;
+            }
+        }
+
         // Walk thru our tokens and build up a string
         // Use the supplied Path to fill in our token References
         StringBuilder output = new StringBuilder();
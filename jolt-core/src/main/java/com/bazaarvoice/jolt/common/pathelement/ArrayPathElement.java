@@ -163,6 +163,17 @@ public class ArrayPathElement extends BasePathElement implements MatchablePathEl
         }
     }
 
+    public ArrayPathType getArrayPathType() {
+        return arrayPathType;
+    }
+
+    /**
+     * @return the TransposePathElement of a "[@(1,id)]" style element, else null
+     */
+    public TransposePathElement getTransposePathElement() {
+        return transposePathElement;
+    }
+
     public boolean isExplicitArrayIndex() {
         return arrayPathType.equals( ArrayPathType.EXPLICIT_INDEX );
     }
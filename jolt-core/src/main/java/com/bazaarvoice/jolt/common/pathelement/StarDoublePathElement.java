@@ -19,8 +19,6 @@ import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.utils.StringTools;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *  PathElement for the a double "*" wildcard such as tag-*-*.   In this case we can avoid doing any
@@ -116,18 +114,13 @@ public class StarDoublePathElement extends BasePathElement implements StarPathEl
     @Override
     public MatchedElement match(String dataKey, WalkedPath walkedPath) {
         if ( stringMatch( dataKey ) )  {
-            List<String> subKeys = new ArrayList<>(2);
-
             int midStart = finMidIndex(dataKey);
             int midEnd = midStart + mid.length();
 
             String firstStarPart = dataKey.substring( prefix.length(), midStart);
-            subKeys.add( firstStarPart );
-
             String secondStarPart = dataKey.substring( midEnd, dataKey.length() - suffix.length()  );
-            subKeys.add( secondStarPart );
 
-            return new MatchedElement(dataKey, subKeys);
+            return new MatchedElement(dataKey, new String[] { firstStarPart, secondStarPart } );
         }
         return null;
     }
@@ -19,125 +19,114 @@ import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * Non-greedy * based Path Element.
+ * Non-greedy * based Path Element, for keys with any number of "*"s, aka "rating-*-*-*".
+ *
+ * Despite the name, this no longer uses a regex.  The key is split into its literal parts, and the
+ *  literal parts between the stars are each matched at their first occurrence, which gives the same
+ *  captures as the reluctant "^rating-(.+?)-(.+?)-(.+?)$" regex used to, without any backtracking.
+ *
+ * The same approach as StarSinglePathElement and StarDoublePathElement, generalized to N stars.
  */
 public class StarRegexPathElement extends BasePathElement implements StarPathElement {
 
-    private final Pattern pattern;
-
-    public StarRegexPathElement( String key ) {
-        super(key);
-
-        pattern = makePattern( key );
-    }
+    // the literal text before the first star, between each pair of stars, and after the last star
+    private final String prefix;
+    private final String[] mids;
+    private final String suffix;
 
+    private final int starCount;
 
-    private static Pattern makePattern( String key ) {
+    // every star has to match at least one character
+    private final int minLength;
 
-        // "rating-*-*"  ->  "^rating-(.+?)-(.+?)$"   aka the '*' must match something in a non-greedy way
-        key = escapeMetacharsIfAny(key);
-        String regex = "^" + key.replace("*", "(.+?)")  + "$";
+    public StarRegexPathElement( String key ) {
+        super(key);
 
-        /*
-            wtf does "(.+?)" mean
-            .  : match any character
-            +  : match one or more of the previous thing
-            ?  : match zero of one of the previous thing
-            +? : reluctantly match
+        List<String> literals = new ArrayList<>();
+        int literalStart = 0;
+        for ( int index = key.indexOf( '*' ); index >= 0; index = key.indexOf( '*', literalStart ) ) {
+            literals.add( key.substring( literalStart, index ) );
+            literalStart = index + 1;
+        }
+        literals.add( key.substring( literalStart ) );
 
-            See http://docs.oracle.com/javase/tutorial/essential/regex/quant.html
-              Differences Among Greedy, Reluctant, and Possessive Quantifiers section
-        */
+        starCount = literals.size() - 1;
+        prefix = literals.get( 0 );
+        suffix = literals.get( starCount );
+        mids = literals.subList( 1, starCount ).toArray( new String[ starCount - 1 ] );
 
-        return Pattern.compile( regex);
+        int literalLength = 0;
+        for ( String literal : literals ) {
+            literalLength += literal.length();
+        }
+        minLength = literalLength + starCount;
     }
 
-    // Metachars to escape .^$|*+?()[{\ in a regex
-
-    /** +
+    /**
+     * Matches the literal against the key, filling in the start and end offset of each star's capture.
      *
-     * @param key : String key that needs to be escaped before compiling into regex.
-     * @return : Metachar escaped key.
+     * Each mid is matched at its earliest occurrence that leaves the star before it at least one character.
+     * Matching a mid as early as possible can only leave more room for what follows, so if that placement
+     *  does not work out, no later placement of it would either, and there is no need to backtrack.
      *
-     * Regex has some special meaning for the metachars [ .^$|*+?()[{\ ].If any of these metachars is present in the pattern key that was passed, it needs to be escaped so that
-     * it can be matched against literal.
+     * @param captureOffsets null, or an array of length 2 * starCount to receive the [start, end) offset pairs
      */
-    private static String escapeMetacharsIfAny(String key){
-
-        char[] keyChars = key.toCharArray();
-
-        // String.replace replaces all instances of the char sequence. So, it would try to escape the occurrence as many times as the occurrence frequency.
-        // For ex: if a key as 2 '5star.rating.1', it would escape it twice resulting in 5star//.rating//.1.
-        // So, we keep an list of already seen characters.
+    private boolean matchOffsets( String literal, int[] captureOffsets ) {
 
-        Set<Character> charsAlreadySeen = new HashSet<>();
-
-        for(char keychar: keyChars) {
-
-            switch (keychar) {
-
-                case '(':
-                case '[':
-                case '{':
-                case '\\':
-                case '^':
-                case '$':
-                case '|':
-                case ')':
-                case '?':
-                case '+':
-                case '.':
-
-                    if(!charsAlreadySeen.contains( keychar )){
-
-                        key = key.replace(String.valueOf(keychar), "\\" + keychar);
+        int length = literal.length();
+        if ( length < minLength || ! literal.startsWith( prefix ) || ! literal.endsWith( suffix ) ) {
+            return false;
+        }
 
-                        charsAlreadySeen.add(keychar);
-                    }
-                    break;
+        // where the capture of the last star has to end
+        int limit = length - suffix.length();
 
-                default:
-                    break;
+        int starStart = prefix.length();
+        for ( int midIndex = 0; midIndex < mids.length; midIndex++ ) {
+            String mid = mids[midIndex];
+            int midStart = literal.indexOf( mid, starStart + 1 );
+            if ( midStart < 0 || midStart + mid.length() >= limit ) {
+                return false;
             }
+            if ( captureOffsets != null ) {
+                captureOffsets[ 2 * midIndex ] = starStart;
+                captureOffsets[ 2 * midIndex + 1 ] = midStart;
+            }
+            starStart = midStart + mid.length();
         }
-        return key;
+
+        if ( limit - starStart < 1 ) {
+            return false;
+        }
+        if ( captureOffsets != null ) {
+            captureOffsets[ 2 * starCount - 2 ] = starStart;
+            captureOffsets[ 2 * starCount - 1 ] = limit;
+        }
+        return true;
     }
 
     /**
-     * @param literal test to see if the provided string will match this Element's regex
-     * @return true if the provided literal will match this Element's regex
+     * @param literal test to see if the provided string will match this Element's key
+     * @return true if the provided literal will match this Element's key
      */
     @Override
     public boolean stringMatch( String literal ) {
-
-        Matcher matcher = pattern.matcher( literal );
-
-        return matcher.find();
+        return matchOffsets( literal, null );
     }
 
     @Override
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
 
-        Matcher matcher = pattern.matcher( dataKey );
-        if ( ! matcher.find() ) {
+        int[] captureOffsets = new int[ 2 * starCount ];
+        if ( ! matchOffsets( dataKey, captureOffsets ) ) {
             return null;
         }
 
-        int groupCount = matcher.groupCount();
-
-        List<String> subKeys = new ArrayList<>(groupCount);
-        for ( int index = 1; index <= groupCount; index++) {
-            subKeys.add( matcher.group( index ) );
-        }
-
-        return new MatchedElement(dataKey, subKeys);
+        // the substrings are only cut out of the dataKey if a reference asks for them
+        return new MatchedElement( dataKey, captureOffsets );
     }
 
     @Override
@@ -19,8 +19,6 @@ import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.utils.StringTools;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * PathElement for the a single "*" wildcard such as tag-*.   In this case we can avoid doing any
@@ -70,12 +68,9 @@ public class StarSinglePathElement extends BasePathElement implements StarPathEl
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
 
         if ( stringMatch( dataKey ) )  {
-            List<String> subKeys = new ArrayList<>(1);
-
             String starPart = dataKey.substring( prefix.length(), dataKey.length() - suffix.length() );
-            subKeys.add( starPart );
 
-            return new MatchedElement(dataKey, subKeys);
+            return new MatchedElement(dataKey, starPart);
         }
 
         return null;
@@ -176,6 +176,13 @@ public class TransposePathElement extends BasePathElement implements MatchablePa
         }
     }
 
+    /**
+     * @return how far up the WalkedPath this element goes before reading down its sub path
+     */
+    public int getUpLevel() {
+        return upLevel;
+    }
+
     /**
      * This method is used when the TransposePathElement is used on the LFH as data.
      *
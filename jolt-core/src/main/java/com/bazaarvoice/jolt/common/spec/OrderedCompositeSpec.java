@@ -16,7 +16,9 @@
 
 package com.bazaarvoice.jolt.common.spec;
 
+import com.bazaarvoice.jolt.common.ComputedKeysMatcher;
 import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.LiteralChildrenIndex;
 
 import java.util.List;
 import java.util.Map;
@@ -35,7 +37,29 @@ public interface OrderedCompositeSpec extends BaseSpec {
 
     Map<String, ? extends BaseSpec> getLiteralChildren();
 
+    /**
+     * Implementations written before this method existed get the default, and the executionStrategy walks
+     *  their getLiteralChildren() directly, the way it always has.
+     *
+     * @return index built once from getLiteralChildren(), that lets the executionStrategy walk the literal children
+     *  in spec order by position, or null to have it walk getLiteralChildren()
+     */
+    default LiteralChildrenIndex getLiteralChildrenIndex() {
+        return null;
+    }
+
     List<? extends BaseSpec> getComputedChildren();
 
+    /**
+     * Implementations written before this method existed get the default, and the executionStrategy tries
+     *  each of their getComputedChildren() in turn, the way it always has.
+     *
+     * @return matcher built once from getComputedChildren(), that the executionStrategy uses to find the computed
+     *  child for an input key, or null to have it try every computed child
+     */
+    default ComputedKeysMatcher getComputedKeysMatcher() {
+        return null;
+    }
+
     ExecutionStrategy determineExecutionStrategy();
 }
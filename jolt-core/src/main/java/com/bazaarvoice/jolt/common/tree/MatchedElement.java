@@ -19,7 +19,6 @@ import com.bazaarvoice.jolt.common.pathelement.BasePathElement;
 import com.bazaarvoice.jolt.common.pathelement.EvaluatablePathElement;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -32,17 +31,21 @@ import java.util.List;
  */
 public class MatchedElement extends BasePathElement implements EvaluatablePathElement {
 
-    private final List<String> subKeys;
+    private static final String[] NO_CAPTURES = new String[0];
+
+    // the values captured by the "*"s of the matching spec key, aka subKeys 1 thru n.  subKey 0 is the key itself.
+    // If constructed with captureOffsets, these are filled in as they are asked for.
+    private final String[] captures;
+
+    // null, or [start, end) offset pairs into the key of each capture
+    private final int[] captureOffsets;
 
     private int hashCount = 0;
 
     public MatchedElement( String key ) {
         super(key);
-
-        List<String> keys = new ArrayList<>(1);
-        keys.add( key ); // always add the full key to index 0
-
-        this.subKeys = Collections.unmodifiableList( keys );
+        this.captures = NO_CAPTURES;
+        this.captureOffsets = null;
     }
 
     public MatchedElement( String key, List<String> subKeys ) {
@@ -52,11 +55,47 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
             throw new IllegalArgumentException( "MatchedElement for key:" + key + " got null list of subKeys" );
         }
 
-        List<String> keys = new ArrayList<>( 1 + subKeys.size() );
-        keys.add( key ); // always add the full key to index 0
-        keys.addAll( subKeys );
+        this.captures = subKeys.toArray( new String[ subKeys.size() ] );
+        this.captureOffsets = null;
+    }
+
+    /**
+     * Convenience constructor for the common single "*" case, that avoids building a List.
+     */
+    public MatchedElement( String key, String subKey ) {
+        super(key);
+        this.captures = new String[] { subKey };
+        this.captureOffsets = null;
+    }
+
+    /**
+     * @param subKeys the captured values, which this MatchedElement takes ownership of, and does not copy
+     */
+    public MatchedElement( String key, String[] subKeys ) {
+        super(key);
+
+        if ( subKeys == null ) {
+            throw new IllegalArgumentException( "MatchedElement for key:" + key + " got null array of subKeys" );
+        }
+
+        this.captures = subKeys;
+        this.captureOffsets = null;
+    }
+
+    /**
+     * Lazy version, that only cuts a capture out of the key when {@link #getSubKeyRef(int)} asks for it.
+     *
+     * @param captureOffsets [start, end) offset pairs into the key, which this MatchedElement takes ownership of
+     */
+    public MatchedElement( String key, int[] captureOffsets ) {
+        super(key);
 
-        this.subKeys = Collections.unmodifiableList( keys );
+        if ( captureOffsets == null || captureOffsets.length % 2 != 0 ) {
+            throw new IllegalArgumentException( "MatchedElement for key:" + key + " needs pairs of capture offsets" );
+        }
+
+        this.captures = new String[ captureOffsets.length / 2 ];
+        this.captureOffsets = captureOffsets;
     }
 
     @Override
@@ -70,14 +109,23 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
     }
 
     public String getSubKeyRef( int index ) {
-        if ((index < 0) || (index >= this.subKeys.size())) {
-            throw new IndexOutOfBoundsException( "MatchedElement "+ this.subKeys +" cannot be indexed with index "+index );
+        if ((index < 0) || (index > this.captures.length)) {
+            throw new IndexOutOfBoundsException( "MatchedElement "+ subKeysToString() +" cannot be indexed with index "+index );
+        }
+        // index 0 is always the full key
+        if ( index == 0 ) {
+            return getRawKey();
+        }
+        String capture = captures[ index - 1 ];
+        if ( capture == null && captureOffsets != null ) {
+            capture = getRawKey().substring( captureOffsets[ 2 * index - 2 ], captureOffsets[ 2 * index - 1 ] );
+            captures[ index - 1 ] = capture;
         }
-        return subKeys.get( index );
+        return capture;
     }
 
     public int getSubKeyCount(){
-        return subKeys.size();
+        return captures.length + 1;
     }
 
     public int getHashCount() {
@@ -90,4 +138,13 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
     public void incrementHashCount() {
         hashCount++;
     }
+
+    private String subKeysToString() {
+        List<String> subKeys = new ArrayList<>( captures.length + 1 );
+        subKeys.add( getRawKey() );
+        for ( int index = 1; index <= captures.length; index++ ) {
+            subKeys.add( getSubKeyRef( index ) );
+        }
+        return subKeys.toString();
+    }
 }
@@ -21,22 +21,26 @@ import com.bazaarvoice.jolt.common.Optional;
  * A tuple class that contains the data for one level of a
  *  tree walk, aka a reference to the input for that level, and
  *  the LiteralPathElement that was matched at that level.
+ *
+ * The PathSteps held by a WalkedPath are reused slots, that get overwritten as the tree walk moves on,
+ *  so a PathStep handed out by a WalkedPath is only valid until that level of the walk is popped.
  */
 public final class PathStep {
 
-    private final Object treeRef;
-    private final MatchedElement matchedElement;
-    private final Optional<Integer> origSize;
+    private Object treeRef;
+    private MatchedElement matchedElement;
 
     public PathStep(Object treeRef, MatchedElement matchedElement ) {
         this.treeRef = treeRef;
         this.matchedElement = matchedElement;
-        if (matchedElement instanceof ArrayMatchedElement) {
-            origSize = Optional.of( ( (ArrayMatchedElement) matchedElement ).getOrigSize() );
-        }
-        else {
-            origSize = Optional.empty();
-        }
+    }
+
+    /**
+     * Reuse this PathStep for a new level of the tree walk, only to be called by WalkedPath.
+     */
+    void set( Object treeRef, MatchedElement matchedElement ) {
+        this.treeRef = treeRef;
+        this.matchedElement = matchedElement;
     }
 
     public Object getTreeRef() {
@@ -48,6 +52,10 @@ public final class PathStep {
     }
 
     public Optional<Integer> getOrigSize() {
-        return origSize;
+        // computed on demand, as only array matches have a size, and only a few callers ask for it
+        if ( matchedElement instanceof ArrayMatchedElement ) {
+            return Optional.of( ( (ArrayMatchedElement) matchedElement ).getOrigSize() );
+        }
+        return Optional.empty();
     }
 }
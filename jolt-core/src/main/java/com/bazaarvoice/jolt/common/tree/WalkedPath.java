@@ -15,8 +15,10 @@
  */
 package com.bazaarvoice.jolt.common.tree;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.RandomAccess;
 
 /**
  * DataStructure used by a SpecTransform during it's parallel tree walk.
@@ -31,44 +33,144 @@ import java.util.Collection;
  *
  * It is expected that as the SpecTransform navigates down the tree, MatchedElements will be added and then
  *  removed when that subtree has been walked.
+ *
+ * Being walked for every element of the input, it is backed by an array of PathSteps that are reused
+ *  from one sibling to the next, so pushing a level does not allocate once the walk is warmed up.
+ *
+ * That means the PathSteps handed out by get(), lastElement() and elementFromEnd() are mutable slots :
+ *  one kept across a removeLast() of its level changes underneath the caller when the next level is pushed.
+ *  Callers that need a level to outlive the walk should copy it, aka
+ *  new PathStep( step.getTreeRef(), step.getMatchedElement() ), or copy the whole walk with new WalkedPath( walkedPath ).
  */
-public class WalkedPath extends ArrayList<PathStep> {
+public class WalkedPath extends AbstractList<PathStep> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    // Array backed stack of reusable PathSteps.
+    // Slots at and beyond "size" may hold PathSteps from earlier, deeper, parts of the walk, which get reused.
+    private PathStep[] steps;
+    private int size;
 
     public WalkedPath() {
-        super();
+        steps = new PathStep[ DEFAULT_CAPACITY ];
     }
 
     public WalkedPath(Collection<PathStep> c) {
-        super(c);
+        steps = new PathStep[ Math.max( DEFAULT_CAPACITY, c.size() ) ];
+        addAll( c );
     }
 
     public WalkedPath( Object treeRef, MatchedElement matchedElement ) {
-        super();
-        this.add( new PathStep( treeRef, matchedElement ) );
+        this();
+        add( treeRef, matchedElement );
     }
 
     /**
-     * Convenience method
+     * Push a level onto the walk, reusing a PathStep from an earlier level if there is one.
      */
     public boolean add( Object treeRef, MatchedElement matchedElement ) {
-        return super.add( new PathStep( treeRef, matchedElement ) );
+        ensureCapacity( size + 1 );
+        PathStep slot = steps[size];
+        if ( slot == null ) {
+            steps[size] = new PathStep( treeRef, matchedElement );
+        }
+        else {
+            slot.set( treeRef, matchedElement );
+        }
+        size++;
+        modCount++;
+        return true;
     }
 
+    /**
+     * Pop the last level off the walk.
+     */
     public void removeLast() {
-        remove(size() - 1);
+        if ( size == 0 ) {
+            throw new IndexOutOfBoundsException( "WalkedPath is empty" );
+        }
+        size--;
+        // keep the PathStep for reuse, but do not hold on to the input data
+        steps[size].set( null, null );
+        modCount++;
     }
 
     /**
      * Method useful to "&", "&1", "&2", etc evaluation.
+     *
+     * @return the PathStep of that level, which is only valid until the level is popped
      */
     public PathStep elementFromEnd(int idxFromEnd) {
         if (isEmpty()) {
             return null;
         }
-        return get(size() - 1 - idxFromEnd);
+        return get(size - 1 - idxFromEnd);
     }
 
+    /**
+     * @return the PathStep of the last level, which is only valid until the level is popped
+     */
     public PathStep lastElement() {
-        return get(size() - 1);
+        return get(size - 1);
+    }
+
+    /**
+     * @return the PathStep of the level, which is only valid until the level is popped
+     */
+    @Override
+    public PathStep get( int index ) {
+        if ( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        return steps[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * General List insert.  The PathStep is copied, as this WalkedPath overwrites the PathSteps it holds.
+     */
+    @Override
+    public void add( int index, PathStep pathStep ) {
+        if ( index < 0 || index > size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        ensureCapacity( size + 1 );
+        System.arraycopy( steps, index, steps, index + 1, size - index );
+        steps[index] = new PathStep( pathStep.getTreeRef(), pathStep.getMatchedElement() );
+        size++;
+        modCount++;
+    }
+
+    /**
+     * General List set.  The PathStep is copied, as this WalkedPath overwrites the PathSteps it holds.
+     */
+    @Override
+    public PathStep set( int index, PathStep pathStep ) {
+        PathStep old = get( index );
+        steps[index] = new PathStep( pathStep.getTreeRef(), pathStep.getMatchedElement() );
+        return old;
+    }
+
+    /**
+     * General List remove.  The removed PathStep is handed to the caller, so it is not reused.
+     */
+    @Override
+    public PathStep remove( int index ) {
+        PathStep old = get( index );
+        System.arraycopy( steps, index + 1, steps, index, size - index - 1 );
+        size--;
+        steps[size] = null;
+        modCount++;
+        return old;
+    }
+
+    private void ensureCapacity( int capacity ) {
+        if ( capacity > steps.length ) {
+            steps = Arrays.copyOf( steps, Math.max( capacity, steps.length * 2 ) );
+        }
     }
 }
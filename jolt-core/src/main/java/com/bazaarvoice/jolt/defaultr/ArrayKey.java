@@ -15,17 +15,12 @@
  */
 package com.bazaarvoice.jolt.defaultr;
 
-import com.bazaarvoice.jolt.common.DeepCopy;
-
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 public class ArrayKey extends Key {
 
-    private Collection<Integer> keyInts;
+    private int[] keyInts;
     private int keyInt = -1;
 
     public ArrayKey( String jsonKey, Object spec ) {
@@ -34,18 +29,21 @@ public class ArrayKey extends Key {
         // Handle ArrayKey specific stuff
         switch( getOp() ){
             case OR :
-                keyInts = new ArrayList<>();
+                List<Integer> orInts = new ArrayList<>();
                 for( String orLiteral : keyStrings ) {
-                    int orInt = Integer.parseInt( orLiteral );
-                    keyInts.add( orInt );
+                    orInts.add( Integer.parseInt( orLiteral ) );
+                }
+                keyInts = new int[ orInts.size() ];
+                for ( int index = 0; index < keyInts.length; index++ ) {
+                    keyInts[index] = orInts.get( index );
                 }
                 break;
             case LITERAL:
                 keyInt = Integer.parseInt( rawKey );
-                keyInts = Arrays.asList( keyInt );
+                keyInts = new int[] { keyInt };
                 break;
             case STAR:
-                keyInts = Collections.emptyList();
+                keyInts = new int[0];
                 break;
             default :
                 throw new IllegalStateException( "Someone has added an op type without changing this method." );
@@ -65,62 +63,43 @@ public class ArrayKey extends Key {
             List<Object> defaultList = (List<Object>) container;
 
             // Find all defaultee keys that match the childKey spec.  Simple for Literal keys, more work for * and |.
-            for ( Integer literalKey : determineMatchingContainerKeys( defaultList ) ) {
-                applyLiteralKeyToContainer( literalKey, defaultList );
+            switch ( getOp() ) {
+                case LITERAL:
+                    // Container it should get this literal value added to it
+                    // this assumes the container list has already been expanded to the right size
+                    applyLiteralKeyToContainer( keyInt, defaultList );
+                    break;
+                case OR:
+                    // Only the OR values that are within the container list
+                    for ( int orValue : keyInts ) {
+                        if ( orValue < defaultList.size() ) {
+                            applyLiteralKeyToContainer( orValue, defaultList );
+                        }
+                    }
+                    break;
+                case STAR:
+                    // All of its indexes
+                    for ( int index = 0; index < defaultList.size(); index++ ) {
+                        applyLiteralKeyToContainer( index, defaultList );
+                    }
+                    break;
+                default :
+                    throw new IllegalStateException( "Someone has added an op type without changing this method." );
             }
         }
         // Else there is disagreement (with respect to Array vs Map) between the data in
         //  the Container vs the Defaultr Spec type for this key.  Container wins, so do nothing.
     }
 
-    private void applyLiteralKeyToContainer( Integer literalIndex, List<Object> container ) {
+    private void applyLiteralKeyToContainer( int literalIndex, List<Object> container ) {
 
         Object defaulteeValue = container.get( literalIndex );
+        Object newValue = applyToValue( defaulteeValue );
 
-        if ( children == null ) {
-            if ( defaulteeValue == null ) {
-                container.set( literalIndex, DeepCopy.simpleDeepCopy( literalValue ) );  // apply a copy of the default value into a List, assumes the list as already been expanded if needed.
-            }
-        }
-        else {
-            if ( defaulteeValue == null ) {
-                defaulteeValue = createOutputContainerObject();
-                container.set( literalIndex, defaulteeValue ); // push a new sub-container into this list
-            }
-
-            // recurse by applying my children to this known valid container
-            applyChildren( defaulteeValue );
-        }
-    }
-
-    private Collection<Integer> determineMatchingContainerKeys( List<Object> container ) {
-
-        switch ( getOp() ) {
-            case LITERAL:
-                // Container it should get these literal values added to it
-                return keyInts;
-            case STAR:
-                // Identify all its keys
-                // this assumes the container list has already been expanded to the right size
-                List defaultList = (List) container;
-                List<Integer> allIndexes = new ArrayList<>( defaultList.size() );
-                for ( int index = 0; index < defaultList.size(); index++ ) {
-                    allIndexes.add( index );
-                }
-
-                return allIndexes;
-            case OR:
-                // Identify the intersection between the container "keys" and the OR values
-                List<Integer> indexesInRange = new ArrayList<>();
-
-                for ( Integer orValue : keyInts ) {
-                    if ( orValue < ((List) container ).size() ) {
-                        indexesInRange.add( orValue );
-                    }
-                }
-                return indexesInRange;
-            default :
-                throw new IllegalStateException( "Someone has added an op type without changing this method." );
+        if ( newValue != defaulteeValue ) {
+            // apply a copy of the default value, or push a new sub-container into this list,
+            //  assumes the list as already been expanded if needed.
+            container.set( literalIndex, newValue );
         }
     }
 }
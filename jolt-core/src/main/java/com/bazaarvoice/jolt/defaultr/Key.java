@@ -16,14 +16,15 @@
 package com.bazaarvoice.jolt.defaultr;
 
 import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.common.JsonCopier;
 import com.bazaarvoice.jolt.exception.TransformException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,25 +33,35 @@ import static com.bazaarvoice.jolt.defaultr.OPS.OR;
 
 public abstract class Key {
 
+    /**
+     * Factory-ish method that recursively processes a Map<String, Object> into a List<Key> objects.
+     *
+     * @param spec Simple Jackson default Map<String,Object> input
+     * @return List of Keys from this level in the spec, in spec order
+     */
+    public static List<Key> parseSpecInOrder( Map<String, Object> spec ) {
+        return processSpec( false, spec );
+    }
+
     /**
      * Factory-ish method that recursively processes a Map<String, Object> into a Set<Key> objects.
      *
      * @param spec Simple Jackson default Map<String,Object> input
      * @return Set of Keys from this level in the spec
+     * @deprecated use {@link #parseSpecInOrder(Map)}, which keeps the spec order
      */
+    @Deprecated
     public static Set<Key> parseSpec( Map<String, Object> spec ) {
-        return processSpec( false, spec );
+        return new LinkedHashSet<>( parseSpecInOrder( spec ) );
     }
 
     /**
      * Recursively walk the spec input tree.  Handle arrays by telling DefaultrKeys if they need to be ArrayKeys, and
      *  to find the max default array length.
      */
-    private static Set<Key> processSpec( boolean parentIsArray, Map<String, Object> spec ) {
-
-        // TODO switch to List<Key> and sort before returning
+    private static List<Key> processSpec( boolean parentIsArray, Map<String, Object> spec ) {
 
-        Set<Key> result = new HashSet<>();
+        List<Key> result = new ArrayList<>( spec.size() );
 
         for ( String key : spec.keySet() ) {
             Object subSpec = spec.get( key );
@@ -68,6 +79,7 @@ public abstract class Key {
 
     private static final String OR_INPUT_REGEX = "\\" + Defaultr.WildCards.OR;
     private static final Key.KeyPrecedenceComparator keyComparator = new Key.KeyPrecedenceComparator();
+    private static final Key[] NO_KEYS = new Key[0];
 
     // Am I supposed to be parent of an array?  If so I need to make sure that I inform
     //  my children they need to be ArrayKeys, and I need to make sure that the output array
@@ -77,6 +89,18 @@ public abstract class Key {
     private int orCount = 0;
     private int outputArraySize = -1;
 
+    // The children, bucketed and sorted by precedence at spec parse time : literals, |, then *
+    //  so that applyChildren does not have to sort them for every defaultee.
+    private Key[] literalChildren = NO_KEYS;
+    private Key[] orChildren = NO_KEYS;
+    private Key[] starChildren = NO_KEYS;
+    private boolean hasChildren = false;
+
+    /**
+     * @deprecated the children as parsed, for subclasses written against it, while Key itself applies them
+     *  from its precedence buckets
+     */
+    @Deprecated
     protected Set<Key> children = null;
     protected Object literalValue = null;
 
@@ -110,17 +134,21 @@ public abstract class Key {
 
         // Spec is String -> Map   or   String -> Literal only
         if ( spec instanceof Map ) {
-            children = processSpec( isArrayOutput(), (Map<String, Object>) spec );
+            List<Key> childKeys = processSpec( isArrayOutput(), (Map<String, Object>) spec );
+            hasChildren = true;
 
             if ( isArrayOutput() ) {
                 // loop over children and find the max literal value
-                for( Key childKey : children ) {
+                for( Key childKey : childKeys ) {
                     int childValue = childKey.getLiteralIntKey();
                     if ( childValue > outputArraySize ) {
                         outputArraySize = childValue;
                     }
                 }
             }
+
+            bucketChildren( childKeys );
+            children = new LinkedHashSet<>( childKeys );
         }
         else {
             // literal such as String, number, or JSON array
@@ -128,6 +156,36 @@ public abstract class Key {
         }
     }
 
+    private void bucketChildren( List<Key> children ) {
+
+        List<Key> literals = new ArrayList<>();
+        List<Key> ors = new ArrayList<>();
+        List<Key> stars = new ArrayList<>();
+
+        for ( Key child : children ) {
+            switch ( child.getOp() ) {
+                case LITERAL:
+                    literals.add( child );
+                    break;
+                case OR:
+                    ors.add( child );
+                    break;
+                case STAR:
+                    stars.add( child );
+                    break;
+                default :
+                    throw new IllegalStateException( "Someone has added an op type without changing this method." );
+            }
+        }
+
+        // Literals and stars each apply to all the same defaultee keys, so only the ORs need sub sorting
+        Collections.sort( ors, keyComparator );
+
+        literalChildren = literals.toArray( new Key[ literals.size() ] );
+        orChildren = ors.toArray( new Key[ ors.size() ] );
+        starChildren = stars.toArray( new Key[ stars.size() ] );
+    }
+
     /**
      * This is the main "recursive" method.   The defaultee should never be null, because
      *  the defaultee wasn't null, it was null and we created it, OR there was
@@ -153,12 +211,14 @@ public abstract class Key {
             }
         }
 
-        // Find and sort the children DefaultrKeys by precedence: literals, |, then *
-        ArrayList<Key> sortedChildren = new ArrayList<>();
-        sortedChildren.addAll( children );
-        Collections.sort( sortedChildren, keyComparator );
-
-        for ( Key childKey : sortedChildren ) {
+        // Apply the children DefaultrKeys by precedence: literals, |, then *
+        for ( Key childKey : literalChildren ) {
+            childKey.applyChild( defaultee );
+        }
+        for ( Key childKey : orChildren ) {
+            childKey.applyChild( defaultee );
+        }
+        for ( Key childKey : starChildren ) {
             childKey.applyChild( defaultee );
         }
     }
@@ -168,10 +228,36 @@ public abstract class Key {
     /**
      * Apply this Key to the defaultee.
      *
-     * If this Key is a WildCard key, this may apply to many entries in the container.
+     * Literal and | keys lookup their keys directly in the container, and a * key makes a
+     *  single pass over the container.
      */
     protected abstract void applyChild( Object container );
 
+    /**
+     * Apply this Key to one value of the container.
+     *
+     * @param defaulteeValue the current value in the container, possibly null
+     * @return the value the container should hold; if it is not the same instance
+     *  as defaulteeValue, or the container is missing the key, the caller needs to write it into the container
+     */
+    protected Object applyToValue( Object defaulteeValue ) {
+
+        if ( ! hasChildren ) {
+            if ( defaulteeValue == null ) {
+                return JsonCopier.copy( literalValue );  // a copy of the default value
+            }
+            return defaulteeValue;
+        }
+
+        if ( defaulteeValue == null ) {
+            defaulteeValue = createOutputContainerObject();  // a new sub-container
+        }
+
+        // recurse by applying my children to this known valid container
+        applyChildren( defaulteeValue );
+        return defaulteeValue;
+    }
+
     public int getOrCount() {
        return orCount;
     }
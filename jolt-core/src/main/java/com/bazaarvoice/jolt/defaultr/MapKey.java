@@ -15,12 +15,7 @@
  */
 package com.bazaarvoice.jolt.defaultr;
 
-import com.bazaarvoice.jolt.common.DeepCopy;
-
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 public class MapKey extends Key {
 
@@ -37,11 +32,36 @@ public class MapKey extends Key {
     protected void applyChild( Object container ) {
 
         if ( container instanceof Map ) {
+            @SuppressWarnings( "unchecked" )
             Map<String, Object> defaulteeMap = (Map<String, Object>) container;
 
             // Find all defaultee keys that match the childKey spec.  Simple for Literal keys, more work for * and |.
-            for ( String literalKey : determineMatchingContainerKeys( defaulteeMap ) ) {
-                applyLiteralKeyToContainer( literalKey, defaulteeMap );
+            switch ( getOp() ) {
+                case LITERAL:
+                    // the container should get this literal value added to it
+                    applyLiteralKeyToContainer( rawKey, defaulteeMap );
+                    break;
+                case OR:
+                    // Only the OR values that are already keys in the container
+                    for ( int index = 0; index < keyStrings.size(); index++ ) {
+                        String orKey = keyStrings.get( index );
+                        if ( defaulteeMap.containsKey( orKey ) ) {
+                            applyLiteralKeyToContainer( orKey, defaulteeMap );
+                        }
+                    }
+                    break;
+                case STAR:
+                    // All of its keys, updating the values via the entries so that we don't modify the map while iterating it
+                    for ( Map.Entry<String, Object> entry : defaulteeMap.entrySet() ) {
+                        Object defaulteeValue = entry.getValue();
+                        Object newValue = applyToValue( defaulteeValue );
+                        if ( newValue != defaulteeValue ) {
+                            entry.setValue( newValue );
+                        }
+                    }
+                    break;
+                default :
+                    throw new IllegalStateException( "Someone has added an op type without changing this method." );
             }
         }
         // Else there is disagreement (with respect to Array vs Map) between the data in
@@ -51,39 +71,11 @@ public class MapKey extends Key {
     private void applyLiteralKeyToContainer( String literalKey, Map<String, Object> container ) {
 
         Object defaulteeValue = container.get( literalKey );
+        Object newValue = applyToValue( defaulteeValue );
 
-        if ( children == null ) {
-            if ( defaulteeValue == null ) {
-                container.put( literalKey, DeepCopy.simpleDeepCopy( literalValue ) );  // apply a copy of the default value into a map
-            }
-        }
-        else {
-            if ( defaulteeValue == null ) {
-                defaulteeValue = createOutputContainerObject();
-                container.put( literalKey, defaulteeValue );  // push a new sub-container into this map
-            }
-
-            // recurse by applying my children to this known valid container
-            applyChildren( defaulteeValue );
-        }
-    }
-
-    private Collection<String> determineMatchingContainerKeys( Map<String, Object> container ) {
-
-        switch ( getOp() ) {
-            case LITERAL:
-                // the container should get these literal values added to it
-                return keyStrings;
-            case STAR:
-                // Identify all its keys
-                return container.keySet();
-            case OR:
-                // Identify the intersection between its keys and the OR values
-                Set<String> intersection = new HashSet<>( container.keySet() );
-                intersection.retainAll( keyStrings );
-                return intersection;
-            default :
-                throw new IllegalStateException( "Someone has added an op type without changing this method." );
+        // a null default for a missing key comes back as the same null, but the key still needs adding
+        if ( newValue != defaulteeValue || ! container.containsKey( literalKey ) ) {
+            container.put( literalKey, newValue );  // apply a copy of the default value, or push a new sub-container into this map
         }
     }
 }
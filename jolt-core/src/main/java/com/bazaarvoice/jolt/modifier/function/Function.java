@@ -59,6 +59,13 @@ import java.util.List;
  *
  *
  *
+ * Calls nest, so a value can go through several functions in one spec line:
+ *
+ * spec:
+ *      { "name": "=toUpper(=trim(@(1,rawName)))" }
+ *
+ *
+ *
  * Currently defined stock functions are:
  *
  *      toLower     - returns toLower value of toString() value of first arg, rest is ignored
@@ -99,6 +106,30 @@ public interface Function {
 
     Optional<Object> apply(Object... args);
 
+    /**
+     * Marks a Function whose result depends only on its arguments, and that leaves its arguments alone.
+     *
+     * Modifier calls one whose arguments are all literals once, while building the spec, rather than once per input,
+     * i.e. "key": "=concat('a','b')" is folded into "key": "ab"
+     */
+    interface PureFunction extends Function {
+    }
+
+    /**
+     * A Function that can do some of its work up front, once it knows which of its arguments are literals.
+     *
+     * i.e. "key": "=split('[,;]', @(1,value))" compiles the separator regex once, while building the spec
+     */
+    interface SpecializableFunction extends Function {
+
+        /**
+         * @param specArgs the call's arguments, Optional.of( literal ) for each literal in the spec, Optional.empty()
+         *                 for each evaluated per input
+         * @return a Function that returns the same as this one for calls with those literals, or this
+         */
+        Function specialize( List<Optional<Object>> specArgs );
+    }
+
     /**
      * Does nothing
      *
@@ -106,7 +137,7 @@ public interface Function {
      *
      * will cause the key to remain unchanged
      */
-    Function noop = new Function() {
+    Function noop = new PureFunction() {
         @Override
         public Optional<Object> apply( final Object... args ) {
             return Optional.empty();
@@ -128,7 +159,7 @@ public interface Function {
      * output - "key": "otherValue"
      *
      */
-    Function isPresent = new Function() {
+    Function isPresent = new PureFunction() {
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0) {
@@ -150,7 +181,7 @@ public interface Function {
      * output - "key": "value"
      *
      */
-    Function notNull = new Function() {
+    Function notNull = new PureFunction() {
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0 || args[0] == null) {
@@ -172,7 +203,7 @@ public interface Function {
      * output - "key": "otherValue"
      *
      */
-    Function isNull = new Function() {
+    Function isNull = new PureFunction() {
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0 || args[0] != null) {
@@ -198,31 +229,38 @@ public interface Function {
                 return Optional.empty();
             }
             else if(args.length == 1) {
-                if(args[0] instanceof List ) {
-                    if(((List) args[0]).isEmpty()) {
-                        return Optional.empty();
-                    }
-                    else {
-                        return applyList((List) args[0]);
-                    }
+                return applyArg( args[0] );
+            }
+            else {
+                return applyList( Arrays.asList( args ) );
+            }
+        }
+
+        /**
+         * Same as apply() with a single arg, without the varargs array, for FunctionEvaluator
+         */
+        final Optional<Object> applyArg( final Object arg ) {
+            if(arg instanceof List ) {
+                if(((List) arg).isEmpty()) {
+                    return Optional.empty();
                 }
-                else if( args[0] instanceof Object[] ) {
-                    if(((Object[]) args[0]).length == 0) {
-                        return Optional.empty();
-                    }
-                    else {
-                        return applyList(Arrays.asList(((Object[]) args[0])));
-                    }
+                else {
+                    return applyList((List) arg);
                 }
-                else if(args[0] == null) {
+            }
+            else if( arg instanceof Object[] ) {
+                if(((Object[]) arg).length == 0) {
                     return Optional.empty();
                 }
                 else {
-                    return (Optional) applySingle( args[0] );
+                    return applyList(Arrays.asList(((Object[]) arg)));
                 }
             }
+            else if(arg == null) {
+                return Optional.empty();
+            }
             else {
-                return applyList( Arrays.asList( args ) );
+                return (Optional) applySingle( arg );
             }
         }
 
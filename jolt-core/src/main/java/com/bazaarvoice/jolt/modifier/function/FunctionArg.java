@@ -18,11 +18,16 @@ package com.bazaarvoice.jolt.modifier.function;
 
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.PathEvaluatingTraversal;
+import com.bazaarvoice.jolt.common.TransposeReader;
+import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
+import com.bazaarvoice.jolt.common.pathelement.LiteralPathElement;
 import com.bazaarvoice.jolt.common.pathelement.PathElement;
 import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public abstract class FunctionArg {
@@ -56,14 +61,97 @@ public abstract class FunctionArg {
 
     private static final class ContextLookupArg extends FunctionArg {
         private final PathEvaluatingTraversal traversal;
+        // readers for each leading part of the path, i.e. "root" and "root.rates" for "root.rates.usd",
+        //  or null if the path uses & or # references and so can not be remembered per transform
+        private final List<PathEvaluatingTraversal> parentTraversals;
 
         private ContextLookupArg( PathEvaluatingTraversal traversal ) {
             this.traversal = traversal;
+            this.parentTraversals = isFixedPath( traversal ) ? buildParentTraversals( traversal ) : null;
         }
 
         @Override
         public Optional<Object> evaluateArg( final WalkedPath walkedPath, final Map<String, Object> context ) {
-            return traversal.read( context, walkedPath );
+            if ( parentTraversals == null || ! ( context instanceof LookupCachingContext ) ) {
+                return traversal.read( context, walkedPath );
+            }
+
+            LookupCachingContext cachingContext = (LookupCachingContext) context;
+            Optional<Object> value = cachingContext.getLookup( this );
+            if ( value == null ) {
+                value = traversal.read( context, walkedPath );
+                cachingContext.putLookup( this, value, readContainers( context, walkedPath ) );
+            }
+            return value;
+        }
+
+        private List<Object> readContainers( Map<String, Object> context, WalkedPath walkedPath ) {
+            List<Object> containers = new ArrayList<>( parentTraversals.size() + 1 );
+            containers.add( context );
+            for ( PathEvaluatingTraversal parentTraversal : parentTraversals ) {
+                Object container = parentTraversal.read( context, walkedPath ).get();
+                if ( container instanceof Map || container instanceof List ) {
+                    containers.add( container );
+                }
+            }
+            return containers;
+        }
+
+        private static boolean isFixedPath( PathEvaluatingTraversal traversal ) {
+            for ( int i = 0; i < traversal.size(); i++ ) {
+                PathElement pathElement = traversal.get( i );
+                boolean isFixed = pathElement instanceof LiteralPathElement ||
+                        ( pathElement instanceof ArrayPathElement && ( (ArrayPathElement) pathElement ).isExplicitArrayIndex() );
+                if ( ! isFixed ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static List<PathEvaluatingTraversal> buildParentTraversals( PathEvaluatingTraversal traversal ) {
+            List<PathEvaluatingTraversal> parentTraversals = new ArrayList<>( traversal.size() );
+            StringBuilder path = new StringBuilder();
+            for ( int i = 0; i < traversal.size() - 1; i++ ) {
+                if ( i > 0 ) {
+                    path.append( '.' );
+                }
+                path.append( traversal.get( i ).getCanonicalForm() );
+                parentTraversals.add( new TransposeReader( path.toString() ) );
+            }
+            return parentTraversals;
+        }
+    }
+
+    /**
+     * For a function call nested in another, i.e. "=trim(@(1,name))" in "=toUpper(=trim(@(1,name)))"
+     */
+    public static FunctionArg forFunction( FunctionEvaluator functionEvaluator ) {
+        return new FunctionCallArg( functionEvaluator );
+    }
+
+    private static final class FunctionCallArg extends FunctionArg {
+        private final FunctionEvaluator functionEvaluator;
+
+        private FunctionCallArg( FunctionEvaluator functionEvaluator ) {
+            this.functionEvaluator = functionEvaluator;
+        }
+
+        @Override
+        public Optional<Object> evaluateArg( final WalkedPath walkedPath, final Map<String, Object> context ) {
+            return functionEvaluator.evaluateNested( walkedPath, context );
+        }
+
+        @Override
+        public Optional<Object> getLiteral() {
+            // a nested call that was folded is as good as a literal
+            Optional<Object> constant = functionEvaluator.getConstant();
+            return constant == null ? Optional.empty() : constant;
+        }
+
+        @Override
+        FunctionEvaluator getFunctionEvaluator() {
+            return functionEvaluator;
         }
     }
 
@@ -109,7 +197,26 @@ public abstract class FunctionArg {
         public Optional<Object> evaluateArg( final WalkedPath walkedPath, final Map<String, Object> context ) {
             return returnValue;
         }
+
+        @Override
+        public Optional<Object> getLiteral() {
+            return returnValue;
+        }
     }
 
     public abstract Optional<Object> evaluateArg(WalkedPath walkedPath, Map<String, Object> context);
+
+    /**
+     * @return the value of this arg, if it is a literal in the spec, otherwise Optional.empty()
+     */
+    public Optional<Object> getLiteral() {
+        return Optional.empty();
+    }
+
+    /**
+     * @return the call, if this arg is a nested function call, otherwise null
+     */
+    FunctionEvaluator getFunctionEvaluator() {
+        return null;
+    }
 }
@@ -19,38 +19,140 @@ package com.bazaarvoice.jolt.modifier.function;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings( "deprecated" )
 public class FunctionEvaluator {
 
     public static FunctionEvaluator forFunctionEvaluation( Function function, FunctionArg... functionArgs ) {
-        return new FunctionEvaluator( function, functionArgs );
+        return new FunctionEvaluator( function, null, functionArgs );
+    }
+
+    /**
+     * Same as {@link #forFunctionEvaluation(Function, FunctionArg...)}, but counts each evaluation into the given stats
+     */
+    public static FunctionEvaluator forFunctionEvaluation( Function function, FunctionStats stats, FunctionArg... functionArgs ) {
+        return new FunctionEvaluator( function, stats, functionArgs );
     }
 
     public static FunctionEvaluator forArgEvaluation( FunctionArg functionArgs ) {
-        return new FunctionEvaluator( null, functionArgs );
+        return new FunctionEvaluator( null, null, functionArgs );
+    }
+
+    /**
+     * For a function call that was evaluated while building the spec, as all its arguments are literals
+     */
+    public static FunctionEvaluator forConstant( Optional<Object> value, FunctionStats stats ) {
+        return new FunctionEvaluator( value, stats );
     }
 
     // function that is evaluated and applied as output
     private final Function function;
+    // same as function, when it can take a single arg without a varargs array, otherwise null
+    private final Function.BaseFunction<?> baseFunction;
     // arguments of the function, not evaluated and can be a jolt path expression that
     // either point to a context or self, or a value present at the matching level
     private final FunctionArg[] functionArgs;
+    // the counters of this call, which a Modifier spec always keeps, null only for evaluators built without them
+    private final FunctionStats stats;
+    // the result of a call with only literal arguments, otherwise null
+    private final Optional<Object> constant;
+
+    // for calls with more than one argument, the literal arguments' values in place, so that
+    //  only the rest, at evaluatedArgIndexes, need evaluating per input
+    private final Object[] literalArgValues;
+    private final int[] evaluatedArgIndexes;
 
-    private FunctionEvaluator( final Function function, final FunctionArg... functionArgs ) {
+    private FunctionEvaluator( final Function function, final FunctionStats stats, final FunctionArg... functionArgs ) {
         this.function = function;
+        this.baseFunction = function instanceof Function.BaseFunction ? (Function.BaseFunction<?>) function : null;
+        this.stats = stats;
         this.functionArgs = functionArgs;
+        this.constant = null;
+
+        literalArgValues = new Object[functionArgs.length];
+        int[] indexes = new int[functionArgs.length];
+        int evaluatedArgCount = 0;
+        for ( int i = 0; i < functionArgs.length; i++ ) {
+            Optional<Object> literal = functionArgs[i].getLiteral();
+            if ( literal.isPresent() ) {
+                literalArgValues[i] = literal.get();
+            }
+            else {
+                indexes[evaluatedArgCount++] = i;
+            }
+        }
+        evaluatedArgIndexes = Arrays.copyOf( indexes, evaluatedArgCount );
+    }
+
+    private FunctionEvaluator( final Optional<Object> constant, final FunctionStats stats ) {
+        this.function = null;
+        this.baseFunction = null;
+        this.stats = stats;
+        this.functionArgs = new FunctionArg[0];
+        this.constant = constant;
+        this.literalArgValues = null;
+        this.evaluatedArgIndexes = null;
+    }
+
+    public FunctionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @param functionStats gets the stats of this call, followed by those of any calls nested in its args
+     */
+    public void collectStats( List<FunctionStats> functionStats ) {
+        if ( stats != null ) {
+            functionStats.add( stats );
+        }
+        for ( FunctionArg functionArg : functionArgs ) {
+            FunctionEvaluator nested = functionArg.getFunctionEvaluator();
+            if ( nested != null ) {
+                nested.collectStats( functionStats );
+            }
+        }
+    }
+
+    /**
+     * @return the result of a call that was evaluated while building the spec, otherwise null
+     */
+    public Optional<Object> getConstant() {
+        return constant;
+    }
+
+    /**
+     * Evaluates a call nested in another's args.  A bare "=trim" works on the current value, same as it does on the RHS.
+     */
+    Optional<Object> evaluateNested( WalkedPath walkedPath, Map<String, Object> context ) {
+        Optional<Object> inputOptional = function != null && functionArgs.length == 0 ?
+                Optional.of( walkedPath.lastElement().getTreeRef() ) :
+                Optional.empty();
+        return evaluate( inputOptional, walkedPath, context );
     }
 
 
     public Optional<Object> evaluate(Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> context) {
 
+        if ( stats != null ) {
+            stats.recordEvaluation();
+        }
+
+        if ( constant != null ) {
+            return recordResult( constant );
+        }
+
         Optional<Object> valueOptional = Optional.empty();
         try {
 
             // "key": "@0", "key": literal
             if(function == null) {
+                // "key": "=unknownFunction", nothing to evaluate
+                if ( functionArgs.length == 0 ) {
+                    return recordResult( valueOptional );
+                }
                 valueOptional = functionArgs[0].evaluateArg( walkedPath, context );
             }
             // "key": "=abs(@(1,&0))"
@@ -58,14 +160,14 @@ public class FunctionEvaluator {
             // pass the value, if present, to the spec function
             else if( functionArgs.length == 1 ) {
                 Optional<Object> evaluatedArgValue = functionArgs[0].evaluateArg( walkedPath, context );
-                valueOptional = evaluatedArgValue.isPresent() ? function.apply( evaluatedArgValue.get() ): function.apply( );
+                valueOptional = evaluatedArgValue.isPresent() ? applySingleArg( evaluatedArgValue.get() ): function.apply( );
             }
             // "key": "=abs(@(1,&0),-1,-3)"
             // this is more complicated case! if args is an array, after evaluation we cannot pass a missing value wrapped in
             // object[] into function. In such case null will be passed however, in json null is also a valid value, so it is
             // upto the implementer to interpret the value. Ideally we can almost always pass a list straight from input.
             else if( functionArgs.length > 1 ) {
-                Object[] evaluatedArgs = evaluateArgsValue( functionArgs, context, walkedPath );
+                Object[] evaluatedArgs = evaluateArgsValue( context, walkedPath );
                 valueOptional = function.apply( evaluatedArgs );
             }
             //
@@ -76,21 +178,36 @@ public class FunctionEvaluator {
             // "key": "=abs"
             else {
                 // pass current value as arg if present
-                valueOptional = inputOptional.isPresent() ? function.apply( inputOptional.get()) : function.apply(  );
+                valueOptional = inputOptional.isPresent() ? applySingleArg( inputOptional.get()) : function.apply(  );
             }
         }
-        catch(Exception ignored) {}
+        catch(Exception ignored) {
+            if ( stats != null ) {
+                stats.recordException();
+            }
+            return Optional.empty();
+        }
 
-        return valueOptional;
+        return recordResult( valueOptional );
+    }
 
+    private Optional<Object> applySingleArg( Object arg ) {
+        return baseFunction != null ? baseFunction.applyArg( arg ) : function.apply( arg );
+    }
+
+    private Optional<Object> recordResult( Optional<Object> valueOptional ) {
+        if ( stats != null && ! valueOptional.isPresent() ) {
+            stats.recordEmptyResult();
+        }
+        return valueOptional;
     }
 
-    private static Object[] evaluateArgsValue( final FunctionArg[] functionArgs, final Map<String, Object> context, final WalkedPath walkedPath ) {
+    private Object[] evaluateArgsValue( final Map<String, Object> context, final WalkedPath walkedPath ) {
 
-        Object[] evaluatedArgs = new Object[functionArgs.length];
-        for(int i=0; i<functionArgs.length; i++) {
-            FunctionArg arg = functionArgs[i];
-            Optional<Object> evaluatedValue = arg.evaluateArg( walkedPath, context );
+        // a fresh array each time, as functions are free to hand it back, i.e. toList
+        Object[] evaluatedArgs = literalArgValues.clone();
+        for ( int i : evaluatedArgIndexes ) {
+            Optional<Object> evaluatedValue = functionArgs[i].evaluateArg( walkedPath, context );
             evaluatedArgs[i] = evaluatedValue.get();
         }
         return evaluatedArgs;
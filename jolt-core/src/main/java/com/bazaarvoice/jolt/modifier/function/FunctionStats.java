@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bazaarvoice.jolt.modifier.function;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the Function on a single Modifier spec line, updated by its {@link FunctionEvaluator}.
+ *
+ * Stock functions report bad input by returning Optional.empty(), so "emptyResults" is the normal
+ *  way for a value to not be written; "exceptions" counts the times the function, or one of its
+ *  arguments, threw and the throw was swallowed, which is both a bug smell and the slow path.
+ */
+public class FunctionStats {
+
+    private final String functionName;
+    private final String expression;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder emptyResults = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+
+    /**
+     * @param functionName name the function was looked up by
+     * @param expression the spec's right hand side, i.e. "=toInteger(@(1,id))"
+     */
+    public FunctionStats( String functionName, String expression ) {
+        this.functionName = functionName;
+        this.expression = expression;
+    }
+
+    void recordEvaluation() {
+        evaluations.increment();
+    }
+
+    void recordEmptyResult() {
+        emptyResults.increment();
+    }
+
+    void recordException() {
+        exceptions.increment();
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    public long getEmptyResults() {
+        return emptyResults.sum();
+    }
+
+    public long getExceptions() {
+        return exceptions.sum();
+    }
+}
@@ -27,7 +27,7 @@ public class Lists {
     /**
      * Given a list, return the first element
      */
-    public static final class firstElement extends Function.ListFunction {
+    public static final class firstElement extends Function.ListFunction implements Function.PureFunction {
 
         @Override
         protected Optional applyList( final List argList ) {
@@ -40,7 +40,7 @@ public class Lists {
     /**
      * Given a list, return the last element
      */
-    public static final class lastElement extends Function.ListFunction {
+    public static final class lastElement extends Function.ListFunction implements Function.PureFunction {
 
         @Override
         protected Optional applyList( final List argList ) {
@@ -53,11 +53,11 @@ public class Lists {
     /**
      * Given an index at arg[0], and a list at arg[1] or args[1...N], return element at index of list or array
      */
-    public static final class elementAt extends Function.ArgDrivenListFunction<Integer> {
+    public static final class elementAt extends Function.ArgDrivenListFunction<Integer> implements Function.PureFunction {
 
         @Override
         protected Optional<Object> applyList( final Integer specialArg, final List<Object> args ) {
-            if ( specialArg != null && args != null && args.size() > specialArg ) {
+            if ( specialArg != null && specialArg >= 0 && args != null && args.size() > specialArg ) {
                 return Optional.of( args.get( specialArg ) );
             }
             return Optional.empty();
@@ -67,7 +67,7 @@ public class Lists {
     /**
      * Given an arbitrary number of arguments, return them as list
      */
-    public static final class toList extends Function.BaseFunction<List> {
+    public static final class toList extends Function.BaseFunction<List> implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List input ) {
             return Optional.<Object>of( input );
@@ -82,21 +82,45 @@ public class Lists {
     /**
      * Given an arbitrary list of items, returns a new array of them in sorted state
      */
-    public static final class sort extends Function.BaseFunction {
+    public static final class sort extends Function.BaseFunction implements Function.PureFunction {
 
         @Override
         protected Optional applyList( final List argList ) {
+            if ( ! isMutuallyComparable( argList ) ) {
+                return Optional.empty();
+            }
             try {
                 Object[] dest = argList.toArray();
                 Arrays.sort( dest );
                 return Optional.<Object>of( dest );
             }
-            // if any of the elements are not Comparable<?> it'll throw a ClassCastException
+            // a Comparable can still refuse a value of its own class
             catch(Exception ignored) {
                 return Optional.empty();
             }
         }
 
+        /**
+         * Arrays.sort() throws on nulls, and on elements that are not Comparable with each other, so check up front
+         *  rather than paying for the exception.  A single element is never compared, so anything goes.
+         */
+        private static boolean isMutuallyComparable( final List argList ) {
+            if ( argList.size() < 2 ) {
+                return true;
+            }
+            Object first = argList.get( 0 );
+            if ( ! ( first instanceof Comparable ) ) {
+                return false;
+            }
+            Class<?> firstClass = first.getClass();
+            for ( Object element : argList ) {
+                if ( element == null || element.getClass() != firstClass ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         @Override
         protected Optional applySingle( final Object arg ) {
             return Optional.of( arg );
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bazaarvoice.jolt.modifier.function;
+
+import com.bazaarvoice.jolt.common.Optional;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The context a Modifier hands its specs for a single transform, which remembers the values of
+ *  context lookups that do not depend on where in the input they are made, i.e. "^root.lookup.rates",
+ *  so that a lookup inside a "*" is only walked once per transform.
+ *
+ * A remembered value stays good until the Modifier writes into one of the Maps or Lists that was walked
+ *  to reach it, which can happen when the context shares data with the input, so the specs report their
+ *  writes through {@link #beforeWrite(Object)}.
+ */
+public final class LookupCachingContext extends HashMap<String, Object> {
+
+    private final Map<Object, Optional<Object>> lookups = new IdentityHashMap<>();
+    private final Set<Object> walkedContainers = Collections.newSetFromMap( new IdentityHashMap<Object, Boolean>() );
+
+    public LookupCachingContext( String rootKey, Map<String, Object> context ) {
+        put( rootKey, context );
+    }
+
+    /**
+     * @return the remembered value for the lookup, or null if there is none
+     */
+    Optional<Object> getLookup( Object lookup ) {
+        return lookups.get( lookup );
+    }
+
+    /**
+     * @param containers the Maps and Lists walked to reach the value, including the one it sits in
+     */
+    void putLookup( Object lookup, Optional<Object> value, List<Object> containers ) {
+        lookups.put( lookup, value );
+        walkedContainers.addAll( containers );
+    }
+
+    /**
+     * Forgets every remembered lookup if the Map or List about to be written into was walked by one of them.
+     */
+    public void beforeWrite( Object container ) {
+        if ( ! walkedContainers.isEmpty() && walkedContainers.contains( container ) ) {
+            lookups.clear();
+            walkedContainers.clear();
+        }
+    }
+}
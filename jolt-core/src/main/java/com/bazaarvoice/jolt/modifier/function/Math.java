@@ -39,12 +39,19 @@ public class Math {
             return Optional.empty();
         }
 
-        Integer maxInt = Integer.MIN_VALUE;
-        Double maxDouble = -(Double.MAX_VALUE);
-        Long maxLong = Long.MIN_VALUE;
+        // primitives, so that a long list of numbers does not box a new max at every step
+        int maxInt = Integer.MIN_VALUE;
+        double maxDouble = -(Double.MAX_VALUE);
+        long maxLong = Long.MIN_VALUE;
         boolean found = false;
 
         for(Object arg: args) {
+            if(arg instanceof String) {
+                Optional<?> optional = Objects.toNumber( arg );
+                if(optional.isPresent()) {
+                    arg = optional.get();
+                }
+            }
             if(arg instanceof Integer) {
                 maxInt = java.lang.Math.max( maxInt, (Integer) arg );
                 found = true;
@@ -57,36 +64,17 @@ public class Math {
                 maxLong = java.lang.Math.max(maxLong, (Long) arg);
                 found = true;
             }
-            else if(arg instanceof String) {
-                Optional<?> optional = Objects.toNumber( arg );
-                if(optional.isPresent()) {
-                    arg = optional.get();
-                    if(arg instanceof Integer) {
-                        maxInt = java.lang.Math.max( maxInt, (Integer) arg );
-                        found = true;
-                    }
-                    else if(arg instanceof Double) {
-                        maxDouble = java.lang.Math.max( maxDouble, (Double) arg );
-                        found = true;
-                    }
-                    else if(arg instanceof Long) {
-                        maxLong = java.lang.Math.max(maxLong, (Long) arg);
-                        found = true;
-                    }
-                }
-            }
         }
         if(!found) {
             return Optional.empty();
         }
 
-        // explicit getter method calls to avoid runtime autoboxing
-        // autoBoxing will cause it to return the different type
+        // separate returns rather than a ternary, which would widen every branch to the same type
         // check MathTest#testAutoBoxingIssue for example
-        if(maxInt.longValue() >= maxDouble.longValue() && maxInt.longValue() >= maxLong) {
+        if((long) maxInt >= (long) maxDouble && (long) maxInt >= maxLong) {
             return Optional.<Number>of(maxInt);
         }
-        else if(maxLong >= maxDouble.longValue()) {
+        else if(maxLong >= (long) maxDouble) {
             return Optional.<Number>of(maxLong);
         }
         else {
@@ -107,12 +95,18 @@ public class Math {
         if(args == null || args.size() == 0) {
             return Optional.empty();
         }
-        Integer minInt = Integer.MAX_VALUE;
-        Double minDouble = Double.MAX_VALUE;
-        Long minLong = Long.MAX_VALUE;
+        int minInt = Integer.MAX_VALUE;
+        double minDouble = Double.MAX_VALUE;
+        long minLong = Long.MAX_VALUE;
         boolean found = false;
 
         for(Object arg: args) {
+            if(arg instanceof String) {
+                Optional<?> optional = Objects.toNumber( arg );
+                if(optional.isPresent()) {
+                    arg = optional.get();
+                }
+            }
             if(arg instanceof Integer) {
                 minInt = java.lang.Math.min( minInt, (Integer) arg );
                 found = true;
@@ -125,33 +119,14 @@ public class Math {
                 minLong = java.lang.Math.min( minLong, (Long) arg );
                 found = true;
             }
-            else if(arg instanceof String) {
-                Optional<?> optional = Objects.toNumber( arg );
-                if(optional.isPresent()) {
-                    arg = optional.get();
-                    if(arg instanceof Integer) {
-                        minInt = java.lang.Math.min( minInt, (Integer) arg );
-                        found = true;
-                    }
-                    else if(arg instanceof Double) {
-                        minDouble = java.lang.Math.min( minDouble, (Double) arg );
-                        found = true;
-                    }
-                    else if(arg instanceof Long) {
-                        minLong = java.lang.Math.min(minLong, (Long) arg);
-                        found = true;
-                    }
-                }
-            }
         }
         if(!found) {
             return Optional.empty();
         }
-        // explicit getter method calls to avoid runtime autoboxing
-        if(minInt.longValue() <= minDouble.longValue() && minInt.longValue() <= minLong) {
+        if((long) minInt <= (long) minDouble && (long) minInt <= minLong) {
             return Optional.<Number>of(minInt);
         }
-        else if(minLong <= minDouble.longValue()) {
+        else if(minLong <= (long) minDouble) {
             return Optional.<Number>of(minLong);
         }
         else {
@@ -194,51 +169,115 @@ public class Math {
      * avg(2,"2","abc") == Optional.of(2.0)
      */
     public static Optional<Double> avg (List<Object> args) {
-        double sum = 0d;
+        // Integers and Longs are summed exactly in a long, and only other numbers need the compensated sum
+        long integralSum = 0L;
+        CompensatedSum sum = null;
         int count = 0;
         for(Object arg: args) {
-            Optional<? extends Number> numberOptional = Objects.toNumber( arg );
-            if(numberOptional.isPresent()) {
-                sum = sum + numberOptional.get().doubleValue();
+            // numbers are added as they are, only Strings need parsing
+            Object number = arg instanceof Number ? arg : Objects.toNumber( arg ).get();
+            if(number instanceof Integer || number instanceof Long) {
+                long value = ( (Number) number ).longValue();
+                long total = integralSum + value;
+                // on overflow, move what the long has so far over to the compensated sum
+                if ( ( ( integralSum ^ total ) & ( value ^ total ) ) < 0 ) {
+                    sum = sum == null ? new CompensatedSum() : sum;
+                    sum.add( integralSum );
+                    total = value;
+                }
+                integralSum = total;
+                count = count + 1;
+            }
+            else if(number != null) {
+                sum = sum == null ? new CompensatedSum() : sum;
+                sum.add( ( (Number) number ).doubleValue() );
                 count = count + 1;
             }
         }
-        return  count == 0 ? Optional.<Double>empty() : Optional.of( sum / count );
+        if ( count == 0 ) {
+            return Optional.empty();
+        }
+        if ( sum == null ) {
+            return Optional.of( (double) integralSum / count );
+        }
+        sum.add( integralSum );
+        return Optional.of( sum.get() / count );
     }
 
     public static Optional<Integer> intSum(List<Object> args) {
-        Integer sum = 0;
+        int sum = 0;
         for(Object arg: args) {
-            Optional<? extends Integer> numberOptional = Objects.toInteger(arg);
-            if(numberOptional.isPresent()) {
-                sum = sum + numberOptional.get();
+            if(arg instanceof Number) {
+                sum = sum + ( (Number) arg ).intValue();
+            }
+            else {
+                Optional<? extends Integer> numberOptional = Objects.toInteger(arg);
+                if(numberOptional.isPresent()) {
+                    sum = sum + numberOptional.get();
+                }
             }
         }
         return Optional.of(sum);
     }
 
     public static Optional<Double> doubleSum(List<Object> args) {
-        Double sum = 0.0;
+        CompensatedSum sum = new CompensatedSum();
         for(Object arg: args) {
-            Optional<? extends Double> numberOptional = Objects.toDouble(arg);
-            if(numberOptional.isPresent()) {
-                sum = sum + numberOptional.get();
+            if(arg instanceof Number) {
+                sum.add( ( (Number) arg ).doubleValue() );
+            }
+            else {
+                Optional<? extends Double> numberOptional = Objects.toDouble(arg);
+                if(numberOptional.isPresent()) {
+                    sum.add( numberOptional.get() );
+                }
             }
         }
-        return Optional.of(sum);
+        return Optional.of(sum.get());
     }
 
     public static Optional<Long> longSum(List<Object> args) {
-        Long sum = 0l;
+        long sum = 0L;
         for(Object arg: args) {
-            Optional<? extends Long> numberOptional = Objects.toLong(arg);
-            if(numberOptional.isPresent()) {
-                sum = sum + numberOptional.get();
+            if(arg instanceof Number) {
+                sum = sum + ( (Number) arg ).longValue();
+            }
+            else {
+                Optional<? extends Long> numberOptional = Objects.toLong(arg);
+                if(numberOptional.isPresent()) {
+                    sum = sum + numberOptional.get();
+                }
             }
         }
         return Optional.of(sum);
     }
 
+    /**
+     * Kahan-Babuska (Neumaier) summation: keeps the low order bits that each addition drops, and adds them back at the end,
+     *  so that i.e. summing [ 1e16, 1.0, -1e16 ] gives 1.0 rather than 0.0.
+     */
+    private static final class CompensatedSum {
+        private double sum;
+        private double compensation;
+
+        private void add( double value ) {
+            double total = sum + value;
+            if ( java.lang.Math.abs( sum ) >= java.lang.Math.abs( value ) ) {
+                compensation += ( sum - total ) + value;
+            }
+            else {
+                compensation += ( value - total ) + sum;
+            }
+            sum = total;
+        }
+
+        private double get() {
+            double total = sum + compensation;
+            // an infinite value makes the compensation NaN, while the plain sum is the right infinity
+            return Double.isNaN( total ) && ! Double.isNaN( sum ) ? sum : total;
+        }
+    }
+
     public static Optional<Integer> intSubtract(List<Object> argList) {
 
         if ( argList == null || argList.size() != 2 ) {
@@ -316,7 +355,8 @@ public class Math {
 
        Optional<Double> divideResult = divide(argList);
 
-       if(divideResult.isPresent()){
+       // BigDecimal can not hold NaN or Infinity, which "NaN" inputs and overflowing divisions produce
+       if(divideResult.isPresent() && Double.isFinite( divideResult.get() )){
            Double divResult = divideResult.get();
            BigDecimal bigDecimal = new BigDecimal(divResult).setScale(digitsAfterDecimalPoint, RoundingMode.HALF_UP);
            return Optional.of(bigDecimal.doubleValue());
@@ -326,7 +366,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class max extends Function.BaseFunction<Object> {
+    public static final class max extends Function.BaseFunction<Object> implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List argList ) {
             return (Optional) max( argList );
@@ -344,7 +384,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class min extends Function.BaseFunction<Object> {
+    public static final class min extends Function.BaseFunction<Object> implements Function.PureFunction {
 
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
@@ -363,7 +403,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class abs extends Function.SingleFunction<Number> {
+    public static final class abs extends Function.SingleFunction<Number> implements Function.PureFunction {
         @Override
         protected Optional<Number> applySingle( final Object arg ) {
             return abs( arg );
@@ -371,7 +411,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class divide extends Function.ListFunction {
+    public static final class divide extends Function.ListFunction implements Function.PureFunction {
 
         @Override
         protected Optional<Object> applyList(List<Object> argList) {
@@ -381,7 +421,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class divideAndRound extends Function.ArgDrivenListFunction<Integer> {
+    public static final class divideAndRound extends Function.ArgDrivenListFunction<Integer> implements Function.PureFunction {
 
 
         @Override
@@ -391,7 +431,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class avg extends Function.ListFunction {
+    public static final class avg extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
             return (Optional) avg( argList );
@@ -399,7 +439,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class intSum extends Function.ListFunction {
+    public static final class intSum extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argIntList ) {
             return (Optional) intSum(argIntList);
@@ -407,7 +447,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class doubleSum extends Function.ListFunction {
+    public static final class doubleSum extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argDoubleList ) {
             return (Optional) doubleSum(argDoubleList);
@@ -415,7 +455,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class longSum extends Function.ListFunction {
+    public static final class longSum extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argLongList ) {
             return (Optional) longSum(argLongList);
@@ -423,7 +463,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class intSubtract extends Function.ListFunction {
+    public static final class intSubtract extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argIntList ) {
             return (Optional) intSubtract(argIntList);
@@ -431,7 +471,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class doubleSubtract extends Function.ListFunction {
+    public static final class doubleSubtract extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argDoubleList ) {
             return (Optional) doubleSubtract(argDoubleList);
@@ -439,7 +479,7 @@ public class Math {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class longSubtract extends Function.ListFunction {
+    public static final class longSubtract extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argLongList ) {
             return (Optional) longSubtract(argLongList);
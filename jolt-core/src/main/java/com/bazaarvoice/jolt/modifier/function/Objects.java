@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Objects {
@@ -45,25 +46,164 @@ public class Objects {
             return Optional.of( ( (Number) arg ));
         }
         else if(arg instanceof String) {
-            try {
-                return Optional.of( (Number) Integer.parseInt( (String) arg ) );
+            String argString = (String) arg;
+            if ( isDecimalInRange( argString, Integer.MIN_VALUE, Integer.MAX_VALUE ) ) {
+                return Optional.of( (Number) Integer.parseInt( argString ) );
             }
-            catch(Exception ignored) {}
-            try {
-                return Optional.of( (Number) Long.parseLong( (String) arg ) );
+            if ( isDecimalInRange( argString, Long.MIN_VALUE, Long.MAX_VALUE ) ) {
+                return Optional.of( (Number) Long.parseLong( argString ) );
             }
-            catch(Exception ignored) {}
-            try {
-                return Optional.of( (Number) Double.parseDouble( (String) arg ) );
-            }
-            catch(Exception ignored) {}
-            return Optional.empty();
+            return parseDouble( argString );
         }
         else {
             return Optional.empty();
         }
     }
 
+    /**
+     * Same as Integer.parseInt(), except that a String that does not parse returns Optional.empty()
+     * rather than throwing, so that dirty data does not pay for a NumberFormatException per value.
+     */
+    public static Optional<Integer> parseInteger( String arg ) {
+        if ( isDecimalInRange( arg, Integer.MIN_VALUE, Integer.MAX_VALUE ) ) {
+            return Optional.of( Integer.parseInt( arg ) );
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Same as Long.parseLong(), except that a String that does not parse returns Optional.empty()
+     */
+    public static Optional<Long> parseLong( String arg ) {
+        if ( isDecimalInRange( arg, Long.MIN_VALUE, Long.MAX_VALUE ) ) {
+            return Optional.of( Long.parseLong( arg ) );
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Same as Double.parseDouble(), except that a String that does not parse returns Optional.empty()
+     */
+    public static Optional<Double> parseDouble( String arg ) {
+        if ( isJavaDouble( arg ) ) {
+            return Optional.of( Double.parseDouble( arg ) );
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks a String the same way Long.parseLong() does, digit by digit, without building the value.
+     */
+    private static boolean isDecimalInRange( String arg, long minValue, long maxValue ) {
+        if ( arg == null || arg.isEmpty() ) {
+            return false;
+        }
+        int index = 0;
+        // accumulate negatively, as Long.parseLong() does, so that minValue does not overflow
+        long limit = -maxValue;
+        char first = arg.charAt( 0 );
+        if ( first < '0' ) {
+            if ( first == '-' ) {
+                limit = minValue;
+            }
+            else if ( first != '+' ) {
+                return false;
+            }
+            if ( arg.length() == 1 ) {
+                return false;
+            }
+            index++;
+        }
+        long multiplyMin = limit / 10;
+        long result = 0;
+        while ( index < arg.length() ) {
+            int digit = Character.digit( arg.charAt( index++ ), 10 );
+            if ( digit < 0 || result < multiplyMin ) {
+                return false;
+            }
+            result *= 10;
+            if ( result < limit + digit ) {
+                return false;
+            }
+            result -= digit;
+        }
+        return true;
+    }
+
+    // the hexadecimal form from the Double.valueOf() javadoc, rare enough to leave to a regex
+    private static final Pattern HEX_DOUBLE = Pattern.compile(
+            "[+-]?0[xX](\\p{XDigit}+\\.?|\\p{XDigit}*\\.\\p{XDigit}+)[pP][+-]?\\p{Digit}+[fFdD]?" );
+
+    /**
+     * Checks a String against the grammar Double.parseDouble() accepts: surrounding whitespace, an optional sign,
+     *  then "NaN", "Infinity", a decimal with an optional exponent and type suffix, or a hexadecimal.
+     */
+    private static boolean isJavaDouble( String arg ) {
+        if ( arg == null ) {
+            return false;
+        }
+        String trimmed = arg.trim();
+        int length = trimmed.length();
+        int index = 0;
+        if ( index < length && ( trimmed.charAt( index ) == '+' || trimmed.charAt( index ) == '-' ) ) {
+            index++;
+        }
+        if ( index == length ) {
+            return false;
+        }
+        char first = trimmed.charAt( index );
+        if ( first == 'N' ) {
+            return trimmed.regionMatches( index, "NaN", 0, 3 ) && index + 3 == length;
+        }
+        if ( first == 'I' ) {
+            return trimmed.regionMatches( index, "Infinity", 0, 8 ) && index + 8 == length;
+        }
+        if ( first == '0' && index + 1 < length && ( trimmed.charAt( index + 1 ) == 'x' || trimmed.charAt( index + 1 ) == 'X' ) ) {
+            return HEX_DOUBLE.matcher( trimmed ).matches();
+        }
+
+        int digits = 0;
+        while ( index < length && isAsciiDigit( trimmed.charAt( index ) ) ) {
+            index++;
+            digits++;
+        }
+        if ( index < length && trimmed.charAt( index ) == '.' ) {
+            index++;
+            while ( index < length && isAsciiDigit( trimmed.charAt( index ) ) ) {
+                index++;
+                digits++;
+            }
+        }
+        if ( digits == 0 ) {
+            return false;
+        }
+        if ( index < length && ( trimmed.charAt( index ) == 'e' || trimmed.charAt( index ) == 'E' ) ) {
+            index++;
+            if ( index < length && ( trimmed.charAt( index ) == '+' || trimmed.charAt( index ) == '-' ) ) {
+                index++;
+            }
+            int exponentDigits = 0;
+            while ( index < length && isAsciiDigit( trimmed.charAt( index ) ) ) {
+                index++;
+                exponentDigits++;
+            }
+            if ( exponentDigits == 0 ) {
+                return false;
+            }
+        }
+        if ( index < length ) {
+            char suffix = trimmed.charAt( index );
+            if ( suffix == 'f' || suffix == 'F' || suffix == 'd' || suffix == 'D' ) {
+                index++;
+            }
+        }
+        return index == length;
+    }
+
+    private static boolean isAsciiDigit( char c ) {
+        return c >= '0' && c <= '9';
+    }
+
     /**
      * Returns int value of argument, if possible, wrapped in Optional
      * Interprets String as Number
@@ -229,35 +369,35 @@ public class Objects {
         return Optional.of(input);
     }
 
-    public static final class toInteger extends Function.SingleFunction<Integer> {
+    public static final class toInteger extends Function.SingleFunction<Integer> implements Function.PureFunction {
         @Override
         protected Optional<Integer> applySingle( final Object arg ) {
             return toInteger( arg );
         }
     }
 
-    public static final class toLong extends Function.SingleFunction<Long> {
+    public static final class toLong extends Function.SingleFunction<Long> implements Function.PureFunction {
         @Override
         protected Optional<Long> applySingle( final Object arg ) {
             return toLong( arg );
         }
     }
 
-    public static final class toDouble extends Function.SingleFunction<Double> {
+    public static final class toDouble extends Function.SingleFunction<Double> implements Function.PureFunction {
         @Override
         protected Optional<Double> applySingle( final Object arg ) {
             return toDouble( arg );
         }
     }
 
-    public static final class toBoolean extends Function.SingleFunction<Boolean> {
+    public static final class toBoolean extends Function.SingleFunction<Boolean> implements Function.PureFunction {
         @Override
         protected Optional<Boolean> applySingle( final Object arg ) {
             return toBoolean( arg );
         }
     }
 
-    public static final class toString extends Function.SingleFunction<String> {
+    public static final class toString extends Function.SingleFunction<String> implements Function.PureFunction {
         @Override
         protected Optional<String> applySingle( final Object arg ) {
             return Objects.toString( arg );
@@ -280,7 +420,7 @@ public class Objects {
         }
     }
 
-    public static final class squashDuplicates extends Function.SquashFunction<Object> {
+    public static final class squashDuplicates extends Function.SquashFunction<Object> implements Function.PureFunction {
         @Override
         protected Optional<Object> applySingle( final Object arg ) {
             return Objects.squashDuplicates( arg );
@@ -290,7 +430,7 @@ public class Objects {
     /**
      * Size is a special snowflake and needs specific care
      */
-    public static final class size implements Function {
+    public static final class size implements Function.PureFunction {
 
         @Override
         public Optional<Object> apply(Object... args) {
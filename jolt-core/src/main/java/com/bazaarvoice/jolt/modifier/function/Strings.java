@@ -19,11 +19,13 @@ import com.bazaarvoice.jolt.common.Optional;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @SuppressWarnings( "deprecated" )
 public class Strings {
 
-    public static final class toLowerCase extends Function.SingleFunction<String> {
+    public static final class toLowerCase extends Function.SingleFunction<String> implements Function.PureFunction {
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -37,7 +39,7 @@ public class Strings {
         }
     }
 
-    public static final class toUpperCase extends Function.SingleFunction<String> {
+    public static final class toUpperCase extends Function.SingleFunction<String> implements Function.PureFunction {
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -51,7 +53,7 @@ public class Strings {
         }
     }
 
-    public static final class trim extends Function.SingleFunction<String> {
+    public static final class trim extends Function.SingleFunction<String> implements Function.PureFunction {
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -65,7 +67,7 @@ public class Strings {
         }
     }
 
-    public static final class concat extends Function.ListFunction {
+    public static final class concat extends Function.ListFunction implements Function.PureFunction {
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
             StringBuilder sb = new StringBuilder(  );
@@ -78,7 +80,7 @@ public class Strings {
         }
     }
 
-    public static final class substring extends Function.ListFunction {
+    public static final class substring extends Function.ListFunction implements Function.PureFunction {
 
         @Override
         protected Optional<Object> applyList(List<Object> argList) {
@@ -119,7 +121,7 @@ public class Strings {
     }
 
     @SuppressWarnings( "unchecked" )
-    public static final class join extends Function.ArgDrivenListFunction<String> {
+    public static final class join extends Function.ArgDrivenListFunction<String> implements Function.PureFunction {
 
         @Override
         protected Optional<Object> applyList( final String specialArg, final List<Object> args ) {
@@ -140,7 +142,35 @@ public class Strings {
         }
     }
 
-    public static final class split extends Function.ArgDrivenSingleFunction<String, List> {
+    public static final class split extends Function.ArgDrivenSingleFunction<String, List> implements Function.PureFunction, Function.SpecializableFunction {
+
+      // the separator compiled up front, when it is a literal in the spec, otherwise null
+      private final Pattern separatorPattern;
+
+      public split() {
+        this( null );
+      }
+
+      private split( Pattern separatorPattern ) {
+        this.separatorPattern = separatorPattern;
+      }
+
+      @Override
+      public Function specialize( List<Optional<Object>> specArgs ) {
+        if ( specArgs.size() >= 2 && specArgs.get( 0 ).get() instanceof String ) {
+          String separator = (String) specArgs.get( 0 ).get();
+          // String.split() does not bother with a regex for a single plain character
+          if ( separator.length() != 1 || REGEX_META_CHARACTERS.indexOf( separator.charAt( 0 ) ) >= 0 ) {
+            try {
+              return new split( Pattern.compile( separator ) );
+            }
+            // leave a bad separator to fail per input, where it shows up in the FunctionStats
+            catch ( PatternSyntaxException ignored ) {}
+          }
+        }
+        return this;
+      }
+
       @Override
       protected Optional<List> applySingle(final String separator, final Object source) {
         if (source == null || separator == null) {
@@ -149,6 +179,9 @@ public class Strings {
         else if ( source instanceof String ) {
           // only try to split input strings
           String inputString = (String) source;
+          if ( separatorPattern != null && separatorPattern.pattern().equals( separator ) ) {
+            return Optional.of( Arrays.asList( separatorPattern.split( inputString ) ) );
+          }
           return Optional.of( Arrays.asList(inputString.split(separator)) );
         }
         else {
@@ -157,23 +190,105 @@ public class Strings {
       }
     }
 
+    private static final String REGEX_META_CHARACTERS = ".$|()[{^?*+\\";
+
+    public static final class leftPad extends Function.ArgDrivenListFunction<String> implements Function.PureFunction, Function.SpecializableFunction {
+
+        // the filler repeated to the full width, when both are literals in the spec, otherwise null
+        private final String padding;
+
+        public leftPad() {
+            this( null );
+        }
+
+        private leftPad( String padding ) {
+            this.padding = padding;
+        }
+
+        @Override
+        public Function specialize( List<Optional<Object>> specArgs ) {
+            String specPadding = buildPadding( specArgs );
+            return specPadding == null ? this : new leftPad( specPadding );
+        }
 
-    public static final class leftPad extends Function.ArgDrivenListFunction<String> {
         @Override
         protected Optional<Object> applyList(String source, List<Object> args) {
 
+            if ( padding != null ) {
+                return padString( true, source, padding );
+            }
             return padString( true, source, args );
         }
     }
 
-    public static final class rightPad extends Function.ArgDrivenListFunction<String> {
+    public static final class rightPad extends Function.ArgDrivenListFunction<String> implements Function.PureFunction, Function.SpecializableFunction {
+
+        // the filler repeated to the full width, when both are literals in the spec, otherwise null
+        private final String padding;
+
+        public rightPad() {
+            this( null );
+        }
+
+        private rightPad( String padding ) {
+            this.padding = padding;
+        }
+
+        @Override
+        public Function specialize( List<Optional<Object>> specArgs ) {
+            String specPadding = buildPadding( specArgs );
+            return specPadding == null ? this : new rightPad( specPadding );
+        }
+
         @Override
         protected Optional<Object> applyList(String source, List<Object> args) {
 
+            if ( padding != null ) {
+                return padString( false, source, padding );
+            }
             return padString( false, source, args );
         }
     }
 
+    /**
+     * For "=leftPad(@(1,value), 10, 'X')", builds "XXXXXXXXXX" once, if the width and filler are ones padString() accepts
+     */
+    private static String buildPadding( List<Optional<Object>> specArgs ) {
+        if ( specArgs.size() != 3 || ! specArgs.get( 1 ).isPresent() || ! specArgs.get( 2 ).isPresent() ) {
+            return null;
+        }
+        Object width = specArgs.get( 1 ).get();
+        Object filler = specArgs.get( 2 ).get();
+        if ( ! ( width instanceof Integer && filler instanceof String ) ) {
+            return null;
+        }
+        if ( (Integer) width <= 0 || (Integer) width > 500 || ( (String) filler ).length() != 1 ) {
+            return null;
+        }
+        char[] padArray = new char[(Integer) width];
+        Arrays.fill( padArray, ( (String) filler ).charAt( 0 ) );
+        return new String( padArray );
+    }
+
+    private static Optional<Object> padString( boolean leftPad, String source, String padding ) {
+
+        if( padding.length() <= source.length() ) {
+            return Optional.of( source );
+        }
+
+        int padLength = padding.length() - source.length();
+        StringBuilder sb = new StringBuilder( padding.length() );
+
+        if ( leftPad ) {
+            sb.append( padding, 0, padLength ).append( source );
+        }
+        else {
+            sb.append( source ).append( padding, 0, padLength );
+        }
+
+        return Optional.of( sb.toString() );
+    }
+
     private static Optional<Object> padString( boolean leftPad, String source, List<Object> args ) {
 
         // There is only one path that leads to success and many
@@ -181,7 +296,7 @@ public class Strings {
         //  to make the bailing easy.
         do {
 
-            if(source == null || args == null ) {
+            if(source == null || args == null || args.size() < 2 ) {
                 break;
             }
 
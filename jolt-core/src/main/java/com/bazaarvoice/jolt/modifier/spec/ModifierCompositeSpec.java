@@ -17,7 +17,9 @@
 package com.bazaarvoice.jolt.modifier.spec;
 
 import com.bazaarvoice.jolt.common.ComputedKeysComparator;
+import com.bazaarvoice.jolt.common.ComputedKeysMatcher;
 import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.LiteralChildrenIndex;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
 import com.bazaarvoice.jolt.common.pathelement.LiteralPathElement;
@@ -63,6 +65,8 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
 
     private final Map<String, ModifierSpec> literalChildren;
     private final List<ModifierSpec> computedChildren;
+    private final LiteralChildrenIndex literalChildrenIndex;
+    private final ComputedKeysMatcher computedKeysMatcher;
     private final ExecutionStrategy executionStrategy;
     private final DataType specDataType;
 
@@ -131,7 +135,10 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
         computed.trimToSize();
 
         literalChildren = Collections.unmodifiableMap( literals );
+
+        literalChildrenIndex = new LiteralChildrenIndex( literalChildren );
         computedChildren = Collections.unmodifiableList( computed );
+        computedKeysMatcher = new ComputedKeysMatcher( computedChildren );
 
         // extract generic execution strategy
         executionStrategy = determineExecutionStrategy();
@@ -150,6 +157,7 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
 
         // create input if it is null
         if( input == null ) {
+            beforeWrite( context, walkedPath.lastElement().getTreeRef() );
             input = specDataType.create( inputKey, walkedPath, opMode );
             // if input has changed, wrap
             if ( input != null ) {
@@ -161,6 +169,7 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
         if(input instanceof List) {
             // LIST means spec had array index explicitly specified, hence expand if needed
             if( specDataType instanceof DataType.LIST ) {
+                beforeWrite( context, input );
                 int origSize = specDataType.expand( input );
                 thisLevel = new ArrayMatchedElement( thisLevel.getRawKey(), origSize );
             }
@@ -183,11 +192,21 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
         return literalChildren;
     }
 
+    @Override
+    public LiteralChildrenIndex getLiteralChildrenIndex() {
+        return literalChildrenIndex;
+    }
+
     @Override
     public List<? extends BaseSpec> getComputedChildren() {
         return computedChildren;
     }
 
+    @Override
+    public ComputedKeysMatcher getComputedKeysMatcher() {
+        return computedKeysMatcher;
+    }
+
     @Override
     public ExecutionStrategy determineExecutionStrategy() {
 
@@ -25,7 +25,10 @@ import com.bazaarvoice.jolt.modifier.TemplatrSpecBuilder;
 import com.bazaarvoice.jolt.modifier.function.Function;
 import com.bazaarvoice.jolt.modifier.function.FunctionArg;
 import com.bazaarvoice.jolt.modifier.function.FunctionEvaluator;
+import com.bazaarvoice.jolt.modifier.function.FunctionStats;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -34,18 +37,20 @@ import java.util.Map;
 public class ModifierLeafSpec extends ModifierSpec {
 
     private final List<FunctionEvaluator> functionEvaluatorList;
+    private final List<FunctionStats> functionStatsList;
 
     @SuppressWarnings( "unchecked" )
     public ModifierLeafSpec( final String rawJsonKey, Object rhsObj, final OpMode opMode, final Map<String, Function> functionsMap ) {
         super(rawJsonKey, opMode);
         functionEvaluatorList = new LinkedList<>(  );
+        functionStatsList = new ArrayList<>( 1 );
 
         FunctionEvaluator functionEvaluator;
 
         // "key": "expression1"
         if ( (rhsObj instanceof String) ) {
             functionEvaluator = buildFunctionEvaluator( (String) rhsObj, functionsMap );
-            functionEvaluatorList.add( functionEvaluator );
+            addFunctionEvaluator( functionEvaluator );
         }
         // "key": ["expression1", "expression2", "expression3"]
         else if(rhsObj instanceof List && ((List)rhsObj).size() > 0) {
@@ -53,7 +58,7 @@ public class ModifierLeafSpec extends ModifierSpec {
             for(Object rhs: rhsList) {
                 if(rhs instanceof String) {
                     functionEvaluator = buildFunctionEvaluator( rhs.toString(), functionsMap );
-                    functionEvaluatorList.add( functionEvaluator );
+                    addFunctionEvaluator( functionEvaluator );
                 }
                 else {
                     functionEvaluator = FunctionEvaluator.forArgEvaluation( FunctionArg.forLiteral( rhs, false ) );
@@ -68,6 +73,18 @@ public class ModifierLeafSpec extends ModifierSpec {
         }
     }
 
+    private void addFunctionEvaluator( FunctionEvaluator functionEvaluator ) {
+        functionEvaluatorList.add( functionEvaluator );
+        functionEvaluator.collectStats( functionStatsList );
+    }
+
+    /**
+     * @return counters for each function this spec line calls, in the order they are tried, each followed by the ones nested in it
+     */
+    public List<FunctionStats> getFunctionStats() {
+        return Collections.unmodifiableList( functionStatsList );
+    }
+
     @Override
     public void applyElement( final String inputKey, final Optional<Object> inputOptional, final MatchedElement thisLevel, final WalkedPath walkedPath, final Map<String, Object> context ) {
 
@@ -78,6 +95,7 @@ public class ModifierLeafSpec extends ModifierSpec {
         Optional<Object> valueOptional = getFirstAvailable( functionEvaluatorList, inputOptional, walkedPath, context );
 
         if(valueOptional.isPresent()) {
+            beforeWrite( context, parent );
             setData( parent, thisLevel, valueOptional.get(), opMode );
         }
 
@@ -88,14 +106,14 @@ public class ModifierLeafSpec extends ModifierSpec {
         final FunctionEvaluator functionEvaluator;
         // "key": "@0" --- evaluate expression then set
         if(!rhs.startsWith( TemplatrSpecBuilder.FUNCTION )) {
-            return FunctionEvaluator.forArgEvaluation( constructSingleArg( rhs, false ) );
+            return FunctionEvaluator.forArgEvaluation( constructSingleArg( rhs, false, functionsMap ) );
         }
         else {
             String functionName;
             // "key": "=abs" --- call function with current value then set output if present
             if ( !rhs.contains( "(" ) && !rhs.endsWith( ")" ) ) {
                 functionName = rhs.substring( TemplatrSpecBuilder.FUNCTION.length() );
-                return FunctionEvaluator.forFunctionEvaluation( functionsMap.get( functionName ) );
+                return FunctionEvaluator.forFunctionEvaluation( functionsMap.get( functionName ), new FunctionStats( functionName, rhs ) );
             }
             // "key": "=abs(@(1,&0))" --- evaluate expression then call function with
             //                            expression-output, then set output if present
@@ -103,12 +121,50 @@ public class ModifierLeafSpec extends ModifierSpec {
                 String fnString = rhs.substring( TemplatrSpecBuilder.FUNCTION.length() );
                 List<String> fnArgs = SpecStringParser.parseFunctionArgs( fnString );
                 functionName = fnArgs.remove( 0 );
-                functionEvaluator = FunctionEvaluator.forFunctionEvaluation( functionsMap.get( functionName ), constructArgs( fnArgs ) );
+                functionEvaluator = compileFunctionEvaluator( functionsMap.get( functionName ), new FunctionStats( functionName, rhs ), constructArgs( fnArgs, functionsMap ) );
             }
         }
         return functionEvaluator;
     }
 
+    /**
+     * Does what it can of a function call while building the spec, rather than once per input:
+     *  a PureFunction whose arguments are all literals is called once, and its result written as is,
+     *  otherwise a SpecializableFunction gets to precompute what it can from its literal arguments.
+     */
+    private static FunctionEvaluator compileFunctionEvaluator( Function function, FunctionStats stats, FunctionArg[] args ) {
+
+        List<Optional<Object>> specArgs = new ArrayList<>( args.length );
+        boolean allLiterals = args.length > 0;
+        for ( FunctionArg arg : args ) {
+            Optional<Object> literal = arg.getLiteral();
+            specArgs.add( literal );
+            allLiterals &= literal.isPresent();
+        }
+
+        if ( allLiterals && function instanceof Function.PureFunction ) {
+            // a throwaway stats, to tell a call that threw, which stays put so it keeps showing up in the stats, from an empty result
+            FunctionStats foldingStats = new FunctionStats( stats.getFunctionName(), stats.getExpression() );
+            Optional<Object> result = FunctionEvaluator.forFunctionEvaluation( function, foldingStats, args ).evaluate( Optional.empty(), new WalkedPath(), null );
+            if ( foldingStats.getExceptions() == 0 && isImmutable( result ) ) {
+                return FunctionEvaluator.forConstant( result, stats );
+            }
+        }
+
+        if ( function instanceof Function.SpecializableFunction ) {
+            function = ( (Function.SpecializableFunction) function ).specialize( specArgs );
+        }
+        return FunctionEvaluator.forFunctionEvaluation( function, stats, args );
+    }
+
+    /**
+     * A folded result is written into every output, so it can not be a List or Map that one of them might change
+     */
+    private static boolean isImmutable( Optional<Object> result ) {
+        Object value = result.get();
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean;
+    }
+
     private static Optional<Object> getFirstAvailable(List<FunctionEvaluator> functionEvaluatorList, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> context) {
         Optional<Object> valueOptional = Optional.empty();
         for(FunctionEvaluator functionEvaluator: functionEvaluatorList) {
@@ -123,24 +179,36 @@ public class ModifierLeafSpec extends ModifierSpec {
         return valueOptional;
     }
 
-    private static FunctionArg[] constructArgs( List<String> argsList ) {
+    private static FunctionArg[] constructArgs( List<String> argsList, Map<String, Function> functionsMap ) {
         FunctionArg[] argsArray = new FunctionArg[argsList.size()];
         for(int i=0; i<argsList.size(); i++) {
             String arg = argsList.get( i );
-            argsArray[i] = constructSingleArg( arg, true );
+            argsArray[i] = constructSingleArg( arg, true, functionsMap );
         }
         return argsArray;
     }
 
-    private static FunctionArg constructSingleArg( String arg, boolean forFunction ) {
+    private static FunctionArg constructSingleArg( String arg, boolean forFunction, Map<String, Function> functionsMap ) {
         if(arg.startsWith( TemplatrSpecBuilder.CARET )) {
             return FunctionArg.forContext( TRAVERSAL_BUILDER.build( arg.substring( 1 ) ) );
         }
         else if(arg.startsWith( TemplatrSpecBuilder.AT )) {
             return FunctionArg.forSelf( TRAVERSAL_BUILDER.build( arg ) );
         }
+        // "key": "=toUpper(=trim(@(1,name)))" --- the nested call's output is the arg, no need for another
+        //                                          key or Modifier stage in between
+        else if(forFunction && isFunctionCall( arg )) {
+            return FunctionArg.forFunction( buildFunctionEvaluator( arg, functionsMap ) );
+        }
         else {
             return FunctionArg.forLiteral( arg, forFunction );
         }
     }
+
+    // "=trim" or "=trim(...)", but not a lone "=" or "==", which stay literals as they always were
+    private static boolean isFunctionCall( String arg ) {
+        return arg.startsWith( TemplatrSpecBuilder.FUNCTION ) &&
+                arg.length() > TemplatrSpecBuilder.FUNCTION.length() &&
+                Character.isJavaIdentifierStart( arg.charAt( TemplatrSpecBuilder.FUNCTION.length() ) );
+    }
 }
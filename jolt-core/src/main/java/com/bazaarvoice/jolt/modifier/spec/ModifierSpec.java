@@ -31,6 +31,7 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
 import com.bazaarvoice.jolt.modifier.OpMode;
+import com.bazaarvoice.jolt.modifier.function.LookupCachingContext;
 
 import java.util.List;
 import java.util.Map;
@@ -116,6 +117,18 @@ public abstract class ModifierSpec implements BaseSpec {
      */
     protected abstract void applyElement( final String key, final Optional<Object> inputOptional, final MatchedElement thisLevel, final WalkedPath walkedPath, final Map<String, Object> context );
 
+    /**
+     * Lets the transform's context forget lookups that walked through the Map or List about to be written into
+     *
+     * @param context the context passed to applyElement
+     * @param container the Map or List about to be written into
+     */
+    protected static void beforeWrite( Map<String, Object> context, Object container ) {
+        if ( context instanceof LookupCachingContext ) {
+            ( (LookupCachingContext) context ).beforeWrite( container );
+        }
+    }
+
     /**
      * Static utility method for facilitating writes on input object
      *
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.shiftr;
+
+import com.bazaarvoice.jolt.common.PathEvaluatingTraversal;
+import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
+import com.bazaarvoice.jolt.common.pathelement.DollarPathElement;
+import com.bazaarvoice.jolt.common.pathelement.HashPathElement;
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.PathElement;
+import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrLeafSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out, from a Shiftr spec alone, which parts of an input the spec can read.
+ *
+ * The read paths are returned as a JSON tree of Maps, where
+ *  - a key is a Map key, or a List index as a String, that is read
+ *  - the key "*" stands for every key and index, on top of any named ones
+ *  - true means the whole value there is read, and an empty Map means only that the value has to exist
+ * The json-utils ReadPathFilter turns this into a Jackson TokenFilter, so a parser can skip everything else.
+ *
+ * The spec tree is walked the way Shiftr walks the input, keeping a stack of read path nodes
+ *  that stands in for the WalkedPath.
+ *  - literal keys become named children, and "*" and "&" keys become the "any" child
+ *  - leaf specs read the whole value they match, as it gets copied to the output
+ *  - "@" reads the whole value of its level, and "$" and "#" only need their level to exist
+ *  - transposes, "@(2,id)" on either side of a leaf or as a composite key, can read anything below the
+ *    level they point up to, so that whole level is read
+ *
+ * The result is conservative, and falls back to reading the whole input, aka just true, when a spec
+ *  has something like "@(1,x)" at the top level.
+ */
+public final class ShiftrReadSet {
+
+    private ShiftrReadSet() {}
+
+    public static final String ANY_KEY = "*";
+
+    /**
+     * @param rootSpec the root of a Shiftr spec
+     * @return the paths of an input that rootSpec can read, either a Map or Boolean.TRUE
+     */
+    public static Object of( ShiftrCompositeSpec rootSpec ) {
+
+        ReadNode root = new ReadNode();
+
+        // Shiftr starts its WalkedPath with the input, before the root spec adds itself
+        List<ReadNode> walkedPath = new ArrayList<>();
+        walkedPath.add( root );
+
+        addSpec( rootSpec, root, walkedPath );
+        return root.toJson();
+    }
+
+    private static final class ReadNode {
+
+        private final Map<String, ReadNode> children = new LinkedHashMap<>();
+        private ReadNode anyChild;
+        private boolean readsAll;
+
+        private ReadNode child( String key ) {
+            // a literal "*" key, aka "\\*" in the spec, can not be told apart from the any child in the
+            //  read paths, so it reads what the any child reads, which covers the "*" key anyway
+            if ( ANY_KEY.equals( key ) ) {
+                return anyChild();
+            }
+            ReadNode child = children.get( key );
+            if ( child == null ) {
+                child = new ReadNode();
+                children.put( key, child );
+            }
+            return child;
+        }
+
+        private ReadNode anyChild() {
+            if ( anyChild == null ) {
+                anyChild = new ReadNode();
+            }
+            return anyChild;
+        }
+
+        private void readAll() {
+            readsAll = true;
+        }
+
+        private Object toJson() {
+            if ( readsAll ) {
+                return Boolean.TRUE;
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            for ( Map.Entry<String, ReadNode> entry : children.entrySet() ) {
+                json.put( entry.getKey(), entry.getValue().toJson() );
+            }
+            if ( anyChild != null ) {
+                json.put( ANY_KEY, anyChild.toJson() );
+            }
+            return json;
+        }
+    }
+
+    /**
+     * @param node where the input handed to spec.apply is in the input document
+     */
+    private static void addSpec( ShiftrSpec spec, ReadNode node, List<ReadNode> walkedPath ) {
+
+        MatchablePathElement pathElement = spec.getPathElement();
+
+        if ( spec instanceof ShiftrCompositeSpec ) {
+            if ( pathElement instanceof TransposePathElement ) {
+                // the children work on whatever the transpose finds, which is inside the level it reads
+                readLevel( ( (TransposePathElement) pathElement ).getUpLevel(), walkedPath );
+                node = new ReadNode();
+            }
+            addComposite( (ShiftrCompositeSpec) spec, node, walkedPath );
+            return;
+        }
+
+        if ( pathElement instanceof TransposePathElement ) {
+            readLevel( ( (TransposePathElement) pathElement ).getUpLevel(), walkedPath );
+        }
+        else if ( ! ( pathElement instanceof DollarPathElement || pathElement instanceof HashPathElement ) ) {
+            // "@" and real children write out the whole input
+            node.readAll();
+        }
+
+        walkedPath.add( node );
+        for ( PathEvaluatingTraversal writer : ( (ShiftrLeafSpec) spec ).getShiftrWriters() ) {
+            for ( int index = 0; index < writer.size(); index++ ) {
+                addWritePathElement( writer.get( index ), walkedPath );
+            }
+        }
+        walkedPath.remove( walkedPath.size() - 1 );
+    }
+
+    private static void addComposite( ShiftrCompositeSpec spec, ReadNode node, List<ReadNode> walkedPath ) {
+
+        walkedPath.add( node );
+
+        // special children are handed the same input as this spec
+        for ( ShiftrSpec special : spec.getSpecialChildren() ) {
+            addSpec( special, node, walkedPath );
+        }
+        for ( Map.Entry<String, ShiftrSpec> literal : spec.getLiteralChildren().entrySet() ) {
+            addSpec( literal.getValue(), node.child( literal.getKey() ), walkedPath );
+        }
+        for ( ShiftrSpec computed : spec.getComputedChildren() ) {
+            addSpec( computed, node.anyChild(), walkedPath );
+        }
+
+        walkedPath.remove( walkedPath.size() - 1 );
+    }
+
+    private static void addWritePathElement( PathElement pathElement, List<ReadNode> walkedPath ) {
+        if ( pathElement instanceof TransposePathElement ) {
+            readLevel( ( (TransposePathElement) pathElement ).getUpLevel(), walkedPath );
+        }
+        else if ( pathElement instanceof ArrayPathElement ) {
+            TransposePathElement transpose = ( (ArrayPathElement) pathElement ).getTransposePathElement();
+            if ( transpose != null ) {
+                readLevel( transpose.getUpLevel(), walkedPath );
+            }
+        }
+    }
+
+    /**
+     * Mark everything below a level of the walk as read, going no higher than the input itself.
+     */
+    private static void readLevel( int upLevel, List<ReadNode> walkedPath ) {
+        int index = Math.max( 0, walkedPath.size() - 1 - upLevel );
+        walkedPath.get( index ).readAll();
+    }
+}
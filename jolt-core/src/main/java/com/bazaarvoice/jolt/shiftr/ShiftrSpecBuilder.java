@@ -16,6 +16,7 @@
 
 package com.bazaarvoice.jolt.shiftr;
 
+import com.bazaarvoice.jolt.common.ComputedKeysMatcher;
 import com.bazaarvoice.jolt.common.spec.SpecBuilder;
 import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
 import com.bazaarvoice.jolt.shiftr.spec.ShiftrLeafSpec;
@@ -24,11 +25,25 @@ import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
 import java.util.Map;
 
 public class ShiftrSpecBuilder extends SpecBuilder<ShiftrSpec> {
+
+    private final int dispatchCacheSize;
+
+    public ShiftrSpecBuilder() {
+        this( ComputedKeysMatcher.DEFAULT_DISPATCH_CACHE_SIZE );
+    }
+
+    /**
+     * @param dispatchCacheSize dispatch cache size for the ComputedKeysMatchers of the composite specs built
+     */
+    public ShiftrSpecBuilder( int dispatchCacheSize ) {
+        this.dispatchCacheSize = dispatchCacheSize;
+    }
+
     @SuppressWarnings( "unchecked" )
     @Override
     public ShiftrSpec createSpec( final String keyString, final Object rawRhs ) {
         if( rawRhs instanceof Map ) {
-            return new ShiftrCompositeSpec(keyString, (Map<String, Object>) rawRhs );
+            return new ShiftrCompositeSpec(keyString, (Map<String, Object>) rawRhs, dispatchCacheSize );
         }
         else {
             return new ShiftrLeafSpec(keyString, rawRhs );
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.shiftr;
+
+import com.bazaarvoice.jolt.common.PathEvaluatingTraversal;
+import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
+import com.bazaarvoice.jolt.common.pathelement.AtPathElement;
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.PathElement;
+import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrLeafSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks whether a Shiftr spec can be run over a stream of input events, rather than over a fully
+ *  built input tree.
+ *
+ * Literal, "*", "&", "$" and "#" keys only look at the input key they match and the value under it, so a
+ *  streaming Shiftr only has to build the values that leaf specs write out.
+ * Two things need more of the input than that, and make a spec not streamable
+ *  - "@" keys, which write out the whole of the value they are in
+ *  - transposes, "@(1,id)" on either side of a spec, which can read anything above them in the input
+ */
+public final class ShiftrStreamability {
+
+    private ShiftrStreamability() {}
+
+    /**
+     * @return true if the spec has no keys or write paths that need the input tree
+     */
+    public static boolean isStreamable( ShiftrCompositeSpec rootSpec ) {
+        return findUnstreamableKeys( rootSpec ).isEmpty();
+    }
+
+    /**
+     * @return the spec keys and write paths that need the input tree, in spec order, empty if the spec is streamable
+     */
+    public static List<String> findUnstreamableKeys( ShiftrCompositeSpec rootSpec ) {
+        List<String> keys = new ArrayList<>();
+        addComposite( rootSpec, keys );
+        return keys;
+    }
+
+    private static void addComposite( ShiftrCompositeSpec spec, List<String> keys ) {
+        for ( ShiftrSpec special : spec.getSpecialChildren() ) {
+            addSpec( special, keys );
+        }
+        for ( ShiftrSpec literal : spec.getLiteralChildren().values() ) {
+            addSpec( literal, keys );
+        }
+        for ( ShiftrSpec computed : spec.getComputedChildren() ) {
+            addSpec( computed, keys );
+        }
+    }
+
+    private static void addSpec( ShiftrSpec spec, List<String> keys ) {
+
+        MatchablePathElement pathElement = spec.getPathElement();
+        if ( pathElement instanceof AtPathElement || pathElement instanceof TransposePathElement ) {
+            keys.add( pathElement.getRawKey() );
+        }
+
+        if ( spec instanceof ShiftrCompositeSpec ) {
+            addComposite( (ShiftrCompositeSpec) spec, keys );
+            return;
+        }
+
+        for ( PathEvaluatingTraversal writer : ( (ShiftrLeafSpec) spec ).getShiftrWriters() ) {
+            for ( int index = 0; index < writer.size(); index++ ) {
+                if ( readsTheInputTree( writer.get( index ) ) ) {
+                    keys.add( writer.getCanonicalForm() );
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean readsTheInputTree( PathElement pathElement ) {
+        return pathElement instanceof TransposePathElement ||
+               ( pathElement instanceof ArrayPathElement && ( (ArrayPathElement) pathElement ).getTransposePathElement() != null );
+    }
+}
@@ -16,22 +16,250 @@
 package com.bazaarvoice.jolt.shiftr;
 
 import com.bazaarvoice.jolt.common.PathEvaluatingTraversal;
+import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
+import com.bazaarvoice.jolt.common.pathelement.EvaluatablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.LiteralPathElement;
+import com.bazaarvoice.jolt.common.pathelement.PathElement;
+import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.traversr.Traversr;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Shiftr Specific version of a PathEvaluatingTraversal, where we supply a
  * ShiftrTraversr.
+ *
+ * Writes also have a precomputed "plan", that does the same thing as evaluating the path into a List of
+ *  Strings and handing it to the ShiftrTraversr, but without the List, Iterator and Optionals.
+ * Literal segments of the write path are resolved once, here, and only the reference segments are
+ *  evaluated on each write.
+ * Paths with transposes, aka "@(1,id)", that do their own walk of the input, take the general path.
  */
 public class ShiftrWriter extends PathEvaluatingTraversal {
 
+    // null if this write path takes the general path
+    private final WriteStep[] plan;
+
+    // whether any of the plan's steps can evaluate to null, which means the write should not happen at all
+    private final boolean planHasNullableSteps;
+
     public ShiftrWriter( String dotNotation ) {
         super( dotNotation );
+
+        WriteStep[] steps = new WriteStep[ size() ];
+        boolean nullable = false;
+        for ( int index = 0; index < steps.length; index++ ) {
+            PathElement pathElement = get( index );
+            if ( pathElement instanceof TransposePathElement ||
+                 ( pathElement instanceof ArrayPathElement && ( (ArrayPathElement) pathElement ).getArrayPathType() == ArrayPathElement.ArrayPathType.TRANSPOSE ) ) {
+                steps = null;
+                break;
+            }
+            steps[index] = new WriteStep( (EvaluatablePathElement) pathElement );
+            nullable |= steps[index].nullable;
+        }
+
+        // a blank write path has no steps, and is left to the general path, and how it treats that
+        plan = steps == null || steps.length == 0 ? null : steps;
+        planHasNullableSteps = nullable;
     }
 
     @Override
     protected Traversr createTraversr( List<String> paths ) {
         return new ShiftrTraversr( paths );
     }
+
+    @Override
+    public void write( Object data, Map<String, Object> output, WalkedPath walkedPath ) {
+
+        if ( plan == null ) {
+            super.write( data, output, walkedPath );
+            return;
+        }
+
+        // The general path evaluates the whole path before it writes anything, so check the steps that
+        //  can come up empty first, so that no containers get made for a write that is not going to happen
+        if ( planHasNullableSteps ) {
+            for ( WriteStep step : plan ) {
+                if ( step.nullable && step.key( walkedPath ) == null ) {
+                    return;
+                }
+            }
+        }
+
+        Object tree = output;
+        int last = plan.length - 1;
+        for ( int index = 0; index < last; index++ ) {
+            tree = plan[index].intermediateGet( tree, plan[index + 1], walkedPath );
+            if ( tree == null ) {
+                return;
+            }
+        }
+        plan[last].finalSet( tree, data, walkedPath );
+    }
+
+    /**
+     * One segment of the write path, with the same behavior as the Map, Array and AutoExpandArray
+     *  TraversalSteps of a ShiftrTraversr doing a set.
+     */
+    private static final class WriteStep {
+
+        private enum Type { MAP, ARRAY, AUTO_EXPAND }
+
+        private final Type type;
+        private final EvaluatablePathElement pathElement;
+        private final boolean nullable;
+
+        // non null if the key of this step does not depend on the WalkedPath
+        private final String literalKey;
+
+        private WriteStep( EvaluatablePathElement pathElement ) {
+
+            this.pathElement = pathElement;
+
+            // the same rules the Traversr uses to pick a TraversalStep
+            String canonicalForm = pathElement.getCanonicalForm();
+            if ( "[]".equals( canonicalForm ) ) {
+                type = Type.AUTO_EXPAND;
+            }
+            else if ( canonicalForm.startsWith( "[" ) && canonicalForm.endsWith( "]" ) ) {
+                type = Type.ARRAY;
+            }
+            else {
+                type = Type.MAP;
+            }
+
+            boolean constant = pathElement instanceof LiteralPathElement;
+            boolean canBeNull = false;
+            if ( pathElement instanceof ArrayPathElement ) {
+                ArrayPathElement.ArrayPathType arrayPathType = ( (ArrayPathElement) pathElement ).getArrayPathType();
+                constant = arrayPathType == ArrayPathElement.ArrayPathType.AUTO_EXPAND || arrayPathType == ArrayPathElement.ArrayPathType.EXPLICIT_INDEX;
+                // a reference that does not resolve to an index comes back null
+                canBeNull = arrayPathType == ArrayPathElement.ArrayPathType.REFERENCE;
+            }
+
+            literalKey = constant ? pathElement.evaluate( null ) : null;
+            nullable = canBeNull;
+        }
+
+        private String key( WalkedPath walkedPath ) {
+            return literalKey != null ? literalKey : pathElement.evaluate( walkedPath );
+        }
+
+        private boolean accepts( Object tree ) {
+            return type == Type.MAP ? tree instanceof Map : tree instanceof List;
+        }
+
+        private Object newContainer() {
+            return type == Type.MAP ? new LinkedHashMap<String, Object>() : new ArrayList<>();
+        }
+
+        /**
+         * @return the container one level down, made by the next step if it was not there, or null if the walk can not continue
+         */
+        @SuppressWarnings( "unchecked" )
+        private Object intermediateGet( Object tree, WriteStep next, WalkedPath walkedPath ) {
+
+            if ( ! accepts( tree ) ) {
+                return null;
+            }
+
+            Object sub;
+            switch ( type ) {
+                case MAP: {
+                    Map<String, Object> map = (Map<String, Object>) tree;
+                    String key = key( walkedPath );
+                    sub = map.get( key );
+                    if ( sub == null ) {
+                        sub = next.newContainer();
+                        map.put( key, sub );
+                    }
+                    break;
+                }
+                case ARRAY: {
+                    List<Object> list = (List<Object>) tree;
+                    int arrayIndex = Integer.parseInt( key( walkedPath ) );
+                    sub = arrayIndex < list.size() ? list.get( arrayIndex ) : null;
+                    if ( sub == null ) {
+                        sub = next.newContainer();
+                        ensureArraySize( list, arrayIndex );
+                        list.set( arrayIndex, sub );
+                    }
+                    break;
+                }
+                default: {
+                    sub = next.newContainer();
+                    ( (List<Object>) tree ).add( sub );
+                }
+            }
+
+            // the next step bails if it is the wrong kind of container
+            return next.accepts( sub ) ? sub : null;
+        }
+
+        /**
+         * Shiftr style insert, see ShiftrTraversr.handleFinalSet
+         */
+        @SuppressWarnings( "unchecked" )
+        private void finalSet( Object tree, Object data, WalkedPath walkedPath ) {
+
+            if ( ! accepts( tree ) ) {
+                return;
+            }
+
+            switch ( type ) {
+                case MAP: {
+                    Map<String, Object> map = (Map<String, Object>) tree;
+                    String key = key( walkedPath );
+                    Object existing = map.get( key );
+                    if ( existing instanceof List ) {
+                        ( (List<Object>) existing ).add( data );
+                    }
+                    else {
+                        map.put( key, merge( existing, data ) );
+                    }
+                    break;
+                }
+                case ARRAY: {
+                    List<Object> list = (List<Object>) tree;
+                    int arrayIndex = Integer.parseInt( key( walkedPath ) );
+                    Object existing = arrayIndex < list.size() ? list.get( arrayIndex ) : null;
+                    if ( existing instanceof List ) {
+                        ( (List<Object>) existing ).add( data );
+                    }
+                    else {
+                        ensureArraySize( list, arrayIndex );
+                        list.set( arrayIndex, merge( existing, data ) );
+                    }
+                    break;
+                }
+                default:
+                    ( (List<Object>) tree ).add( data );
+            }
+        }
+
+        /**
+         * @return what should be put at a spot that does not hold a List
+         */
+        private static Object merge( Object existing, Object data ) {
+            if ( existing == null ) {
+                return data;
+            }
+            // take whatever is there and make it the first element in an Array
+            List<Object> temp = new ArrayList<>();
+            temp.add( existing );
+            temp.add( data );
+            return temp;
+        }
+
+        private static void ensureArraySize( List<Object> list, int upperIndex ) {
+            for ( int sizing = list.size(); sizing <= upperIndex; sizing++ ) {
+                list.add( null );
+            }
+        }
+    }
 }
@@ -16,7 +16,9 @@
 package com.bazaarvoice.jolt.shiftr.spec;
 
 import com.bazaarvoice.jolt.common.ComputedKeysComparator;
+import com.bazaarvoice.jolt.common.ComputedKeysMatcher;
 import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.LiteralChildrenIndex;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.pathelement.AmpPathElement;
 import com.bazaarvoice.jolt.common.pathelement.AtPathElement;
@@ -71,7 +73,7 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
 
     private static final HashMap<Class, Integer> orderMap;
     private static final ComputedKeysComparator computedKeysComparator;
-    private static final SpecBuilder<ShiftrSpec> specBuilder;
+    private static final SpecBuilder<ShiftrSpec> defaultSpecBuilder;
 
     static {
         orderMap = new HashMap<>();
@@ -81,18 +83,32 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
         orderMap.put( StarSinglePathElement.class, 4 );
         orderMap.put( StarAllPathElement.class, 5 );
         computedKeysComparator = ComputedKeysComparator.fromOrder( orderMap );
-        specBuilder = new ShiftrSpecBuilder();
+        defaultSpecBuilder = new ShiftrSpecBuilder();
     }
 
     // Three different buckets for the children of this CompositeSpec
     private final List<ShiftrSpec> specialChildren;         // children that aren't actually triggered off the input data
     private final Map<String, ShiftrSpec> literalChildren;  // children that are simple exact matches against the input data
     private final List<ShiftrSpec> computedChildren;        // children that are regex matches against the input data
+    private final LiteralChildrenIndex literalChildrenIndex;
+    private final ComputedKeysMatcher computedKeysMatcher;
     private final ExecutionStrategy executionStrategy;
 
     public ShiftrCompositeSpec(String rawKey, Map<String, Object> spec ) {
+        this( rawKey, spec, ComputedKeysMatcher.DEFAULT_DISPATCH_CACHE_SIZE );
+    }
+
+    /**
+     * @param dispatchCacheSize max number of input keys the ComputedKeysMatcher of this spec, and of each of its
+     *  composite children, remembers the dispatch of, 0 to disable the dispatch cache
+     */
+    public ShiftrCompositeSpec(String rawKey, Map<String, Object> spec, int dispatchCacheSize ) {
         super( rawKey );
 
+        if ( dispatchCacheSize < 0 ) {
+            throw new IllegalArgumentException( "ShiftrCompositeSpec dispatchCacheSize can not be negative, was:" + dispatchCacheSize );
+        }
+
         ArrayList<ShiftrSpec> special = new ArrayList<>();
         Map<String, ShiftrSpec> literals = new LinkedHashMap<>();
         ArrayList<ShiftrSpec> computed = new ArrayList<>();
@@ -105,6 +121,8 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
             throw new SpecException( "$ Shiftr key, can not have children." );
         }
 
+        SpecBuilder<ShiftrSpec> specBuilder = dispatchCacheSize == ComputedKeysMatcher.DEFAULT_DISPATCH_CACHE_SIZE ?
+                defaultSpecBuilder : new ShiftrSpecBuilder( dispatchCacheSize );
         List<ShiftrSpec> children = specBuilder.createSpec( spec );
 
         if ( children.isEmpty() ) {
@@ -135,22 +153,41 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
 
         specialChildren = Collections.unmodifiableList( special );
         literalChildren = Collections.unmodifiableMap( literals );
+        literalChildrenIndex = new LiteralChildrenIndex( literalChildren );
         computedChildren = Collections.unmodifiableList( computed );
+        computedKeysMatcher = new ComputedKeysMatcher( computedChildren, dispatchCacheSize );
 
         executionStrategy = determineExecutionStrategy();
     }
 
 
+    /**
+     * @return the "@", "$", "#" and transpose children, which are applied for every input, and do not block other children
+     */
+    public List<ShiftrSpec> getSpecialChildren() {
+        return specialChildren;
+    }
+
     @Override
     public Map<String, ShiftrSpec> getLiteralChildren() {
         return literalChildren;
     }
 
+    @Override
+    public LiteralChildrenIndex getLiteralChildrenIndex() {
+        return literalChildrenIndex;
+    }
+
     @Override
     public List<ShiftrSpec> getComputedChildren() {
         return computedChildren;
     }
 
+    @Override
+    public ComputedKeysMatcher getComputedKeysMatcher() {
+        return computedKeysMatcher;
+    }
+
     @Override
     public ExecutionStrategy determineExecutionStrategy() {
         if ( computedChildren.isEmpty() ) {
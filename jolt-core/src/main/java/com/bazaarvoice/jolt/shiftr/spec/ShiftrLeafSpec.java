@@ -82,6 +82,10 @@ public class ShiftrLeafSpec extends ShiftrSpec {
         shiftrWriters = Collections.unmodifiableList( writers );
     }
 
+    public List<? extends PathEvaluatingTraversal> getShiftrWriters() {
+        return shiftrWriters;
+    }
+
     /**
      * If this Spec matches the inputkey, then do the work of outputting data and return true.
      *
@@ -15,13 +15,17 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.defaultr.Key;
 import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultrTest {
 
@@ -87,6 +91,35 @@ public class DefaultrTest {
         }
     }
 
+    /**
+     * Diffy treats a null value and a missing key as the same, so check the keys directly.
+     */
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void nullDefaultsAddTheirKeys() throws IOException {
+        Object spec = JsonUtils.jsonToMap( "{ \"foo\" : null, \"bar\" : { \"baz\" : null }, \"arr\" : [ null, null ] }" );
+        Map<String, Object> input = JsonUtils.jsonToMap( "{ \"bar\" : { } }" );
+
+        Map<String, Object> actual = (Map<String, Object>) new Defaultr( spec ).transform( input );
+
+        Assert.assertTrue( actual.containsKey( "foo" ) );
+        Assert.assertNull( actual.get( "foo" ) );
+        Assert.assertTrue( ( (Map<String, Object>) actual.get( "bar" ) ).containsKey( "baz" ) );
+        Assert.assertEquals( actual.get( "arr" ), Arrays.asList( null, null ) );
+    }
+
+    @Test
+    @SuppressWarnings( "deprecation" )
+    public void deprecatedParseSpecStillReturnsASet() throws IOException {
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"b\" : 1, \"a|c\" : 2, \"*\" : { \"x\" : 3 } }" );
+
+        Set<Key> keys = Key.parseSpec( spec );
+        List<Key> keysInOrder = Key.parseSpecInOrder( spec );
+
+        Assert.assertEquals( keys.size(), 3 );
+        Assert.assertEquals( keysInOrder.size(), 3 );
+    }
+
     @Test(expectedExceptions = SpecException.class)
     public void throwExceptionOnBadSpec() throws IOException {
         Object spec = JsonUtils.jsonToMap( "{ \"tuna*\": \"marlin\" }" );
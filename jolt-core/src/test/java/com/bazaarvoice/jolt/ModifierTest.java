@@ -19,7 +19,11 @@ import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.SpecStringParser;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.modifier.function.Function;
+import com.bazaarvoice.jolt.modifier.function.FunctionStats;
+import com.bazaarvoice.jolt.modifier.function.Objects;
+import com.bazaarvoice.jolt.modifier.function.Strings;
 import com.google.common.collect.Lists;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -174,6 +178,7 @@ public class ModifierTest {
         testCases.add( new Object[]{"/json/modifier/functions/sizeTests.json", TemplatrTestCase.OVERWRITR} );
         testCases.add( new Object[]{"/json/modifier/functions/labelsLookupTest.json", TemplatrTestCase.DEFAULTR} );
         testCases.add( new Object[]{"/json/modifier/functions/valueTests.json", TemplatrTestCase.OVERWRITR }  );
+        testCases.add( new Object[]{"/json/modifier/functions/nestedFunctionsTest.json", TemplatrTestCase.OVERWRITR }  );
 
         return testCases.iterator();
     }
@@ -219,6 +224,9 @@ public class ModifierTest {
         testCases.add( new Object[] {"fn(abc,,@(1,,2),,pqr,,)", new String[] {"fn", "abc", "","@(1,,2)","", "pqr", "", ""} } );
         testCases.add( new Object[] {"fn(abc,'e,f,g',pqr)", new String[] {"fn", "abc", "'e,f,g'", "pqr"} } );
         testCases.add( new Object[] {"fn(abc,'e(,f,)g',pqr)", new String[] {"fn", "abc", "'e(,f,)g'", "pqr"} } );
+        testCases.add( new Object[] {"fn(=trim(@(1,a)),'b')", new String[] {"fn", "=trim(@(1,a))", "'b'"} } );
+        testCases.add( new Object[] {"fn(=concat(@(1,a), 'x'), b)", new String[] {"fn", "=concat(@(1,a), 'x')", "b"} } );
+        testCases.add( new Object[] {"fn(=f(=g(@(1,a)), ')'), b)", new String[] {"fn", "=f(=g(@(1,a)), ')')", "b"} } );
 
         return testCases.iterator();
     }
@@ -249,6 +257,216 @@ public class ModifierTest {
         JoltTestUtil.runArrayOrderObliviousDiffy( "failed modifierFirstElementArray", expected, actual );
     }
 
+    @Test
+    public void testFunctionStats() throws IOException {
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"items\" : { \"*\" : { \"count\" : [ \"=toInteger\", 0 ], \"label\" : \"=toUpper\" } }, \"total\" : \"=intSum(@(1,items[#1].count))\" }" );
+        Modifier modifier = new Modifier.Overwritr( spec );
+
+        modifier.transform( JsonUtils.jsonToMap( "{ \"items\" : [ { \"count\" : \"1\", \"label\" : \"a\" }, { \"count\" : \"x\", \"label\" : 2 }, { \"count\" : \"3\" } ] }" ), null );
+
+        Map<String, List<FunctionStats>> stats = modifier.getFunctionStats();
+        Assert.assertEquals( stats.keySet(), Lists.newArrayList( "items.*.count", "items.*.label", "total" ) );
+
+        FunctionStats count = stats.get( "items.*.count" ).get( 0 );
+        Assert.assertEquals( count.getFunctionName(), "toInteger" );
+        Assert.assertEquals( count.getExpression(), "=toInteger" );
+        Assert.assertEquals( count.getEvaluations(), 3 );
+        Assert.assertEquals( count.getEmptyResults(), 1 );
+        Assert.assertEquals( count.getExceptions(), 0 );
+
+        FunctionStats label = stats.get( "items.*.label" ).get( 0 );
+        Assert.assertEquals( label.getEvaluations(), 3 );
+        Assert.assertEquals( label.getEmptyResults(), 2 );
+
+        Assert.assertEquals( stats.get( "total" ).get( 0 ).getEvaluations(), 1 );
+    }
+
+    @Test
+    public void testNestedFunctionStats() throws IOException {
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"name\" : \"=toUpper(=trim(@(1,raw)))\" }" );
+        Modifier modifier = new Modifier.Overwritr( spec );
+
+        modifier.transform( JsonUtils.jsonToMap( "{ \"raw\" : \" tuna \" }" ), null );
+        modifier.transform( JsonUtils.jsonToMap( "{ \"raw\" : 1 }" ), null );
+
+        List<FunctionStats> stats = modifier.getFunctionStats().get( "name" );
+        Assert.assertEquals( stats.size(), 2 );
+        Assert.assertEquals( stats.get( 0 ).getFunctionName(), "toUpper" );
+        Assert.assertEquals( stats.get( 0 ).getEvaluations(), 2 );
+        Assert.assertEquals( stats.get( 0 ).getEmptyResults(), 1 );
+        Assert.assertEquals( stats.get( 1 ).getFunctionName(), "trim" );
+        Assert.assertEquals( stats.get( 1 ).getExpression(), "=trim(@(1,raw))" );
+        Assert.assertEquals( stats.get( 1 ).getEvaluations(), 2 );
+        Assert.assertEquals( stats.get( 1 ).getEmptyResults(), 1 );
+    }
+
+    @Test
+    public void testFunctionStatsCountExceptions() {
+        Map<String, Object> spec = new HashMap<>();
+        spec.put( "value", "=explode" );
+        Map<String, Function> functions = new HashMap<>();
+        functions.put( "explode", new Function() {
+            @Override
+            public Optional<Object> apply( final Object... args ) {
+                throw new IllegalStateException( "boom" );
+            }
+        } );
+        Modifier modifier = new Modifier.Overwritr( spec, functions );
+
+        Map<String, Object> input = new HashMap<>();
+        input.put( "value", 1 );
+        modifier.transform( input, null );
+        modifier.transform( input, null );
+
+        FunctionStats stats = modifier.getFunctionStats().get( "value" ).get( 0 );
+        Assert.assertEquals( stats.getEvaluations(), 2 );
+        Assert.assertEquals( stats.getExceptions(), 2 );
+        Assert.assertEquals( stats.getEmptyResults(), 0 );
+        Assert.assertEquals( input.get( "value" ), 1 );
+    }
+
+    @DataProvider
+    public Object[][] getCompiledFunctionCases() {
+        return new Object[][] {
+            { "=concat('a','b')" }, { "=concat('a',@(1,value))" }, { "=concat()" },
+            { "=split(',', @(1,value))" }, { "=split('[,;]', @(1,value))" }, { "=split('[', @(1,value))" },
+            { "=split(',', 'x,y')" }, { "=split('', @(1,value))" },
+            { "=leftPad(@(1,name), 10, 'X')" }, { "=rightPad(@(1,name), 10, 'X')" }, { "=leftPad(@(1,name), 3, 'X')" },
+            { "=leftPad('7', 3, '0')" }, { "=leftPad(@(1,name), 0, 'X')" }, { "=leftPad(@(1,name), 10, 'XY')" },
+            { "=leftPad(@(1,count), 10, 'X')" }, { "=rightPad(@(1,name), @(1,count), 'X')" },
+            { "=divideAndRound(2, 10, 3)" }, { "=divideAndRound(2, @(1,count), 3)" }, { "=divide(1, 0)" },
+            { "=toInteger('12')" }, { "=toUpper('abc')" }, { "=max(1, 5, '7')" }, { "=size('abcd')" },
+            { "=elementAt(1, 'a', 'b')" }, { "=toList('a','b')" }, { "=sort(3,1,2)" }, { "=substring('tuna', 0, 2)" },
+            { "=join('-', 'a', @(1,count))" }, { "=intSum(1, @(1,count), 3)" }
+        };
+    }
+
+    /**
+     * Runs each expression with the stock functions, which Modifier folds or specializes while building the spec,
+     *  and with plain wrappers around them, which it can not, and expects the same output.
+     */
+    @Test( dataProvider = "getCompiledFunctionCases" )
+    public void testCompiledFunctionsMatchPlainOnes( String expression ) throws IOException {
+        Map<String, Function> stockFunctions = new HashMap<>();
+        stockFunctions.put( "concat", new Strings.concat() );
+        stockFunctions.put( "split", new Strings.split() );
+        stockFunctions.put( "leftPad", new Strings.leftPad() );
+        stockFunctions.put( "rightPad", new Strings.rightPad() );
+        stockFunctions.put( "toUpper", new Strings.toUpperCase() );
+        stockFunctions.put( "substring", new Strings.substring() );
+        stockFunctions.put( "join", new Strings.join() );
+        stockFunctions.put( "divideAndRound", new com.bazaarvoice.jolt.modifier.function.Math.divideAndRound() );
+        stockFunctions.put( "divide", new com.bazaarvoice.jolt.modifier.function.Math.divide() );
+        stockFunctions.put( "max", new com.bazaarvoice.jolt.modifier.function.Math.max() );
+        stockFunctions.put( "intSum", new com.bazaarvoice.jolt.modifier.function.Math.intSum() );
+        stockFunctions.put( "toInteger", new Objects.toInteger() );
+        stockFunctions.put( "size", new Objects.size() );
+        stockFunctions.put( "elementAt", new com.bazaarvoice.jolt.modifier.function.Lists.elementAt() );
+        stockFunctions.put( "toList", new com.bazaarvoice.jolt.modifier.function.Lists.toList() );
+        stockFunctions.put( "sort", new com.bazaarvoice.jolt.modifier.function.Lists.sort() );
+
+        Map<String, Function> plainFunctions = new HashMap<>();
+        for ( Map.Entry<String, Function> entry : stockFunctions.entrySet() ) {
+            final Function stock = entry.getValue();
+            plainFunctions.put( entry.getKey(), new Function() {
+                @Override
+                public Optional<Object> apply( final Object... args ) {
+                    return stock.apply( args );
+                }
+            } );
+        }
+
+        Map<String, Object> spec = new HashMap<>();
+        spec.put( "result", expression );
+        Modifier compiled = new Modifier.Overwritr( spec, stockFunctions );
+        Modifier plain = new Modifier.Overwritr( spec, plainFunctions );
+
+        for ( String input : new String[] {
+                "{ \"value\" : \"a,b;c\", \"name\" : \"tuna\", \"count\" : 7 }",
+                "{ \"value\" : 1, \"name\" : \"a much longer name\", \"count\" : \"x\" }",
+                "{ }" } ) {
+            Object expected = plain.transform( JsonUtils.jsonToMap( input ), null );
+            // run it twice, to catch a folded value that a first output changed
+            compiled.transform( JsonUtils.jsonToMap( input ), null );
+            Object actual = compiled.transform( JsonUtils.jsonToMap( input ), null );
+            JoltTestUtil.runDiffy( expression + " over " + input, expected, normalizeArrays( actual ) );
+        }
+    }
+
+    // sort hands back an Object[], which Diffy does not compare by value
+    private static Object normalizeArrays( Object output ) {
+        Map<?, ?> outputMap = (Map<?, ?>) output;
+        Object result = outputMap.get( "result" );
+        if ( result instanceof Object[] ) {
+            Map<Object, Object> copy = new HashMap<>( outputMap );
+            copy.put( "result", Lists.newArrayList( (Object[]) result ) );
+            return copy;
+        }
+        return output;
+    }
+
+    @Test
+    public void testPureFunctionWithLiteralArgsIsCalledOnce() {
+        final int[] calls = { 0 };
+        Map<String, Function> functions = new HashMap<>();
+        functions.put( "answer", new Function.PureFunction() {
+            @Override
+            public Optional<Object> apply( final Object... args ) {
+                calls[0]++;
+                return Optional.<Object>of( 42 );
+            }
+        } );
+        Map<String, Object> spec = new HashMap<>();
+        spec.put( "value", "=answer('question')" );
+        Modifier modifier = new Modifier.Overwritr( spec, functions );
+
+        for ( int run = 0; run < 3; run++ ) {
+            Map<?, ?> output = (Map<?, ?>) modifier.transform( new HashMap<>(), null );
+            Assert.assertEquals( output.get( "value" ), 42 );
+        }
+        Assert.assertEquals( calls[0], 1 );
+        Assert.assertEquals( modifier.getFunctionStats().get( "value" ).get( 0 ).getEvaluations(), 3 );
+    }
+
+    @Test
+    public void testFixedContextLookupIsReadOncePerTransform() throws IOException {
+        final int[] reads = { 0 };
+        Map<String, Object> rates = new HashMap<String, Object>() {
+            @Override
+            public Object get( final Object key ) {
+                reads[0]++;
+                return super.get( key );
+            }
+        };
+        rates.put( "usd", 1.5 );
+        Map<String, Object> context = new HashMap<>();
+        context.put( "rates", rates );
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"items\" : { \"*\" : { \"rate\" : \"^rates.usd\", \"label\" : \"^labels.&1\" } } }" );
+        Modifier modifier = new Modifier.Overwritr( spec );
+
+        for ( int run = 1; run <= 2; run++ ) {
+            Map<String, Object> input = JsonUtils.jsonToMap( "{ \"items\" : [ {}, {}, {}, {} ] }" );
+            modifier.transform( input, context );
+            for ( Object item : (List<?>) input.get( "items" ) ) {
+                Assert.assertEquals( ( (Map<?, ?>) item ).get( "rate" ), 1.5 );
+            }
+            Assert.assertEquals( reads[0], run );
+        }
+    }
+
+    @Test
+    public void testContextLookupSeesModifierWrites() throws IOException {
+        // the context is the input, so the writes to "items" change what the lookup reads; a lookup that was
+        //  remembered across those writes would give [ "ax", "ax", "ax" ]
+        Map<String, Object> input = JsonUtils.jsonToMap( "{ \"items\" : [ \"a\", \"b\", \"c\" ] }" );
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"items\" : { \"*\" : \"=concat(^items[0],'x')\" } }" );
+
+        new Modifier.Overwritr( spec ).transform( input, input );
+
+        // the same as without remembering lookups at all
+        Assert.assertEquals( input.get( "items" ), Lists.newArrayList( "ax", "axx", "axx" ) );
+    }
+
     @SuppressWarnings( "unused" )
     public static final class MinLabelComputation implements Function {
         @Override
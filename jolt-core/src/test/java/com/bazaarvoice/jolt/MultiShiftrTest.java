@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that each output of a MultiShiftr is the same as running its spec through a Shiftr on its own.
+ */
+public class MultiShiftrTest {
+
+    private static List<Map<String, Object>> allFixtures() throws IOException {
+        List<Map<String, Object>> fixtures = new ArrayList<>();
+        for ( Object[] testCase : new ShiftrTest().getTestCaseUnits() ) {
+            fixtures.add( JsonUtils.classpathToMap( "/json/shiftr/" + testCase[0] + ".json" ) );
+        }
+        return fixtures;
+    }
+
+    private static void assertSameAsSeparateShiftrs( List<Object> specs, Object input, String message ) throws IOException {
+
+        List<Object> outputs = new MultiShiftr( specs ).transform( JsonUtils.cloneJson( input ) );
+
+        Assert.assertEquals( outputs.size(), specs.size() );
+        for ( int index = 0; index < specs.size(); index++ ) {
+            Object expected = new Shiftr( specs.get( index ) ).transform( JsonUtils.cloneJson( input ) );
+            JoltTestUtil.runDiffy( message + " spec " + index, expected, outputs.get( index ) );
+        }
+    }
+
+    /**
+     * Like Shiftr, the outputs share Lists and Maps with the input, so a spec that appends to a List it passed
+     *  through from the input changes the input that the other specs see.  Those specs are left out here, as
+     *  the same thing would happen running them through separate Shiftrs one after another.
+     */
+    private static boolean changesItsInput( Object spec, List<Map<String, Object>> fixtures ) throws IOException {
+        for ( Map<String, Object> fixture : fixtures ) {
+            Object input = JsonUtils.cloneJson( fixture.get( "input" ) );
+            new Shiftr( spec ).transform( input );
+            if ( ! new Diffy().diff( fixture.get( "input" ), input ).isEmpty() ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Every fixture spec, all in one MultiShiftr, run over every fixture input.
+     */
+    @Test
+    public void allFixtureSpecsOverAllFixtureInputs() throws IOException {
+
+        List<Map<String, Object>> fixtures = allFixtures();
+
+        List<Object> specs = new ArrayList<>();
+        for ( Map<String, Object> fixture : fixtures ) {
+            if ( ! changesItsInput( fixture.get( "spec" ), fixtures ) ) {
+                specs.add( fixture.get( "spec" ) );
+            }
+        }
+        Assert.assertTrue( specs.size() > fixtures.size() / 2, "most fixture specs leave their input alone" );
+
+        for ( int index = 0; index < fixtures.size(); index++ ) {
+            assertSameAsSeparateShiftrs( specs, fixtures.get( index ).get( "input" ), "input " + index );
+        }
+    }
+
+    @Test
+    public void overlappingSpecs() throws IOException {
+
+        Object input = JsonUtils.jsonToObject( "{ \"data\" : { \"product\" : { \"id\" : 1, \"name\" : \"tuna\", \"tags\" : [ \"a\", \"b\" ] }, \"count\" : 3 } }" );
+
+        List<Object> specs = Arrays.asList(
+                JsonUtils.jsonToObject( "{ \"data\" : { \"product\" : { \"id\" : \"out[]\", \"name\" : \"out[]\", \"tags\" : { \"*\" : \"tags.&\" } } } }" ),
+                JsonUtils.jsonToObject( "{ \"data\" : { \"product\" : { \"name\" : \"out[]\", \"id\" : \"out[]\", \"$\" : \"key\" }, \"count\" : \"count\" } }" ),
+                JsonUtils.jsonToObject( "{ \"data\" : { \"product\" : { \"*\" : \"all.&\", \"id\" : \"id\" } } }" ),
+                JsonUtils.jsonToObject( "{ \"data\" : { \"product\" : { \"id\" : \"[#2].id\" }, \"count\" : \"[#1].count\" } }" ) );
+
+        assertSameAsSeparateShiftrs( specs, input, "overlapping" );
+    }
+
+    @Test( expectedExceptions = SpecException.class )
+    public void notAList() throws IOException {
+        new MultiShiftr( JsonUtils.jsonToMap( "{ \"a\" : \"b\" }" ) );
+    }
+
+    @Test( expectedExceptions = SpecException.class )
+    public void notAListOfMaps() throws IOException {
+        new MultiShiftr( Arrays.asList( JsonUtils.jsonToMap( "{ \"a\" : \"b\" }" ), "tuna" ) );
+    }
+}
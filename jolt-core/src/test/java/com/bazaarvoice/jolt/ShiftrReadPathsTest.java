@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ShiftrReadPathsTest {
+
+    private static List<Map<String, Object>> allFixtures() throws IOException {
+        List<Map<String, Object>> fixtures = new ArrayList<>();
+        for ( Object[] testCase : new ShiftrTest().getTestCaseUnits() ) {
+            fixtures.add( JsonUtils.classpathToMap( "/json/shiftr/" + testCase[0] + ".json" ) );
+        }
+        return fixtures;
+    }
+
+    /**
+     * Every fixture spec run over every fixture input, parsed with and without the spec's read paths.
+     */
+    @Test
+    public void filteredParseDoesNotChangeTheOutput() throws IOException {
+
+        List<Map<String, Object>> fixtures = allFixtures();
+
+        for ( int specIndex = 0; specIndex < fixtures.size(); specIndex++ ) {
+            Shiftr shiftr = new Shiftr( fixtures.get( specIndex ).get( "spec" ) );
+            ReadPathFilter readPaths = ReadPathFilter.fromReadPaths( shiftr.getInputReadPaths() );
+
+            for ( int inputIndex = 0; inputIndex < fixtures.size(); inputIndex++ ) {
+                String json = JsonUtils.toJsonString( fixtures.get( inputIndex ).get( "input" ) );
+
+                Object expected = shiftr.transform( JsonUtils.jsonToObject( json ) );
+                Object actual = shiftr.transform( JsonUtils.jsonToObject( json, readPaths ) );
+
+                JoltTestUtil.runDiffy( "spec " + specIndex + " input " + inputIndex + " read paths " + readPaths, expected, actual );
+            }
+        }
+    }
+
+    @Test
+    public void literalStarKeyIsStillRead() {
+        Shiftr shiftr = new Shiftr( JsonUtils.javason( "{ 'a' : { '\\\\*' : { 'x' : 'lit' }, 'b*' : { 'y' : 'any' } } }" ) );
+        String json = JsonUtils.toJsonString( JsonUtils.javason( "{ 'a' : { '*' : { 'x' : 1, 'y' : 2 } } }" ) );
+
+        Object expected = shiftr.transform( JsonUtils.jsonToObject( json ) );
+        Object actual = shiftr.transform( JsonUtils.jsonToObject( json, ReadPathFilter.fromReadPaths( shiftr.getInputReadPaths() ) ) );
+
+        Assert.assertEquals( expected, JsonUtils.javason( "{ 'lit' : 1 }" ) );
+        Assert.assertEquals( actual, expected );
+    }
+
+    @DataProvider
+    public Object[][] getReadPaths() {
+        return new Object[][] {
+                // literals and stars narrow down what is read, leaves read their whole value
+                { "{ 'data' : { 'product' : { 'name' : 'out.name' }, 'reviews' : { '*' : { 'rating' : 'out.ratings[]' } } } }",
+                  "{\"data\":{\"product\":{\"name\":true},\"reviews\":{\"*\":{\"rating\":true}}}}" },
+                // "$" and "#" only need their level to exist
+                { "{ 'data' : { '*' : { '$' : 'out.keys[]', '#yes' : 'out.&1' } } }",
+                  "{\"data\":{\"*\":{}}}" },
+                // "@" reads the whole value of its level
+                { "{ 'data' : { 'product' : { '@' : 'out.product' }, 'id' : 'out.id' } }",
+                  "{\"data\":{\"product\":true,\"id\":true}}" },
+                // a transpose in a write path reads the level it points at, counting the leaf as level 0
+                { "{ 'data' : { 'reviews' : { '*' : { 'rating' : 'out.@(2,id)' } } } }",
+                  "{\"data\":{\"reviews\":true}}" },
+                { "{ 'data' : { 'reviews' : { '*' : { 'rating' : 'out[@(3,id)]' } } } }",
+                  "{\"data\":true}" },
+                // a transpose on the left hand side as well
+                { "{ 'data' : { 'reviews' : { '@(1,product.id)' : 'out.id' } } }",
+                  "{\"data\":true}" },
+                // a transpose composite, whose children read from wherever the transpose landed
+                { "{ 'data' : { 'reviews' : { '*' : { '@(2,product)' : { 'name' : 'out.name' } } } } }",
+                  "{\"data\":true}" },
+                // a literal "*" key shares the any child, rather than overwriting it or being overwritten
+                { "{ 'a' : { '\\\\*' : { 'x' : 'lit' }, 'b*' : { 'y' : 'any' } } }",
+                  "{\"a\":{\"*\":{\"x\":true,\"y\":true}}}" },
+                // going all the way up reads everything
+                { "{ 'data' : { '@(2,id)' : 'out.id' } }",
+                  "true" },
+        };
+    }
+
+    @Test( dataProvider = "getReadPaths" )
+    public void readPathsOfASpec( String spec, String expectedReadPaths ) {
+        Object readPaths = new Shiftr( JsonUtils.javason( spec ) ).getInputReadPaths();
+        Assert.assertEquals( JsonUtils.toJsonString( readPaths ), expectedReadPaths );
+    }
+
+    @Test
+    public void chainrOnlyAnalyzesALeadingShiftr() {
+
+        Shiftr shiftr = new Shiftr( JsonUtils.javason( "{ 'data' : { 'id' : 'id' } }" ) );
+        Removr removr = new Removr( JsonUtils.javason( "{ 'id' : '' }" ) );
+
+        Chainr shiftrFirst = new Chainr( Arrays.<JoltTransform>asList( shiftr, removr ) );
+        Assert.assertEquals( JsonUtils.toJsonString( shiftrFirst.getInputReadPaths() ), "{\"data\":{\"id\":true}}" );
+
+        Chainr removrFirst = new Chainr( Arrays.<JoltTransform>asList( removr, shiftr ) );
+        Assert.assertEquals( removrFirst.getInputReadPaths(), Boolean.TRUE );
+    }
+}
@@ -19,6 +19,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 public class ShiftrTest {
@@ -45,6 +46,7 @@ public class ShiftrTest {
             {"invertMap"},
             {"json-ld-escaping"},
             {"keyref"},
+            {"literalsInSpecOrder"},
             {"lhsAmpMatch"},
             {"listKeys"},
             {"mapToList"},
@@ -109,4 +111,22 @@ public class ShiftrTest {
 
         JoltTestUtil.runDiffy( "failed case " + testPath, expected, actual );
     }
+
+    @Test(dataProvider = "getTestCaseUnits")
+    public void runTestUnitsWithSmallAndNoDispatchCaches(String testCaseName) throws IOException {
+
+        String testPath = "/json/shiftr/" + testCaseName;
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath + ".json" );
+
+        for ( int dispatchCacheSize : new int[] { 0, 1 } ) {
+            Shiftr shiftr = new Shiftr( testUnit.get( "spec" ), dispatchCacheSize );
+            Object actual = shiftr.transform( JsonUtils.cloneJson( testUnit.get( "input" ) ) );
+            JoltTestUtil.runDiffy( "failed case " + testPath + " with dispatchCacheSize " + dispatchCacheSize, testUnit.get( "expected" ), actual );
+        }
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void negativeDispatchCacheSize() {
+        new Shiftr( new HashMap<String, Object>(), -1 );
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.chainr.transforms.ExplodingTestTransform;
+import com.bazaarvoice.jolt.chainr.transforms.GoodContextDrivenTransform;
+import com.bazaarvoice.jolt.exception.TransformException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ChainrAsyncTest {
+
+    private static Chainr newChainr( Class<?> transformClass ) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put( "operation", transformClass.getName() );
+        return Chainr.fromSpec( Collections.singletonList( entry ) );
+    }
+
+    @Test
+    public void transformAsyncOnTheDefaultExecutor() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put( GoodContextDrivenTransform.CONTEXT_KEY, "fromContext" );
+
+        CompletableFuture<Object> future = newChainr( GoodContextDrivenTransform.class ).transformAsync( new HashMap<>(), context );
+
+        Assert.assertEquals( ( (Map) future.get() ).get( "c" ), "fromContext" );
+    }
+
+    @Test
+    public void transformAsyncCompletesExceptionally() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            newChainr( ExplodingTestTransform.class ).transformAsync( new HashMap<>(), null, executor ).get();
+            Assert.fail( "expected the ExplodingTestTransform to throw" );
+        }
+        catch ( ExecutionException e ) {
+            Assert.assertTrue( e.getCause() instanceof TransformException );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualThreadsAreUsedWhenAvailable() {
+        ExecutorService virtual = ChainrExecutors.newVirtualThreadPerTaskExecutor();
+        Assert.assertEquals( ChainrExecutors.isVirtualThreadDefault(), virtual != null );
+        if ( virtual != null ) {
+            virtual.shutdown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.chainr.transforms.GoodContextDrivenTransform;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class ChainrBatchTest {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // every 100th input is not a Map, which makes GoodContextDrivenTransform throw a ClassCastException
+    private static List<Object> newInputs() {
+        List<Object> inputs = new ArrayList<>( BATCH_SIZE );
+        for ( int index = 0; index < BATCH_SIZE; index++ ) {
+            if ( index % 100 == 42 ) {
+                inputs.add( "not a map" );
+            }
+            else {
+                Map<String, Object> input = new LinkedHashMap<>();
+                input.put( "index", index );
+                inputs.add( input );
+            }
+        }
+        return inputs;
+    }
+
+    private static Chainr newChainr() {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put( "operation", GoodContextDrivenTransform.class.getName() );
+        return Chainr.fromSpec( Collections.singletonList( entry ) );
+    }
+
+    private static Map<String, Object> newContext() {
+        Map<String, Object> context = new HashMap<>();
+        context.put( GoodContextDrivenTransform.CONTEXT_KEY, "fromContext" );
+        return context;
+    }
+
+    private static void verify( List<TransformResult> results ) {
+        Assert.assertEquals( results.size(), BATCH_SIZE );
+        for ( int index = 0; index < BATCH_SIZE; index++ ) {
+            TransformResult result = results.get( index );
+            if ( index % 100 == 42 ) {
+                Assert.assertFalse( result.isSuccess() );
+                Assert.assertTrue( result.getFailure() instanceof ClassCastException );
+                Assert.assertNull( result.getOutput() );
+            }
+            else {
+                Assert.assertTrue( result.isSuccess() );
+                Map output = (Map) result.getOrThrow();
+                Assert.assertEquals( output.get( "index" ), index );
+                Assert.assertEquals( output.get( "c" ), "fromContext" );
+            }
+        }
+    }
+
+    @DataProvider
+    public Object[][] batchSizes() {
+        return new Object[][] { { 0 }, { 1 }, { BATCH_SIZE } };
+    }
+
+    @Test( dataProvider = "batchSizes" )
+    public void transformAllOnTheCommonPool( int size ) {
+        List<Object> inputs = newInputs().subList( 0, size );
+        List<TransformResult> results = newChainr().transformAll( inputs, newContext() );
+        Assert.assertEquals( results.size(), size );
+        if ( size == BATCH_SIZE ) {
+            verify( results );
+        }
+    }
+
+    @Test
+    public void transformAllOnACallerSuppliedExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+        try {
+            verify( newChainr().transformAll( newInputs(), newContext(), executor ) );
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void transformEachIterator() {
+        Iterator<TransformResult> iterator = newChainr().transformEach( newInputs().iterator(), newContext() );
+        List<TransformResult> results = new ArrayList<>();
+        while ( iterator.hasNext() ) {
+            results.add( iterator.next() );
+        }
+        verify( results );
+    }
+
+    @Test
+    public void transformEachSpliteratorInParallel() {
+        List<TransformResult> results =
+                StreamSupport.stream( newChainr().transformEach( newInputs().spliterator(), newContext() ), true )
+                        .collect( Collectors.toList() );
+        verify( results );
+    }
+}
@@ -20,6 +20,7 @@ import com.bazaarvoice.jolt.ContextualTransform;
 import com.bazaarvoice.jolt.JoltTransform;
 import com.bazaarvoice.jolt.JsonUtils;
 import com.bazaarvoice.jolt.Transform;
+import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
 import com.bazaarvoice.jolt.chainr.transforms.TransformTestResult;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
@@ -71,6 +72,41 @@ public class ChainrInitializationTest {
         new ChainrBuilder( validSpec ).loader( null );
     }
 
+    @Test
+    public void chainrBuilderDispatchCacheSize() {
+
+        Object spec = JsonUtils.jsonToObject( "[ { \"operation\" : \"shift\", \"spec\" : { \"*\" : \"out.&\" } } ]" );
+        Chainr unit = new ChainrBuilder( spec ).dispatchCacheSize( 0 ).build();
+
+        Assert.assertEquals( unit.transform( JsonUtils.jsonToObject( "{ \"a\" : 1 }" ) ), JsonUtils.jsonToObject( "{ \"out\" : { \"a\" : 1 } }" ) );
+    }
+
+    @DataProvider
+    public Object[][] loaderAndDispatchCacheSizeOrders() {
+        return new Object[][] { { true }, { false } };
+    }
+
+    @Test( dataProvider = "loaderAndDispatchCacheSizeOrders", expectedExceptions = IllegalArgumentException.class )
+    public void chainrBuilderFailsOnLoaderAndDispatchCacheSize( boolean loaderFirst ) {
+
+        Object spec = JsonUtils.jsonToObject( "[ { \"operation\" : \"shift\", \"spec\" : { \"*\" : \"out.&\" } } ]" );
+        ChainrBuilder builder = new ChainrBuilder( spec );
+        if ( loaderFirst ) {
+            builder.loader( new DefaultChainrInstantiator() ).dispatchCacheSize( 0 );
+        }
+        else {
+            builder.dispatchCacheSize( 0 ).loader( new DefaultChainrInstantiator() );
+        }
+        builder.build();
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void chainrBuilderFailsOnNegativeDispatchCacheSize() {
+
+        Object validSpec = JsonUtils.classpathToObject( "/json/chainr/transforms/loadsGoodTransform.json" );
+        new ChainrBuilder( validSpec ).dispatchCacheSize( -1 );
+    }
+
     @Test( expectedExceptions = IllegalArgumentException.class )
     public void failsOnNullListOfJoltTransforms() {
         new Chainr( null );
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JoltTestUtil;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.chainr.listener.ChainrListener;
+import com.bazaarvoice.jolt.chainr.listener.HistogramChainrListener;
+import com.bazaarvoice.jolt.chainr.listener.LatencyHistogram;
+import com.bazaarvoice.jolt.chainr.transforms.ExplodingTestTransform;
+import com.bazaarvoice.jolt.exception.TransformException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ChainrListenerTest {
+
+    private static class RecordingListener implements ChainrListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void stageCompleted( int stageIndex, String operationName, long elapsedNanos, long allocatedBytes ) {
+            Assert.assertTrue( elapsedNanos >= 0 );
+            Assert.assertEquals( allocatedBytes, -1 );
+            events.add( stageIndex + ":" + operationName );
+        }
+
+        @Override
+        public void stageFailed( int stageIndex, String operationName, long elapsedNanos, Throwable failure ) {
+            events.add( stageIndex + ":" + operationName + ":" + failure.getMessage() );
+        }
+    }
+
+    @Test
+    public void listenerIsToldAboutEachStage() throws IOException {
+        Object chainrSpec = JsonUtils.classpathToObject( "/json/chainr/increments/spec.json" );
+        RecordingListener listener = new RecordingListener();
+        Chainr chainr = new ChainrBuilder( chainrSpec ).listener( listener ).build();
+
+        Object actual = chainr.transform( 1, 3, new HashMap() );
+
+        JoltTestUtil.runDiffy( "listener changed the transform output",
+                JsonUtils.classpathToObject( "/json/chainr/increments/1-3.json" ), actual );
+        Assert.assertEquals( listener.events, Arrays.asList( "1:default", "2:default" ) );
+    }
+
+    @Test
+    public void listenerIsToldAboutFailures() throws IOException {
+        Map<String, Object> explode = new LinkedHashMap<>();
+        explode.put( "operation", ExplodingTestTransform.class.getName() );
+
+        Object chainrSpec = Arrays.asList( JsonUtils.jsonToMap( "{ \"operation\" : \"sort\" }" ), explode );
+        RecordingListener listener = new RecordingListener();
+        Chainr chainr = new ChainrBuilder( chainrSpec ).listener( listener ).build();
+
+        try {
+            chainr.transform( new HashMap() );
+            Assert.fail( "expected the ExplodingTestTransform to throw" );
+        }
+        catch ( TransformException e ) {
+            Assert.assertEquals( e.getMessage(), "kaboom" );
+        }
+        Assert.assertEquals( listener.events, Arrays.asList( "0:sort", "1:" + ExplodingTestTransform.class.getName() + ":kaboom" ) );
+    }
+
+    @Test
+    public void histogramListenerAggregatesPerStage() {
+        Object chainrSpec = JsonUtils.classpathToObject( "/json/chainr/increments/spec.json" );
+        HistogramChainrListener listener = new HistogramChainrListener( true );
+        Chainr chainr = new ChainrBuilder( chainrSpec ).listener( listener ).build();
+
+        for ( int run = 0; run < 10; run++ ) {
+            chainr.transform( new HashMap() );
+        }
+
+        List<HistogramChainrListener.StageSnapshot> snapshots = listener.snapshot();
+        Assert.assertEquals( snapshots.size(), 4 );
+        for ( int stageIndex = 0; stageIndex < 4; stageIndex++ ) {
+            HistogramChainrListener.StageSnapshot snapshot = snapshots.get( stageIndex );
+            Assert.assertEquals( snapshot.getStageIndex(), stageIndex );
+            Assert.assertEquals( snapshot.getOperationName(), "default" );
+            Assert.assertEquals( snapshot.getLatencyNanos().getCount(), 10 );
+            Assert.assertEquals( snapshot.getFailureCount(), 0 );
+            Assert.assertTrue( snapshot.getLatencyNanos().getValueAtPercentile( 50 ) <= snapshot.getLatencyNanos().getMax() );
+            Assert.assertTrue( snapshot.getAllocatedBytes() >= 0 );
+        }
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long value = 1; value <= 100000; value++ ) {
+            histogram.record( value * 1000 );
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals( snapshot.getCount(), 100000 );
+        Assert.assertEquals( snapshot.getMin(), 1000 );
+        Assert.assertEquals( snapshot.getMax(), 100000000 );
+        Assert.assertEquals( snapshot.getMean(), 50000500.0, 0.001 );
+
+        for ( double percentile : new double[] { 50, 90, 99, 99.9 } ) {
+            double exact = percentile * 1000000;
+            long reported = snapshot.getValueAtPercentile( percentile );
+            Assert.assertTrue( Math.abs( reported - exact ) / exact < 1.0 / 64, percentile + " : " + reported );
+        }
+        Assert.assertEquals( snapshot.getValueAtPercentile( 100 ), 100000000 );
+        Assert.assertEquals( new LatencyHistogram().snapshot().getValueAtPercentile( 99 ), 0 );
+    }
+}
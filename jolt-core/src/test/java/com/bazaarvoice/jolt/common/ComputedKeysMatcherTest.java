@@ -0,0 +1,251 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.SpecDriven;
+import com.bazaarvoice.jolt.common.pathelement.AmpPathElement;
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarAllPathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarDoublePathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarRegexPathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarSinglePathElement;
+import com.bazaarvoice.jolt.common.spec.BaseSpec;
+import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ComputedKeysMatcherTest {
+
+    /**
+     * BaseSpec that just records whether it was asked to apply itself.
+     */
+    private static class RecordingSpec implements BaseSpec {
+
+        private final MatchablePathElement pathElement;
+        private int applied = 0;
+
+        private RecordingSpec( String key ) {
+            this.pathElement = (MatchablePathElement) PathElementBuilder.parseSingleKeyLHS( key );
+        }
+
+        @Override
+        public MatchablePathElement getPathElement() {
+            return pathElement;
+        }
+
+        @Override
+        public boolean apply( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+            applied++;
+            return pathElement.match( inputKey, walkedPath ) != null;
+        }
+    }
+
+    /**
+     * Parent level, so that a "&" child matches the key "rating-x"
+     */
+    private static WalkedPath walkedPath() {
+        return new WalkedPath( null, new MatchedElement( "rating-x" ) );
+    }
+
+    private static List<RecordingSpec> sortedSpecs( List<String> keys ) {
+        HashMap<Class, Integer> orderMap = new HashMap<>();
+        orderMap.put( AmpPathElement.class, 1 );
+        orderMap.put( StarRegexPathElement.class, 2 );
+        orderMap.put( StarDoublePathElement.class, 3 );
+        orderMap.put( StarSinglePathElement.class, 4 );
+        orderMap.put( StarAllPathElement.class, 5 );
+
+        List<RecordingSpec> specs = new ArrayList<>();
+        for ( String key : keys ) {
+            specs.add( new RecordingSpec( key ) );
+        }
+        Collections.sort( specs, ComputedKeysComparator.fromOrder( orderMap ) );
+        return specs;
+    }
+
+    /**
+     * @return the first of the specs that matches the key, by trying all of them in order
+     */
+    private static BaseSpec linearFirstMatch( List<RecordingSpec> specs, String key ) {
+        for ( RecordingSpec spec : specs ) {
+            if ( spec.getPathElement().match( key, walkedPath() ) != null ) {
+                return spec;
+            }
+        }
+        return null;
+    }
+
+    private static BaseSpec matcherFirstMatch( List<RecordingSpec> specs, String key ) {
+        return matcherFirstMatch( new ComputedKeysMatcher( specs ), specs, key );
+    }
+
+    private static BaseSpec matcherFirstMatch( ComputedKeysMatcher matcher, List<RecordingSpec> specs, String key ) {
+        for ( RecordingSpec spec : specs ) {
+            spec.applied = 0;
+        }
+        matcher.apply( key, Optional.<Object>of( "value" ), walkedPath(), null, null );
+
+        // the last spec applied is the one that matched, if any did
+        BaseSpec last = null;
+        for ( RecordingSpec spec : specs ) {
+            if ( spec.applied > 0 ) {
+                last = spec;
+            }
+        }
+        return last != null && last.getPathElement().match( key, walkedPath() ) != null ? last : null;
+    }
+
+    @Test
+    public void samePriorityAsLinearScanTest() {
+
+        List<String> keys = new ArrayList<>();
+        // more than 64 children, so the bitsets need more than one word
+        for ( int index = 0; index < 40; index++ ) {
+            keys.add( "rating-" + index + "-*" );
+            keys.add( "*-" + index + "-range" );
+        }
+        keys.addAll( Arrays.asList( "rating-*", "*-range", "rating-*-*", "*-*-range", "rat*ge", "&", "*" ) );
+
+        List<RecordingSpec> specs = sortedSpecs( keys );
+        ComputedKeysMatcher uncached = new ComputedKeysMatcher( specs, 0 );
+        ComputedKeysMatcher cached = new ComputedKeysMatcher( specs, 1024 );
+
+        // twice, so that the second time around is answered by the dispatch cache
+        for ( int pass = 0; pass < 2; pass++ ) {
+            for ( String key : Arrays.asList( "rating-7-x", "x-12-range", "rating-7-range", "rating-99-range", "rating-x",
+                                              "ratinge", "rating-range", "nope", "", "-range", "rating-" ) ) {
+                BaseSpec expected = linearFirstMatch( specs, key );
+                Assert.assertSame( matcherFirstMatch( uncached, specs, key ), expected, key );
+                Assert.assertSame( matcherFirstMatch( cached, specs, key ), expected, key );
+            }
+        }
+
+        Assert.assertEquals( uncached.getDispatchCacheHits() + uncached.getDispatchCacheMisses(), 0 );
+        Assert.assertEquals( cached.getDispatchCacheMisses(), 11 );
+        Assert.assertEquals( cached.getDispatchCacheHits(), 11 );
+    }
+
+    @Test
+    public void dispatchCacheOnlyAppliesTheCachedChildTest() {
+
+        List<RecordingSpec> specs = sortedSpecs( Arrays.asList( "rating-*", "rating-*-*", "tuna-*", "*" ) );
+        ComputedKeysMatcher matcher = new ComputedKeysMatcher( specs, 16 );
+
+        matcherFirstMatch( matcher, specs, "rating-value" );
+        BaseSpec matched = matcherFirstMatch( matcher, specs, "rating-value" );
+
+        Assert.assertEquals( matcher.getDispatchCacheHits(), 1 );
+        for ( RecordingSpec spec : specs ) {
+            Assert.assertEquals( spec.applied, spec == matched ? 1 : 0, spec.getPathElement().getRawKey() );
+        }
+        Assert.assertEquals( matched.getPathElement().getRawKey(), "rating-*" );
+    }
+
+    @Test
+    public void dispatchCacheIsBoundedTest() {
+
+        List<RecordingSpec> specs = sortedSpecs( Arrays.asList( "rating-*", "*" ) );
+        ComputedKeysMatcher matcher = new ComputedKeysMatcher( specs, 10 );
+
+        for ( int index = 0; index < 100; index++ ) {
+            Assert.assertNotNull( matcherFirstMatch( matcher, specs, "key" + index ) );
+        }
+
+        Assert.assertEquals( matcher.getDispatchCacheSize(), 10 );
+        Assert.assertEquals( matcher.getDispatchCacheMisses(), 100 );
+    }
+
+    @Test
+    public void scalarValuesDoNotFillTheDispatchCacheTest() {
+
+        List<RecordingSpec> specs = sortedSpecs( Arrays.asList( "rating-*", "*" ) );
+        ComputedKeysMatcher matcher = new ComputedKeysMatcher( specs, 10 );
+
+        // lots of distinct values first, aka ids under a "*"
+        for ( int index = 0; index < 100; index++ ) {
+            Assert.assertTrue( matcher.applyToScalar( "id" + index, Optional.empty(), walkedPath(), null, null ) );
+        }
+        Assert.assertEquals( matcher.getDispatchCacheSize(), 0 );
+
+        // then the keys the cache is for still get cached
+        for ( int pass = 0; pass < 2; pass++ ) {
+            Assert.assertEquals( matcherFirstMatch( matcher, specs, "rating-value" ).getPathElement().getRawKey(), "rating-*" );
+        }
+        Assert.assertEquals( matcher.getDispatchCacheSize(), 1 );
+        Assert.assertEquals( matcher.getDispatchCacheHits(), 1 );
+    }
+
+    @Test
+    public void shiftrScalarValuesDoNotFillTheDispatchCacheTest() {
+
+        // the inner "*" is handed the scalar values of the outer one, and matches them as keys
+        Map<String, Object> spec = JsonUtils.javason( "{ '*' : { 'a*' : 'keys.&1', '*' : 'values.&1' } }" );
+        ShiftrCompositeSpec rootSpec = new ShiftrCompositeSpec( SpecDriven.ROOT_KEY, spec, 10 );
+        ShiftrCompositeSpec starSpec = (ShiftrCompositeSpec) rootSpec.getComputedChildren().get( 0 );
+
+        Map<String, Object> input = new LinkedHashMap<>();
+        for ( int index = 0; index < 100; index++ ) {
+            input.put( "k" + index, "v" + index );
+        }
+        input.put( "obj", JsonUtils.javason( "{ 'a1' : 1, 'b1' : 2 }" ) );
+
+        WalkedPath walkedPath = new WalkedPath();
+        walkedPath.add( input, new MatchedElement( SpecDriven.ROOT_KEY ) );
+        Map<String, Object> output = new HashMap<>();
+        rootSpec.apply( SpecDriven.ROOT_KEY, Optional.<Object>of( input ), walkedPath, output, null );
+
+        Assert.assertEquals( starSpec.getComputedKeysMatcher().getDispatchCacheSize(), 2 );
+        Assert.assertEquals( starSpec.getComputedKeysMatcher().getDispatchCacheMisses(), 2 );
+    }
+
+    @Test
+    public void pathDependentChildStillWinsOverCachedStarTest() {
+
+        List<RecordingSpec> specs = sortedSpecs( Arrays.asList( "&", "rating-*" ) );
+        ComputedKeysMatcher matcher = new ComputedKeysMatcher( specs, 16 );
+
+        for ( int pass = 0; pass < 2; pass++ ) {
+            Assert.assertEquals( matcherFirstMatch( matcher, specs, "rating-x" ).getPathElement().getRawKey(), "&" );
+            Assert.assertEquals( matcherFirstMatch( matcher, specs, "rating-y" ).getPathElement().getRawKey(), "rating-*" );
+        }
+        Assert.assertEquals( matcher.getDispatchCacheHits(), 2 );
+    }
+
+    @Test
+    public void skipsChildrenThatCanNotMatchTest() {
+
+        List<RecordingSpec> specs = sortedSpecs( Arrays.asList( "rating-*", "tuna-*", "*-marlin", "*" ) );
+
+        matcherFirstMatch( specs, "rating-value" );
+
+        for ( RecordingSpec spec : specs ) {
+            String key = spec.getPathElement().getRawKey();
+            int expected = "rating-*".equals( key ) ? 1 : 0;
+            Assert.assertEquals( spec.applied, expected, key );
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.JoltTestUtil;
+import com.bazaarvoice.jolt.JsonUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JsonCopierTest {
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void copyTest() throws Exception {
+
+        Object input = JsonUtils.classpathToObject( "/json/deepcopy/original.json" );
+
+        Map<String, Object> fiddle = (Map<String, Object>) JsonCopier.copy( input );
+
+        JoltTestUtil.runDiffy( "Verify that the JsonCopier did in fact make a copy.", input, fiddle );
+
+        // Same as the DeepCopyTest, manipulate the copy, and verify that the original did not change
+        List array = (List) fiddle.get( "array" );
+        array.add( "c" );
+        array.set( 1, 3 );
+        Map<String,Object> subMap = (Map<String,Object>) fiddle.get( "map" );
+        subMap.put("c", "c");
+        subMap.put("b", 3 );
+
+        Object unmodified = JsonUtils.classpathToObject( "/json/deepcopy/original.json" );
+        JoltTestUtil.runDiffy( "Verify that the copy was actually deep / input is unmodified", unmodified, input );
+
+        Object expectedModified = JsonUtils.classpathToObject( "/json/deepcopy/modifed.json" );
+        JoltTestUtil.runDiffy( "Verify fiddled post copy object looks correct / was modifed.", expectedModified, fiddle );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void copyPreservesKeyOrderAndSharesScalars() throws Exception {
+
+        Map<String, Object> input = JsonUtils.jsonToMap( "{ \"z\" : \"zed\", \"a\" : 1, \"m\" : [ 2.5, true, null ] }" );
+
+        Map<String, Object> copy = (Map<String, Object>) JsonCopier.copy( input );
+
+        Iterator<String> keys = copy.keySet().iterator();
+        Assert.assertEquals( keys.next(), "z" );
+        Assert.assertEquals( keys.next(), "a" );
+        Assert.assertEquals( keys.next(), "m" );
+
+        Assert.assertNotSame( copy.get( "m" ), input.get( "m" ) );
+        Assert.assertSame( copy.get( "z" ), input.get( "z" ) );
+        Assert.assertSame( copy.get( "a" ), input.get( "a" ) );
+        Assert.assertSame( ( (List) copy.get( "m" ) ).get( 0 ), ( (List) input.get( "m" ) ).get( 0 ) );
+    }
+
+    @Test
+    public void mutableNumbersAreCopied() {
+
+        List<Object> input = new ArrayList<>();
+        input.add( new AtomicLong( 5 ) );
+
+        List copy = (List) JsonCopier.copy( input );
+
+        Assert.assertNotSame( copy.get( 0 ), input.get( 0 ) );
+        Assert.assertEquals( ( (AtomicLong) copy.get( 0 ) ).get(), 5L );
+    }
+}
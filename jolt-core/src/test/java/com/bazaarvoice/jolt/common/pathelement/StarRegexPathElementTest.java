@@ -20,6 +20,10 @@ import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public class StarRegexPathElementTest {
 
     @DataProvider
@@ -60,4 +64,86 @@ public class StarRegexPathElementTest {
         Assert.assertNull( multiMetacharStarpathelement.match( "rating-$capGrp1-capGrp2", null ) );
         Assert.assertNotNull(multiMetacharStarpathelement.match( "rating-$-capGrp1-capGrp2",null) );
     }
+
+    @DataProvider
+    public Object[][] getManyStarTests() {
+        return new Object[][] {
+                {"three stars",         "rating-*-*-*",   "rating-a-b-c",         new String[] { "a", "b", "c" }},
+                {"adjacent stars",      "rating-**",      "rating-abc",           new String[] { "a", "bc" }},
+                {"leading and trailing","*-*-*",          "x--y-z-",              new String[] { "x", "-y", "z-" }},
+                {"only stars",          "***",            "abcd",                 new String[] { "a", "b", "cd" }},
+                {"regex metachars",     "a(b)*[c]*.+",    "a(b)x[c]y.+",          new String[] { "x", "y" }},
+        };
+    }
+
+    @Test( dataProvider = "getManyStarTests")
+    public void manyStarTest( String testName, String spec, String dataKey, String[] expected ) {
+
+        MatchedElement lpe = new StarRegexPathElement( spec ).match( dataKey, null );
+
+        Assert.assertNotNull( lpe, testName );
+        Assert.assertEquals( lpe.getSubKeyCount(), expected.length + 1, testName );
+        for ( int index = 0; index < expected.length; index++ ) {
+            Assert.assertEquals( lpe.getSubKeyRef( index + 1 ), expected[index], testName );
+        }
+    }
+
+    /**
+     * Compares the captures against the reluctant regex this class used to be built on, for random keys over a small alphabet.
+     */
+    @Test
+    public void sameCapturesAsReluctantRegexTest() {
+
+        Random random = new Random( 12345 );
+        String alphabet = "-ab";
+
+        for ( int specIndex = 0; specIndex < 200; specIndex++ ) {
+
+            StringBuilder spec = new StringBuilder();
+            StringBuilder regex = new StringBuilder( "^" );
+            int starCount = 0;
+            int specLength = 2 + random.nextInt( 6 );
+            for ( int index = 0; index < specLength; index++ ) {
+                if ( random.nextInt( 3 ) == 0 || ( starCount < 2 && index > 2 ) ) {
+                    spec.append( '*' );
+                    regex.append( "(.+?)" );
+                    starCount++;
+                }
+                else {
+                    char c = alphabet.charAt( random.nextInt( alphabet.length() ) );
+                    spec.append( c );
+                    regex.append( Pattern.quote( String.valueOf( c ) ) );
+                }
+            }
+            if ( starCount < 2 ) {
+                continue;
+            }
+            regex.append( '$' );
+
+            StarPathElement star = new StarRegexPathElement( spec.toString() );
+            Pattern pattern = Pattern.compile( regex.toString() );
+
+            for ( int keyIndex = 0; keyIndex < 50; keyIndex++ ) {
+                StringBuilder key = new StringBuilder();
+                int keyLength = random.nextInt( 12 );
+                for ( int index = 0; index < keyLength; index++ ) {
+                    key.append( alphabet.charAt( random.nextInt( alphabet.length() ) ) );
+                }
+
+                Matcher matcher = pattern.matcher( key );
+                MatchedElement lpe = star.match( key.toString(), null );
+                String message = spec + " vs " + key;
+
+                Assert.assertEquals( star.stringMatch( key.toString() ), matcher.find(), message );
+                if ( lpe == null ) {
+                    Assert.assertFalse( star.stringMatch( key.toString() ), message );
+                    continue;
+                }
+                Assert.assertEquals( lpe.getSubKeyCount(), matcher.groupCount() + 1, message );
+                for ( int group = 1; group <= matcher.groupCount(); group++ ) {
+                    Assert.assertEquals( lpe.getSubKeyRef( group ), matcher.group( group ), message );
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common.spec;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.Shiftr;
+import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bazaarvoice.jolt.SpecDriven.ROOT_KEY;
+
+public class OrderedCompositeSpecTest {
+
+    /**
+     * An OrderedCompositeSpec written against the interface before it had getLiteralChildrenIndex
+     *  and getComputedKeysMatcher, so it gets their default implementations.
+     */
+    private static final class OldStyleSpec implements OrderedCompositeSpec {
+
+        private final ShiftrCompositeSpec delegate;
+
+        private OldStyleSpec( ShiftrCompositeSpec delegate ) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<String, ? extends BaseSpec> getLiteralChildren() {
+            return delegate.getLiteralChildren();
+        }
+
+        @Override
+        public List<? extends BaseSpec> getComputedChildren() {
+            return delegate.getComputedChildren();
+        }
+
+        @Override
+        public ExecutionStrategy determineExecutionStrategy() {
+            return delegate.determineExecutionStrategy();
+        }
+
+        @Override
+        public MatchablePathElement getPathElement() {
+            return delegate.getPathElement();
+        }
+
+        @Override
+        public boolean apply( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+            walkedPath.add( inputOptional.get(), new MatchedElement( inputKey ) );
+            determineExecutionStrategy().process( this, inputOptional, walkedPath, output, context );
+            walkedPath.removeLast();
+            return true;
+        }
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void defaultsWalkTheChildrenLikeTheStockSpec() throws IOException {
+
+        Map<String, Object> spec = JsonUtils.jsonToMap( "{ \"rating\" : { \"primary\" : \"Rating\", \"*\" : \"Secondary.&\" }, \"tag*\" : \"tags.&(0,1)\" }" );
+        Map<String, Object> input = JsonUtils.jsonToMap( "{ \"tagA\" : 1, \"rating\" : { \"primary\" : 5, \"quality\" : 3 }, \"tagB\" : 2, \"other\" : 0 }" );
+
+        OldStyleSpec oldStyleSpec = new OldStyleSpec( new ShiftrCompositeSpec( ROOT_KEY, spec ) );
+        // no index or matcher, so the executionStrategy walks the children themselves
+        Assert.assertNull( oldStyleSpec.getLiteralChildrenIndex() );
+        Assert.assertNull( oldStyleSpec.getComputedKeysMatcher() );
+
+        Map<String, Object> output = new HashMap<>();
+        oldStyleSpec.apply( ROOT_KEY, Optional.<Object>of( input ), new WalkedPath(), output, null );
+
+        Assert.assertEquals( output.get( ROOT_KEY ), new Shiftr( spec ).transform( input ) );
+        Assert.assertEquals( ( (Map<String, Object>) output.get( ROOT_KEY ) ).get( "tags" ), JsonUtils.jsonToMap( "{ \"A\" : 1, \"B\" : 2 }" ) );
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common.tree;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public class WalkedPathTest {
+
+    @Test
+    public void pushAndPopReusesPathSteps() {
+        MatchedElement root = new MatchedElement( "root" );
+        MatchedElement first = new MatchedElement( "first" );
+        MatchedElement second = new MatchedElement( "second" );
+
+        WalkedPath walkedPath = new WalkedPath( "rootData", root );
+        walkedPath.add( "firstData", first );
+        PathStep slot = walkedPath.lastElement();
+        walkedPath.removeLast();
+
+        walkedPath.add( "secondData", second );
+        Assert.assertSame( walkedPath.lastElement(), slot );
+        Assert.assertEquals( walkedPath.lastElement().getTreeRef(), "secondData" );
+        Assert.assertSame( walkedPath.lastElement().getMatchedElement(), second );
+        Assert.assertSame( walkedPath.elementFromEnd( 1 ).getMatchedElement(), root );
+        Assert.assertEquals( walkedPath.size(), 2 );
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        WalkedPath walkedPath = new WalkedPath();
+        for ( int level = 0; level < 100; level++ ) {
+            walkedPath.add( level, new MatchedElement( String.valueOf( level ) ) );
+        }
+        Assert.assertEquals( walkedPath.size(), 100 );
+        Assert.assertEquals( walkedPath.elementFromEnd( 99 ).getTreeRef(), 0 );
+        Assert.assertEquals( walkedPath.lastElement().getMatchedElement().getRawKey(), "99" );
+    }
+
+    @Test
+    public void listOperationsCopyPathSteps() {
+        PathStep external = new PathStep( "data", new MatchedElement( "key" ) );
+        WalkedPath walkedPath = new WalkedPath( Arrays.asList( external ) );
+
+        walkedPath.removeLast();
+        walkedPath.add( "other", new MatchedElement( "other" ) );
+
+        // the caller's PathStep was copied, so reusing the slot did not change it
+        Assert.assertEquals( external.getTreeRef(), "data" );
+        Assert.assertEquals( external.getMatchedElement().getRawKey(), "key" );
+    }
+
+    @Test
+    public void arrayMatchesHaveAnOrigSize() {
+        WalkedPath walkedPath = new WalkedPath( "data", new ArrayMatchedElement( "0", 3 ) );
+        Assert.assertEquals( (int) walkedPath.lastElement().getOrigSize().get(), 3 );
+
+        walkedPath.removeLast();
+        walkedPath.add( "data", new MatchedElement( "key" ) );
+        Assert.assertFalse( walkedPath.lastElement().getOrigSize().isPresent() );
+    }
+
+    @Test( expectedExceptions = IndexOutOfBoundsException.class )
+    public void subKeyRefOutOfRange() {
+        new MatchedElement( "key", "capture" ).getSubKeyRef( 2 );
+    }
+}
@@ -17,14 +17,18 @@
 package com.bazaarvoice.jolt.modifier.function;
 
 import com.bazaarvoice.jolt.common.Optional;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import static com.bazaarvoice.jolt.modifier.function.Math.abs;
 import static com.bazaarvoice.jolt.modifier.function.Objects.toNumber;
@@ -51,6 +55,8 @@ public class MathTest extends AbstractTester {
         Function DOUBLE_SUBTRACT_OF = new Math.doubleSubtract();
         Function LONG_SUBTRACT_OF = new Math.longSubtract();
 
+        Function AVG_OF = new Math.avg();
+
         Function DIV_OF = new Math.divide();
         Function DIV_AND_ROUND_OF = new Math.divideAndRound();
 
@@ -246,6 +252,23 @@ public class MathTest extends AbstractTester {
         testCases.add( new Object[] { "longsum-single-value",            LONG_SUM_OF,   2, Optional.empty()});
         testCases.add( new Object[] { "longsum-combo-intstring-array",   LONG_SUM_OF,   Arrays.asList(1L, 2, "-3.0", 0),    Optional.of(0L)});
 
+        // doubles are summed with compensation, so the small values are not lost next to the big ones
+        testCases.add( new Object[] { "doublesum-compensated",           DOUBLE_SUM_OF, Arrays.asList(1e16, 1.0, -1e16),     Optional.of(1.0)});
+        testCases.add( new Object[] { "doublesum-tenths",                DOUBLE_SUM_OF, Collections.nCopies( 10, 0.1 ),       Optional.of(1.0)});
+        testCases.add( new Object[] { "doublesum-infinity",              DOUBLE_SUM_OF, Arrays.asList(1.0, Double.POSITIVE_INFINITY, 2.0), Optional.of(Double.POSITIVE_INFINITY)});
+        testCases.add( new Object[] { "doublesum-overflow",              DOUBLE_SUM_OF, Arrays.asList(Double.MAX_VALUE, Double.MAX_VALUE), Optional.of(Double.POSITIVE_INFINITY)});
+        testCases.add( new Object[] { "doublesum-nan",                   DOUBLE_SUM_OF, Arrays.asList(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY), Optional.of(Double.NaN)});
+        testCases.add( new Object[] { "avg-compensated",                 AVG_OF,        Arrays.asList(1e16, 1.0, -1e16, "2.0"), Optional.of(0.75)});
+        testCases.add( new Object[] { "avg-ints",                        AVG_OF,        Arrays.asList(1, 2, 3, 4),           Optional.of(2.5)});
+        testCases.add( new Object[] { "avg-long-overflow",               AVG_OF,        Arrays.asList(Long.MAX_VALUE, Long.MAX_VALUE, 2L), Optional.of((2.0 * Long.MAX_VALUE + 2) / 3)});
+        testCases.add( new Object[] { "avg-ints-and-doubles",            AVG_OF,        Arrays.asList(1, "2", 0.5, 2L),      Optional.of(1.375)});
+        testCases.add( new Object[] { "avg-nothing",                     AVG_OF,        Arrays.asList("a", null),            Optional.empty()});
+        testCases.add( new Object[] { "intsum-overflow-wraps",           INT_SUM_OF,    Arrays.asList(Integer.MAX_VALUE, 1), Optional.of(Integer.MIN_VALUE)});
+        testCases.add( new Object[] { "intsum-truncates-doubles",        INT_SUM_OF,    Arrays.asList(1.9, 1.9, new BigDecimal( "2.5" )), Optional.of(4)});
+        testCases.add( new Object[] { "longsum-big-ints",                LONG_SUM_OF,   Arrays.asList(Integer.MAX_VALUE, Integer.MAX_VALUE), Optional.of(2L * Integer.MAX_VALUE)});
+        testCases.add( new Object[] { "max-large-ints",                  MAX_OF,        Arrays.asList(100000, 99999, -5),    Optional.of(100000)});
+        testCases.add( new Object[] { "min-large-longs-and-strings",     MIN_OF,        Arrays.asList(100000L, "-99999", 7), Optional.of(-99999)});
+
         testCases.add( new Object[] { "intsubtract-happy-path",      INT_SUBTRACT_OF,  Arrays.asList(4, 1),  Optional.of(3)});
         testCases.add( new Object[] { "intsubtract-single-value",    INT_SUBTRACT_OF,  2,                    Optional.empty()});
         testCases.add( new Object[] { "intsubtract-wrong-type",      INT_SUBTRACT_OF,  Arrays.asList(4L, 1), Optional.empty()});
@@ -279,6 +302,27 @@ public class MathTest extends AbstractTester {
         return testCases.iterator();
     }
 
+    /**
+     * Compensated sums of many doubles should land within an ulp or so of the exact sum, where a plain running sum drifts.
+     */
+    @Test
+    public void testDoubleSumAccuracy() {
+        Random random = new Random( 24 );
+        for ( int run = 0; run < 20; run++ ) {
+            List<Object> values = new ArrayList<>();
+            BigDecimal exact = BigDecimal.ZERO;
+            for ( int index = 0; index < 10000; index++ ) {
+                double value = ( random.nextDouble() - 0.3 ) * java.lang.Math.pow( 10, random.nextInt( 12 ) );
+                values.add( value );
+                exact = exact.add( new BigDecimal( value ) );
+            }
+            double expected = exact.doubleValue();
+            double actual = Math.doubleSum( values ).get();
+            Assert.assertEquals( actual, expected, 2 * java.lang.Math.ulp( expected ), "run " + run );
+            Assert.assertEquals( Math.avg( values ).get(), expected / values.size(), 2 * java.lang.Math.ulp( expected / values.size() ), "run " + run );
+        }
+    }
+
     @Test
     @SuppressWarnings( "all" )
     public void testNitPicks() {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.bazaarvoice.jolt.modifier.function;
+
+import com.bazaarvoice.jolt.common.Optional;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Checks the non-throwing parse helpers in Objects against the JDK parsers they stand in for.
+ */
+public class ObjectsTest {
+
+    @DataProvider
+    public Object[][] getNumberStrings() {
+        return new Object[][] {
+            { "0" }, { "123" }, { "-123" }, { "+123" }, { "-" }, { "+" }, { "" }, { " 1" }, { "1 " },
+            { "2147483647" }, { "2147483648" }, { "-2147483648" }, { "-2147483649" },
+            { "9223372036854775807" }, { "9223372036854775808" }, { "-9223372036854775808" }, { "-9223372036854775809" },
+            { "00000000000000000000001" }, { "١٢" },
+            { "12.3" }, { "1." }, { ".5" }, { "." }, { "-.5" }, { "1e5" }, { "1E-5" }, { "1e" }, { "1e+" }, { "e5" }, { ".e5" },
+            { "1.0d" }, { "1.0F" }, { "1f " }, { "1fd" }, { "1.2.3" }, { "--1" }, { "+-1" },
+            { "NaN" }, { "-NaN" }, { "Infinity" }, { "-Infinity" }, { "+Infinity" }, { "Inf" }, { "NaNa" }, { "nan" },
+            { "0x1p3" }, { "0X1.8P-1d" }, { "0x.8p1" }, { "0x1" }, { "0xp1" }, { "-0x1p3f" },
+            { "abc" }, { "12abc" }, { "\t42\n" }, { "1_000" }
+        };
+    }
+
+    @Test( dataProvider = "getNumberStrings" )
+    public void parsesLikeTheJdk( String value ) {
+        assertParsesLikeTheJdk( value );
+    }
+
+    @Test
+    public void parsesRandomStringsLikeTheJdk() {
+        Random random = new Random( 2121 );
+        String alphabet = "0123456789+-.eExXpPfFdDaN I١";
+        for ( int run = 0; run < 50000; run++ ) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt( 8 );
+            for ( int index = 0; index < length; index++ ) {
+                sb.append( alphabet.charAt( random.nextInt( alphabet.length() ) ) );
+            }
+            assertParsesLikeTheJdk( sb.toString() );
+        }
+    }
+
+    @Test
+    public void toNumberPicksTheNarrowestType() {
+        Assert.assertEquals( Objects.toNumber( "123" ).get(), 123 );
+        Assert.assertEquals( Objects.toNumber( "9223372036854775807" ).get(), Long.MAX_VALUE );
+        Assert.assertEquals( Objects.toNumber( "9223372036854775808" ).get(), 9223372036854775808d );
+        Assert.assertEquals( Objects.toNumber( " 12 " ).get(), 12d );
+        Assert.assertFalse( Objects.toNumber( "abc" ).isPresent() );
+        Assert.assertFalse( Objects.toNumber( null ).isPresent() );
+    }
+
+    private static void assertParsesLikeTheJdk( String value ) {
+        Integer expectedInteger = null;
+        try {
+            expectedInteger = Integer.parseInt( value );
+        }
+        catch ( NumberFormatException ignored ) {}
+        assertSame( Objects.parseInteger( value ), expectedInteger, "parseInteger(" + value + ")" );
+
+        Long expectedLong = null;
+        try {
+            expectedLong = Long.parseLong( value );
+        }
+        catch ( NumberFormatException ignored ) {}
+        assertSame( Objects.parseLong( value ), expectedLong, "parseLong(" + value + ")" );
+
+        Double expectedDouble = null;
+        try {
+            expectedDouble = Double.parseDouble( value );
+        }
+        catch ( NumberFormatException ignored ) {}
+        assertSame( Objects.parseDouble( value ), expectedDouble, "parseDouble(" + value + ")" );
+    }
+
+    private static void assertSame( Optional<?> actual, Object expected, String message ) {
+        Assert.assertEquals( actual.isPresent(), expected != null, message );
+        if ( expected != null ) {
+            Assert.assertEquals( actual.get(), expected, message );
+        }
+    }
+}
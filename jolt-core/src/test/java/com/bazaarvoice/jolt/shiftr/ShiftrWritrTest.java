@@ -26,9 +26,14 @@ import com.bazaarvoice.jolt.common.reference.AmpReference;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // Todo Now that the PathElement classes have been split out (no longer inner classes)
 //  each class should get a test
@@ -177,4 +182,58 @@ public class ShiftrWritrTest {
         Assert.assertEquals( "3",      stringPath.get( 3 ) );
         Assert.assertEquals( "BBB",    stringPath.get( 4 ) );
     }
+
+    @DataProvider
+    public Object[][] getWritePaths() {
+        return new Object[][] {
+                { "a.b.c" },
+                { "a.&1.value" },
+                { "a.tuna-&(1,1)-marlin.value" },
+                { "a[&(1,1)].value" },
+                { "a[&(0,1)].value" },        // "BBB" is not an index, so nothing is written
+                { "a[].value" },
+                { "a[1][]" },
+                { "a[#2].&" },
+                { "[0].a" },                  // the output is a Map, so nothing is written
+                { "a.b" },
+        };
+    }
+
+    /**
+     * The precomputed write plan has to leave the output exactly as evaluating the path and doing a ShiftrTraversr set does.
+     */
+    @Test( dataProvider = "getWritePaths" )
+    public void writePlanMatchesTraversrTest( String dotNotation ) {
+
+        MatchablePathElement pe1 = (MatchablePathElement) PathElementBuilder.parseSingleKeyLHS( "tuna-*-marlin-*" );
+        MatchablePathElement pe2 = (MatchablePathElement) PathElementBuilder.parseSingleKeyLHS( "rating-*" );
+        MatchedElement lpe = pe1.match( "tuna-2-marlin-3", new WalkedPath() );
+        MatchedElement lpe2 = pe2.match( "rating-BBB", new WalkedPath( null, lpe ) );
+
+        WalkedPath walkedPath = new WalkedPath( null, new MatchedElement( "root" ) );
+        walkedPath.add( null, lpe );
+        walkedPath.add( null, lpe2 );
+
+        ShiftrWriter writer = new ShiftrWriter( dotNotation );
+
+        List<String> canonicalPaths = new ArrayList<>();
+        for ( int index = 0; index < writer.size(); index++ ) {
+            canonicalPaths.add( writer.get( index ).getCanonicalForm() );
+        }
+        ShiftrTraversr<Object> traversr = new ShiftrTraversr<>( canonicalPaths );
+
+        Map<String, Object> planned = new HashMap<>();
+        Map<String, Object> traversed = new HashMap<>();
+
+        // the same spot written more than once, including nulls, so the "make it a list" logic kicks in
+        for ( Object data : Arrays.asList( null, "x", 3, null, "y" ) ) {
+            writer.write( data, planned, walkedPath );
+
+            List<String> keys = writer.evaluate( walkedPath );
+            if ( keys != null ) {
+                traversr.set( traversed, keys, data );
+            }
+            Assert.assertEquals( planned, traversed, dotNotation );
+        }
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.bazaarvoice.jolt;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,54 +26,65 @@ import java.util.Map;
  * Useful for diffing JSON created from Java Tools that do not
  *  care about preserving JSON array order from call to call.
  *  *cough* DevAPI *cough*
+ *
+ * List elements are matched up as a multiset : elements are bucketed by a structural hash that ignores
+ *  array order, and only elements in the same bucket are compared to each other.
+ *
+ * A subclass that overrides diffScalar, diffMap, diffList or diffHelper gets the old behavior instead :
+ *  every element is compared to every other one with diff, so that its overrides decide what matches.
  */
 public class ArrayOrderObliviousDiffy extends Diffy {
 
+    private static final int MAP_SEED = 0x4D415053;
+    private static final int LIST_SEED = 0x4C495354;
+
+    // true if a subclass changed how elements diff, so only diff itself can tell which elements match
+    private final boolean overridesDiff;
+
+    // false if a subclass changed what scalarEquals means, without saying how to hash scalars to match
+    private final boolean hashScalars;
+
     public ArrayOrderObliviousDiffy(JsonUtil jsonUtil) {
         super(jsonUtil);
+        overridesDiff = overridesDiff( getClass() );
+        hashScalars = !overridesDiff && !overridesScalarEqualsOnly( getClass() );
     }
 
-    public ArrayOrderObliviousDiffy() {super();}
+    public ArrayOrderObliviousDiffy() {
+        super();
+        overridesDiff = overridesDiff( getClass() );
+        hashScalars = !overridesDiff && !overridesScalarEqualsOnly( getClass() );
+    }
 
     @Override
     protected Result diffList(List<Object> expected, List<Object> actual) {
 
-        // First we got thru an n^2 operation to compare the two lists
+        // First we match up the elements of the two lists.
+        // Rather than an n^2 compare of every pair, bucket the actual elements by their structural hash,
+        //  so that each expected element only gets compared to the actual elements that could be its match.
+        Map<Integer, List<Integer>> actualIndexesByHash = indexesByHash( actual );
+
         for (int expectedIndex=0; expectedIndex < expected.size(); expectedIndex++) {
 
             Object exp = expected.get(expectedIndex);
+            if ( exp == null ) {
+                continue;
+            }
 
-            for(int actualIndex=0; actualIndex < actual.size(); actualIndex++) {
-                Object act = actual.get(actualIndex);
+            List<Integer> bucket = actualIndexesByHash.get( structuralHash( exp ) );
+            if ( bucket == null ) {
+                continue;
+            }
 
-                if ( exp == null && act == null ) {
-                    // great, we "found a match"
+            // The bucket is in actual index order, so this picks the same match the n^2 scan would have
+            for ( int bucketIndex = 0; bucketIndex < bucket.size(); bucketIndex++ ) {
+                int actualIndex = bucket.get( bucketIndex );
+                if ( isMatch( exp, actual.get( actualIndex ) ) ) {
+                    expected.set(expectedIndex, null);
+                    actual.set(actualIndex, null);
+                    bucket.remove( bucketIndex );
                     break;
                 }
-
-                if( act != null && exp != null ) {
-
-                    // Ideally the equals method finds a match, works for identical maps and simple Strings and numbers
-                    // Also try the sub-classable diffScalar if the normal ".equals" does not work
-                    if ( act.equals(exp) || diffScalar( exp, act ).isEmpty() ) {
-                        // if the indicies match nuke them
-                        expected.set(expectedIndex, null);
-                        actual.set(actualIndex, null);
-                        break;
-                    }
-                    else if ( (exp instanceof List && act instanceof List) ||
-                              (exp instanceof Map  && act instanceof Map) ) {
-
-                        // ugh, n^2 again, but enter from the top so a copy is made
-                        Diffy.Result result = diff( exp, act );
-                        if ( result.isEmpty() ) {
-                            // score!
-                            expected.set(expectedIndex, null);
-                            actual.set(actualIndex, null);
-                            break;
-                        }
-                    }
-                }
             }
         }
 
@@ -109,6 +122,174 @@ public class ArrayOrderObliviousDiffy extends Diffy {
         return new Result( expected, actual );
     }
 
+    @Override
+    protected boolean isEqualList(List<Object> expected, List<Object> actual) {
+
+        if ( overridesDiff ) {
+            return diff( expected, actual ).isEmpty();
+        }
+
+        // Cheap check first, lists that are in the same order need no buckets
+        if ( super.isEqualList( expected, actual ) ) {
+            return true;
+        }
+
+        Map<Integer, List<Integer>> actualIndexesByHash = indexesByHash( actual );
+        for (Object exp : expected) {
+            if ( exp == null ) {
+                continue;
+            }
+
+            List<Integer> bucket = actualIndexesByHash.get( structuralHash( exp ) );
+            if ( bucket == null ) {
+                return false;
+            }
+
+            boolean found = false;
+            for ( int bucketIndex = 0; bucketIndex < bucket.size(); bucketIndex++ ) {
+                if ( isEqualHelper( exp, actual.get( bucket.get( bucketIndex ) ) ) ) {
+                    bucket.remove( bucketIndex );
+                    found = true;
+                    break;
+                }
+            }
+            if ( !found ) {
+                return false;
+            }
+        }
+
+        // every non-null actual element has to have been matched
+        for ( List<Integer> bucket : actualIndexesByHash.values() ) {
+            if ( !bucket.isEmpty() ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the indexes of the non-null elements of the list, bucketed by structural hash, in index order
+     */
+    private Map<Integer, List<Integer>> indexesByHash( List<Object> list ) {
+
+        Map<Integer, List<Integer>> indexesByHash = new HashMap<>();
+        for (int index=0; index < list.size(); index++) {
+            Object element = list.get(index);
+            if ( element != null ) {
+                Integer hash = structuralHash( element );
+                List<Integer> bucket = indexesByHash.get( hash );
+                if ( bucket == null ) {
+                    bucket = new ArrayList<>( 1 );
+                    indexesByHash.put( hash, bucket );
+                }
+                bucket.add( index );
+            }
+        }
+        return indexesByHash;
+    }
+
+    private boolean isMatch( Object exp, Object act ) {
+
+        // Ideally the equals method finds a match, works for identical maps and simple Strings and numbers
+        // Also try the sub-classable diffScalar if the normal ".equals" does not work
+        if ( act.equals(exp) || diffScalar( exp, act ).isEmpty() ) {
+            return true;
+        }
+        if ( (exp instanceof List && act instanceof List) ||
+             (exp instanceof Map  && act instanceof Map) ) {
+
+            // diffHelper is destructive, so either diff a copy, when only that honors the subclass, or use the read-only walk
+            return overridesDiff ? diff( exp, act ).isEmpty() : isEqualHelper( exp, act );
+        }
+        return false;
+    }
+
+    /**
+     * Hash of a JSON element, such that any two elements this Diffy considers equal have the same hash.
+     *
+     * Lists hash the same regardless of element order, and null List elements and null Map values
+     *  are skipped, as the diff treats them as "nothing to match".
+     */
+    @SuppressWarnings( "unchecked" )
+    private int structuralHash( Object json ) {
+
+        if ( json == null || overridesDiff ) {
+            return 0;
+        }
+        if ( json instanceof Map ) {
+            int hash = MAP_SEED;
+            for ( Map.Entry<String, Object> entry : ((Map<String, Object>) json).entrySet() ) {
+                if ( entry.getValue() != null ) {
+                    hash += mix( String.valueOf( entry.getKey() ).hashCode() * 31 + structuralHash( entry.getValue() ) );
+                }
+            }
+            return hash;
+        }
+        if ( json instanceof List ) {
+            int hash = LIST_SEED;
+            for ( Object element : (List<Object>) json ) {
+                if ( element != null ) {
+                    hash += mix( structuralHash( element ) );
+                }
+            }
+            return hash;
+        }
+        return hashScalars ? scalarHash( json ) : 0;
+    }
+
+    /**
+     * Hash of a scalar value that must be consistent with {@link #scalarEquals(Object, Object)}.
+     *
+     * Subclasses that override scalarEquals, eg to treat Long 0 and Int 0 as the same, should
+     *  override this as well.  If they do not, all scalars are put in one bucket, which is correct but slow.
+     */
+    protected int scalarHash( Object scalar ) {
+        return scalar.hashCode();
+    }
+
+    /**
+     * Spreads the bits of a hash, so that summing them up is a reasonable order-insensitive combine.
+     */
+    private static int mix( int hash ) {
+        hash *= 0x9E3779B9;
+        return hash ^ ( hash >>> 16 );
+    }
+
+    private static boolean overridesScalarEqualsOnly( Class<?> clazz ) {
+
+        boolean overridesEquals = false;
+        for ( ; clazz != ArrayOrderObliviousDiffy.class && clazz != Diffy.class; clazz = clazz.getSuperclass() ) {
+            if ( declares( clazz, "scalarHash", Object.class ) ) {
+                return false;
+            }
+            overridesEquals = overridesEquals || declares( clazz, "scalarEquals", Object.class, Object.class );
+        }
+        return overridesEquals;
+    }
+
+    private static boolean overridesDiff( Class<?> clazz ) {
+
+        for ( ; clazz != ArrayOrderObliviousDiffy.class && clazz != Diffy.class; clazz = clazz.getSuperclass() ) {
+            if ( declares( clazz, "diffScalar", Object.class, Object.class ) ||
+                 declares( clazz, "diffMap", Map.class, Map.class ) ||
+                 declares( clazz, "diffList", List.class, List.class ) ||
+                 declares( clazz, "diffHelper", Object.class, Object.class ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean declares( Class<?> clazz, String methodName, Class<?>... parameterTypes ) {
+        try {
+            clazz.getDeclaredMethod( methodName, parameterTypes );
+            return true;
+        }
+        catch ( NoSuchMethodException e ) {
+            return false;
+        }
+    }
+
     private boolean isAllNulls( List<Object> list ) {
 
         boolean isAllNulls = true;
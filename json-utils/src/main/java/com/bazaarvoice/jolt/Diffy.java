@@ -27,6 +27,8 @@ import java.util.Map;
  *   3) return what is left of the two objects in the Result
  *
  * In the case a full / "sucessful" match, Diffy returns a Result object with isEmpty() == true.
+ *
+ * If all that is needed is a yes / no answer, use isEqual, which skips the copies and stops at the first mismatch.
  */
 public class Diffy {
 
@@ -49,6 +51,64 @@ public class Diffy {
         return diffHelper( expectedCopy, actualCopy );
     }
 
+    /**
+     * Read-only version of diff : returns true exactly when diff would return an isEmpty() Result.
+     *
+     * The inputs are neither copied nor modified, and the walk stops at the first mismatch.
+     *
+     * Note that because nothing is copied, values are compared as they are.  Diff compares the copies made by
+     *  the JsonUtil, which a JSON round trip may have normalized, eg a Long 1 into an Integer 1.
+     */
+    public boolean isEqual(Object expected, Object actual) {
+        return isEqualHelper( expected, actual );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    protected boolean isEqualHelper(Object expected, Object actual) {
+        if (expected instanceof Map) {
+            return actual instanceof Map && isEqualMap( (Map<String, Object>) expected, (Map<String, Object>) actual );
+        }
+        else if (expected instanceof List) {
+            return actual instanceof List && isEqualList( (List<Object>) expected, (List<Object>) actual );
+        }
+        return isEqualScalar( expected, actual );
+    }
+
+    protected boolean isEqualMap(Map<String, Object> expected, Map<String, Object> actual) {
+
+        // diffMap matches an expected null value with a missing actual key, but an extra actual key is always a diff
+        int matchedActualKeys = 0;
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            Object actualValue = actual.get( entry.getKey() );
+            if ( !isEqualHelper( entry.getValue(), actualValue ) ) {
+                return false;
+            }
+            if ( actualValue != null || actual.containsKey( entry.getKey() ) ) {
+                matchedActualKeys++;
+            }
+        }
+        return matchedActualKeys == actual.size();
+    }
+
+    protected boolean isEqualList(List<Object> expected, List<Object> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i=0; i<expected.size(); i++) {
+            if ( !isEqualHelper( expected.get( i ), actual.get( i ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean isEqualScalar(Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        return scalarEquals( expected, actual );
+    }
+
     @SuppressWarnings( "unchecked" )
     protected Result diffHelper(Object expected, Object actual) {
         if (expected instanceof Map) {
@@ -15,6 +15,7 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.io.InputStream;
@@ -38,6 +39,18 @@ public interface JsonUtil {
     Object jsonToObject( String json , String charset );
     Object jsonToObject( InputStream in );
 
+    /**
+     * Parse JSON, skipping the parts of it that the filter does not include, see {@link ReadPathFilter}.
+     * The filter only saves work, so implementations are free to ignore it and parse everything.
+     */
+    default Object jsonToObject( String json, TokenFilter filter ) {
+        return jsonToObject( json );
+    }
+
+    default Object jsonToObject( InputStream in, TokenFilter filter ) {
+        return jsonToObject( in );
+    }
+
     Map<String, Object> jsonToMap( String json );
     Map<String, Object> jsonToMap( String json, String charset );
     Map<String, Object> jsonToMap( InputStream in );
@@ -82,10 +95,8 @@ public interface JsonUtil {
     String toPrettyJsonString( Object obj );
 
     /**
-     * Makes a deep copy of a Map<String, Object> object by converting it to a String and then
-     * back onto stock JSON objects.
-     *
-     * Leverages Serialization
+     * Makes a deep copy of a Map<String, Object> object, with the same result as converting it to
+     * a String and then back onto stock JSON objects.
      *
      * @param obj object tree to copy
      * @return deep copy of the incoming obj
@@ -18,17 +18,23 @@ package com.bazaarvoice.jolt;
 import com.bazaarvoice.jolt.exception.JsonMarshalException;
 import com.bazaarvoice.jolt.exception.JsonUnmarshalException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +50,13 @@ public class JsonUtilImpl implements JsonUtil {
     private final ObjectMapper objectMapper;
     private final ObjectWriter prettyPrintWriter;
 
+    // Whether cloneJson can walk the tree directly, rather than round trip it thru a String,
+    //  which is only true for the ObjectMapper we configure ourselves
+    private final boolean structuralCloneMatchesRoundTrip;
+
+    // Whether a filtered parse can read numbers straight off the parser, the way the ObjectMapper would
+    private final boolean plainNumbers;
+
     // Default Encoding for String to JSON operations
     public static final String DEFAULT_ENCODING_UTF_8 = "utf-8";
 
@@ -71,15 +84,28 @@ public class JsonUtilImpl implements JsonUtil {
      * @param objectMapper a configured Jackson ObjectMapper
      */
     public JsonUtilImpl( ObjectMapper objectMapper ) {
+        this( objectMapper == null ? new ObjectMapper() : objectMapper, objectMapper == null );
+    }
+
+    public JsonUtilImpl() {
+        this( new ObjectMapper(), true );
+    }
+
+    /**
+     * @param stockObjectMapper whether the ObjectMapper is one we made, and so has nothing but the stock Jolt
+     *  configuration.  Only then is the structural clone known to produce what the String round trip would,
+     *  as a caller's ObjectMapper can have modules, custom serializers, or features that change the result.
+     */
+    private JsonUtilImpl( ObjectMapper objectMapper, boolean stockObjectMapper ) {
 
-        this.objectMapper = objectMapper == null ? new ObjectMapper() : objectMapper;
+        this.objectMapper = objectMapper;
 
         configureStockJoltObjectMapper( this.objectMapper );
         prettyPrintWriter = this.objectMapper.writerWithDefaultPrettyPrinter();
-    }
-
-    public JsonUtilImpl() {
-        this( new ObjectMapper() );
+        structuralCloneMatchesRoundTrip = stockObjectMapper;
+        plainNumbers = ! this.objectMapper.isEnabled( DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS ) &&
+                       ! this.objectMapper.isEnabled( DeserializationFeature.USE_BIG_INTEGER_FOR_INTS ) &&
+                       ! this.objectMapper.isEnabled( DeserializationFeature.USE_LONG_FOR_INTS );
     }
 
     // DE-SERIALIZATION
@@ -108,6 +134,101 @@ public class JsonUtilImpl implements JsonUtil {
         }
     }
 
+    @Override
+    public Object jsonToObject( String json, TokenFilter filter ) {
+        try {
+            return jsonToObject( new ByteArrayInputStream( json.getBytes( DEFAULT_ENCODING_UTF_8 ) ), filter );
+        }
+        catch ( UnsupportedEncodingException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /**
+     * Parse JSON, skipping over the Map entries and List elements that the filter does not include.
+     *
+     * Skipped List elements are replaced by nulls, so that the included elements keep their indexes.
+     * Maps and Lists that the filter walks into are always kept, even if nothing in them was included.
+     * Those are built as LinkedHashMaps and ArrayLists, while everything the filter fully includes is
+     *  handed to the ObjectMapper as normal.
+     */
+    @Override
+    public Object jsonToObject( InputStream in, TokenFilter filter ) {
+        if ( filter == null || filter == TokenFilter.INCLUDE_ALL ) {
+            return jsonToObject( in );
+        }
+        try ( JsonParser parser = objectMapper.getFactory().createParser( in ) ) {
+            if ( parser.nextToken() == null ) {
+                throw new EOFException( "No content to map due to end-of-input" );
+            }
+            TokenFilter rootFilter = filter.includeRootValue( 0 );
+            return rootFilter == null ? null : readFiltered( parser, rootFilter );
+        }
+        catch ( IOException e ) {
+            throw new JsonUnmarshalException( "Unable to unmarshal JSON to an Object.", e );
+        }
+    }
+
+    private Object readFiltered( JsonParser parser, TokenFilter filter ) throws IOException {
+
+        if ( filter == TokenFilter.INCLUDE_ALL ) {
+            return readIncluded( parser );
+        }
+
+        JsonToken token = parser.currentToken();
+        if ( token == JsonToken.START_OBJECT ) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for ( String name = parser.nextFieldName(); name != null; name = parser.nextFieldName() ) {
+                TokenFilter childFilter = filter.includeProperty( name );
+                parser.nextToken();
+                if ( childFilter == null ) {
+                    parser.skipChildren();
+                }
+                else {
+                    map.put( name, readFiltered( parser, childFilter ) );
+                }
+            }
+            return map;
+        }
+        if ( token == JsonToken.START_ARRAY ) {
+            List<Object> list = new ArrayList<>();
+            for ( int index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++ ) {
+                TokenFilter childFilter = filter.includeElement( index );
+                if ( childFilter == null ) {
+                    parser.skipChildren();
+                    list.add( null );
+                }
+                else {
+                    list.add( readFiltered( parser, childFilter ) );
+                }
+            }
+            return list;
+        }
+        return filter.includeValue( parser ) ? readIncluded( parser ) : null;
+    }
+
+    private Object readIncluded( JsonParser parser ) throws IOException {
+        switch ( parser.currentToken() ) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                if ( plainNumbers ) {
+                    return parser.getNumberValue();
+                }
+                break;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                break;
+        }
+        return objectMapper.readValue( parser, Object.class );
+    }
+
     @Override
     public Map<String, Object> jsonToMap( String json) {
         return jsonToMap( json, DEFAULT_ENCODING_UTF_8 );
@@ -321,9 +442,92 @@ public class JsonUtilImpl implements JsonUtil {
         }
     }
 
+    /**
+     * Walks JSON trees of Maps, Lists and scalars directly, rather than serializing them to a String and
+     *  parsing that String back.  Scalars are normalized the same way the round trip would, aka a Long
+     *  that fits in an int comes back as an Integer, and a Float comes back as a Double.
+     *
+     * Immutable scalars are shared between the original and the clone.
+     *
+     * Sub-trees that are not plain JSON, like POJOs, Sets, or Maps with non String keys, are still
+     *  cloned via the String round trip, so that the ObjectMapper can handle them.
+     */
     @Override
     public Object cloneJson( Object obj ) {
+        if ( structuralCloneMatchesRoundTrip ) {
+            return cloneTree( obj );
+        }
+        return roundTripClone( obj );
+    }
+
+    private Object roundTripClone( Object obj ) {
         String string = this.toJsonString( obj );
         return this.jsonToObject( string );
     }
+
+    @SuppressWarnings( "unchecked" )
+    private Object cloneTree( Object obj ) {
+
+        if ( obj == null ) {
+            return null;
+        }
+
+        Class<?> clazz = obj.getClass();
+        if ( clazz == String.class || clazz == Integer.class || clazz == Boolean.class ) {
+            return obj;
+        }
+        if ( obj instanceof Map ) {
+            return cloneMap( (Map<Object, Object>) obj );
+        }
+        if ( obj instanceof List ) {
+            return cloneList( (List<Object>) obj );
+        }
+        if ( clazz == Double.class ) {
+            // NaN and Infinity do not round trip as numbers
+            return Double.isNaN( (Double) obj ) || Double.isInfinite( (Double) obj ) ? roundTripClone( obj ) : obj;
+        }
+        if ( clazz == Long.class ) {
+            long value = (Long) obj;
+            return value == (int) value ? Integer.valueOf( (int) value ) : obj;
+        }
+        if ( clazz == Short.class || clazz == Byte.class ) {
+            return ( (Number) obj ).intValue();
+        }
+        if ( clazz == Float.class ) {
+            Float value = (Float) obj;
+            // the Float is written out as its shortest String representation, which then gets parsed as a Double
+            return value.isNaN() || value.isInfinite() ? roundTripClone( obj ) : Double.valueOf( value.toString() );
+        }
+        if ( clazz == BigInteger.class ) {
+            BigInteger value = (BigInteger) obj;
+            if ( value.bitLength() < Integer.SIZE ) {
+                return value.intValue();
+            }
+            return value.bitLength() < Long.SIZE ? (Object) value.longValue() : obj;
+        }
+
+        return roundTripClone( obj );
+    }
+
+    private Object cloneMap( Map<Object, Object> map ) {
+
+        // size the map so that it will not need to rehash, given the default load factor of 0.75
+        Map<String, Object> clone = new LinkedHashMap<>( map.size() * 4 / 3 + 1 );
+        for ( Map.Entry<Object, Object> entry : map.entrySet() ) {
+            if ( ! ( entry.getKey() instanceof String ) ) {
+                return roundTripClone( map );
+            }
+            clone.put( (String) entry.getKey(), cloneTree( entry.getValue() ) );
+        }
+        return clone;
+    }
+
+    private List<Object> cloneList( List<Object> list ) {
+
+        List<Object> clone = new ArrayList<>( list.size() );
+        for ( Object element : list ) {
+            clone.add( cloneTree( element ) );
+        }
+        return clone;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -117,6 +118,14 @@ public class JsonUtils {
         return util.jsonToObject( in );
     }
 
+    public static Object jsonToObject( String json, TokenFilter filter ) {
+        return util.jsonToObject( json, filter );
+    }
+
+    public static Object jsonToObject( InputStream in, TokenFilter filter ) {
+        return util.jsonToObject( in, filter );
+    }
+
     public static Map<String, Object> jsonToMap( String json ) {
         return util.jsonToMap( json );
     }
@@ -221,8 +230,8 @@ public class JsonUtils {
 
 
     /**
-     * Makes a deep copy of a Map<String, Object> object by converting it to a String and then
-     * back onto stock JSON objects.
+     * Makes a deep copy of a Map<String, Object> object, with the same result as converting it to
+     * a String and then back onto stock JSON objects.
      *
      * @param obj object tree to copy
      * @return deep copy of the incoming obj
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A TokenFilter describing which parts of a JSON document are read, as a tree of keys.
+ *
+ * Each node has
+ *  - named children, for Map keys, and for List indexes as Strings, aka "0"
+ *  - an optional "any" child, that applies to every key and index, on top of any named child
+ *  - a "reads all" flag, meaning the whole value at that node is read
+ *
+ * Everything not on a path down the tree can be skipped while parsing, see
+ *  {@link JsonUtilImpl#jsonToObject(java.io.InputStream, TokenFilter)}.
+ * Maps and Lists on a path are kept even if nothing under them is read, so the keys leading
+ *  down to them still exist.
+ *
+ * The tree is built up with child(), anyChild() and readAll(), or from a JSON form of it, see
+ *  fromReadPaths(), and should not be changed once it is handed to a parser.
+ */
+public class ReadPathFilter extends TokenFilter {
+
+    private static final String ANY_KEY = "*";
+
+    private final Map<String, ReadPathFilter> children = new LinkedHashMap<>();
+    private ReadPathFilter anyChild;
+    private boolean readsAll;
+
+    // named children merged with the "any" child, built the first time a key needs them
+    private final Map<String, ReadPathFilter> mergedChildren = new ConcurrentHashMap<>();
+
+    /**
+     * @return a ReadPathFilter for reading the whole document
+     */
+    public static ReadPathFilter readsEverything() {
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.readAll();
+        return filter;
+    }
+
+    /**
+     * Build a ReadPathFilter from its JSON form, where true reads everything below, and a Map reads
+     *  its keys, with the key "*" standing for every key and index, aka
+     *  { "data" : { "product" : true, "reviews" : { "*" : { "rating" : true } } } }
+     *
+     * This is the form a Chainr or Shiftr reports the input paths it reads in.
+     *
+     * @throws IllegalArgumentException if readPaths is not made of Maps and true
+     */
+    public static ReadPathFilter fromReadPaths( Object readPaths ) {
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.addReadPaths( readPaths );
+        return filter;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void addReadPaths( Object readPaths ) {
+        if ( Boolean.TRUE.equals( readPaths ) ) {
+            readAll();
+        }
+        else if ( readPaths instanceof Map ) {
+            for ( Map.Entry<String, Object> entry : ( (Map<String, Object>) readPaths ).entrySet() ) {
+                ReadPathFilter child = ANY_KEY.equals( entry.getKey() ) ? anyChild() : child( entry.getKey() );
+                child.addReadPaths( entry.getValue() );
+            }
+        }
+        else {
+            throw new IllegalArgumentException( "Read paths should be made of Maps and true, got " + readPaths );
+        }
+    }
+
+    /**
+     * @return the child for the given Map key or List index, creating it if need be
+     */
+    public ReadPathFilter child( String key ) {
+        ReadPathFilter child = children.get( key );
+        if ( child == null ) {
+            child = new ReadPathFilter();
+            children.put( key, child );
+        }
+        return child;
+    }
+
+    /**
+     * @return the child that applies to every key and index, creating it if need be
+     */
+    public ReadPathFilter anyChild() {
+        if ( anyChild == null ) {
+            anyChild = new ReadPathFilter();
+        }
+        return anyChild;
+    }
+
+    /**
+     * Mark the whole value at this node as read.
+     */
+    public void readAll() {
+        readsAll = true;
+    }
+
+    public boolean readsAll() {
+        return readsAll;
+    }
+
+    @Override
+    public TokenFilter includeProperty( String name ) {
+        if ( readsAll ) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+        ReadPathFilter named = children.get( name );
+        if ( anyChild == null || named == null ) {
+            return toTokenFilter( named == null ? anyChild : named );
+        }
+        ReadPathFilter merged = mergedChildren.get( name );
+        if ( merged == null ) {
+            merged = new ReadPathFilter();
+            merged.mergeFrom( named );
+            merged.mergeFrom( anyChild );
+            mergedChildren.put( name, merged );
+        }
+        return toTokenFilter( merged );
+    }
+
+    @Override
+    public TokenFilter includeElement( int index ) {
+        return includeProperty( Integer.toString( index ) );
+    }
+
+    @Override
+    public TokenFilter includeRootValue( int index ) {
+        return toTokenFilter( this );
+    }
+
+    private static TokenFilter toTokenFilter( ReadPathFilter filter ) {
+        if ( filter != null && filter.readsAll ) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+        return filter;
+    }
+
+    private void mergeFrom( ReadPathFilter other ) {
+        readsAll |= other.readsAll;
+        for ( Map.Entry<String, ReadPathFilter> entry : other.children.entrySet() ) {
+            child( entry.getKey() ).mergeFrom( entry.getValue() );
+        }
+        if ( other.anyChild != null ) {
+            anyChild().mergeFrom( other.anyChild );
+        }
+    }
+
+    /**
+     * @return the tree in a JSON like form, with "*" for the any child, and true for a node that reads all
+     */
+    @Override
+    public String toString() {
+        if ( readsAll ) {
+            return "true";
+        }
+        StringBuilder sb = new StringBuilder( "{" );
+        for ( Map.Entry<String, ReadPathFilter> entry : children.entrySet() ) {
+            if ( sb.length() > 1 ) {
+                sb.append( "," );
+            }
+            sb.append( '"' ).append( entry.getKey() ).append( "\":" ).append( entry.getValue() );
+        }
+        if ( anyChild != null ) {
+            if ( sb.length() > 1 ) {
+                sb.append( "," );
+            }
+            sb.append( '"' ).append( ANY_KEY ).append( "\":" ).append( anyChild );
+        }
+        return sb.append( "}" ).toString();
+    }
+}
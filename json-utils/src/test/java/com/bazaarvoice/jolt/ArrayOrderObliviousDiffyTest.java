@@ -22,6 +22,9 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -54,5 +57,78 @@ public class ArrayOrderObliviousDiffyTest {
         Object actual = JsonUtils.classpathToObject("/jsonUtils/" + testCase + "/actual.json");
         Diffy.Result result = unit.diff(expected, actual);
         Assert.assertTrue(result.isEmpty(), result.toString());
+        Assert.assertTrue(unit.isEqual(expected, actual));
     }
-} 
+
+    @Test
+    public void matchesLargeListsAsMultisets() throws Exception {
+        List<Object> expected = new ArrayList<>();
+        List<Object> actual = new ArrayList<>();
+        for ( int index = 0; index < 5000; index++ ) {
+            expected.add( JsonUtils.jsonToMap( "{ \"id\" : " + ( index % 100 ) + ", \"tags\" : [ \"a\", \"b\" ] }" ) );
+            actual.add( 0, JsonUtils.jsonToMap( "{ \"tags\" : [ \"b\", \"a\" ], \"id\" : " + ( index % 100 ) + " }" ) );
+        }
+        Diffy.Result result = unit.diff( expected, actual );
+        Assert.assertTrue( result.isEmpty(), result.toString() );
+        Assert.assertTrue( unit.isEqual( expected, actual ) );
+
+        // one duplicate too many on the actual side
+        actual.add( JsonUtils.jsonToMap( "{ \"id\" : 7, \"tags\" : [ \"a\", \"b\" ] }" ) );
+        result = unit.diff( expected, actual );
+        Assert.assertFalse( result.isEmpty() );
+        Assert.assertFalse( unit.isEqual( expected, actual ) );
+    }
+
+    @Test
+    public void unmatchedElementsAreLinedUpAndDiffed() throws Exception {
+        Object expected = JsonUtils.jsonToObject( "[ 1, { \"a\" : 1, \"b\" : 2 }, \"x\" ]" );
+        Object actual = JsonUtils.jsonToObject( "[ \"x\", { \"a\" : 1, \"b\" : 3 }, 1 ]" );
+
+        Diffy.Result result = unit.diff( expected, actual );
+        Assert.assertEquals( result.expected, JsonUtils.jsonToObject( "[ null, { \"b\" : 2 }, null ]" ) );
+        Assert.assertEquals( result.actual, JsonUtils.jsonToObject( "[ null, { \"b\" : 3 }, null ]" ) );
+    }
+
+    @Test
+    public void subclassScalarEqualsIsHonored() throws Exception {
+        Diffy numberOblivious = new ArrayOrderObliviousDiffy() {
+            @Override
+            protected boolean scalarEquals( Object expected, Object actual ) {
+                if ( expected instanceof Number && actual instanceof Number ) {
+                    return ( (Number) expected ).doubleValue() == ( (Number) actual ).doubleValue();
+                }
+                return super.scalarEquals( expected, actual );
+            }
+        };
+
+        List<Object> expected = Arrays.<Object>asList( 1, 2.0, Collections.singletonMap( "a", 3L ) );
+        List<Object> actual = Arrays.<Object>asList( Collections.singletonMap( "a", 3 ), 2, 1.0 );
+        Diffy.Result result = numberOblivious.diff( expected, actual );
+        Assert.assertTrue( result.isEmpty(), result.toString() );
+        Assert.assertTrue( numberOblivious.isEqual( expected, actual ) );
+    }
+
+    @Test
+    public void subclassDiffScalarIsHonoredInsideLists() throws Exception {
+        Diffy tolerant = new ArrayOrderObliviousDiffy() {
+            @Override
+            protected Result diffScalar( Object expected, Object actual ) {
+                if ( expected instanceof Number && actual instanceof Number &&
+                     Math.abs( ( (Number) expected ).doubleValue() - ( (Number) actual ).doubleValue() ) < 0.01 ) {
+                    return new Result();
+                }
+                return super.diffScalar( expected, actual );
+            }
+        };
+
+        Object expected = JsonUtils.jsonToObject( "[ 1.0, { \"a\" : [ 2.0, { \"b\" : 3.0 } ] }, \"x\" ]" );
+        Object actual = JsonUtils.jsonToObject( "[ \"x\", { \"a\" : [ { \"b\" : 3.001 }, 2.001 ] }, 1.001 ]" );
+        Diffy.Result result = tolerant.diff( expected, actual );
+        Assert.assertTrue( result.isEmpty(), result.toString() );
+        Assert.assertTrue( tolerant.isEqual( expected, actual ) );
+
+        Object tooFar = JsonUtils.jsonToObject( "[ \"x\", { \"a\" : [ { \"b\" : 3.1 }, 2.001 ] }, 1.001 ]" );
+        Assert.assertFalse( tolerant.diff( expected, tooFar ).isEmpty() );
+        Assert.assertFalse( tolerant.isEqual( expected, tooFar ) );
+    }
+}
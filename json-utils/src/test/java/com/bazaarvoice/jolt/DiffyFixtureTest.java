@@ -60,6 +60,8 @@ public class DiffyFixtureTest {
 
         Map expectedDiff = JsonUtils.classpathToMap("/jsonUtils/diffyWhenDifferent/" + testCase + "/" + expectedFile + ".json");
 
+        Assert.assertFalse( diffy.isEqual( testExpected, testActual ), "isEqual says match when it shouldn't.");
+
         Diffy.Result testResult = diffy.diff( testExpected, testActual );
         Assert.assertFalse( testResult.isEmpty(), "Test diffs match when the shouldn't.");
 
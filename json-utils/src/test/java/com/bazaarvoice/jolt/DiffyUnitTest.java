@@ -43,6 +43,7 @@ public class DiffyUnitTest {
     }
 
     private void testScalars(Object expected, Object actual, boolean expectDiff) {
+        Assert.assertEquals( this.unit.isEqual( expected, actual ), !expectDiff );
         Diffy.Result result = this.unit.diff( expected, actual );
         if (expectDiff) {
             Assert.assertEquals( expected, result.expected );
@@ -138,6 +139,30 @@ public class DiffyUnitTest {
         Assert.assertEquals( JsonUtils.jsonToMap( "{\"foo\":\"apple\"}" ), result.actual );
     }
 
+    @Test
+    public void isEqual_agreesWithDiff()
+            throws IOException {
+        String[][] pairs = {
+                { "{\"foo\":1, \"bar\":[1, 2]}", "{\"bar\":[1, 2], \"foo\":1}" },
+                { "{\"foo\":1, \"bar\":[1, 2]}", "{\"bar\":[2, 1], \"foo\":1}" },
+                { "{\"foo\":1}", "{\"foo\":1, \"extra\":null}" },
+                { "{\"foo\":1, \"extra\":null}", "{\"foo\":1}" },
+                { "{\"foo\":1, \"extra\":null}", "{\"foo\":1, \"extra\":null}" },
+                { "{\"foo\":{}}", "{}" },
+                { "[1, null]", "[1]" },
+                { "[1, null]", "[1, null]" }
+        };
+        for ( String[] pair : pairs ) {
+            Object expected = JsonUtils.jsonToObject( pair[0] );
+            Object actual = JsonUtils.jsonToObject( pair[1] );
+            Assert.assertEquals( this.unit.isEqual( expected, actual ), this.unit.diff( expected, actual ).isEmpty(), pair[0] + " vs " + pair[1] );
+
+            // isEqual must not have modified the inputs
+            Assert.assertEquals( expected, JsonUtils.jsonToObject( pair[0] ) );
+            Assert.assertEquals( actual, JsonUtils.jsonToObject( pair[1] ) );
+        }
+    }
+
     /**
      * Testing / exploring basic Map.equals behavior.
      */
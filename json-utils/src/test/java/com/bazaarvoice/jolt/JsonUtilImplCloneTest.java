@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class JsonUtilImplCloneTest {
+
+    private final JsonUtilImpl jsonUtil = new JsonUtilImpl();
+
+    /**
+     * What cloneJson used to do, and what the structural clone needs to match exactly.
+     */
+    private Object roundTrip( JsonUtil util, Object obj ) {
+        return util.jsonToObject( util.toJsonString( obj ) );
+    }
+
+    @DataProvider
+    public Object[][] cloneCases() {
+
+        Map<String, Object> mixedNumbers = new LinkedHashMap<>();
+        mixedNumbers.put( "smallLong", 5L );
+        mixedNumbers.put( "bigLong", Long.MAX_VALUE );
+        mixedNumbers.put( "short", (short) 3 );
+        mixedNumbers.put( "byte", (byte) 2 );
+        mixedNumbers.put( "float", 1.1f );
+        mixedNumbers.put( "double", 1.1d );
+        mixedNumbers.put( "nan", Double.NaN );
+        mixedNumbers.put( "smallBigInteger", BigInteger.TEN );
+        mixedNumbers.put( "hugeBigInteger", BigInteger.valueOf( Long.MAX_VALUE ).multiply( BigInteger.TEN ) );
+        mixedNumbers.put( "bigDecimal", new BigDecimal( "1.25" ) );
+
+        Map<Integer, Object> intKeys = new TreeMap<>();
+        intKeys.put( 2, "two" );
+        intKeys.put( 1, "one" );
+
+        Map<String, Object> nonJsonTypes = new LinkedHashMap<>();
+        nonJsonTypes.put( "set", new LinkedHashSet<>( Arrays.asList( "a", "b" ) ) );
+        nonJsonTypes.put( "intKeys", intKeys );
+        nonJsonTypes.put( "char", 'c' );
+        nonJsonTypes.put( "array", new int[] { 1, 2 } );
+
+        return new Object[][] {
+            { null },
+            { "string" },
+            { 42 },
+            { JsonUtils.classpathToObject( "/jsonUtils/jsonUtils-removeRecursive.json" ) },
+            { JsonUtils.classpathToObject( "/jsonUtils/queryFilter-realOnly.json" ) },
+            { mixedNumbers },
+            { nonJsonTypes },
+            { new ArrayList<>( Arrays.asList( mixedNumbers, nonJsonTypes, null ) ) }
+        };
+    }
+
+    @Test( dataProvider = "cloneCases" )
+    public void cloneMatchesStringRoundTrip( Object json ) {
+        Assert.assertEquals( jsonUtil.cloneJson( json ), roundTrip( jsonUtil, json ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void cloneIsDeepAndOrdered() {
+
+        Map<String, Object> original = jsonUtil.jsonToMap( "{ \"z\" : { \"list\" : [ 1, 2 ] }, \"a\" : \"b\" }" );
+        Map<String, Object> clone = (Map<String, Object>) jsonUtil.cloneJson( original );
+
+        Iterator<String> keys = clone.keySet().iterator();
+        Assert.assertEquals( keys.next(), "z" );
+        Assert.assertEquals( keys.next(), "a" );
+
+        ( (List<Object>) ( (Map<String, Object>) clone.get( "z" ) ).get( "list" ) ).add( 3 );
+        clone.put( "a", "c" );
+
+        Assert.assertEquals( original, jsonUtil.jsonToMap( "{ \"z\" : { \"list\" : [ 1, 2 ] }, \"a\" : \"b\" }" ) );
+    }
+
+    @Test
+    public void customNumberHandlingStillRoundTrips() {
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable( DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS );
+        JsonUtil custom = new JsonUtilImpl( mapper );
+
+        Map<String, Object> original = new HashMap<>();
+        original.put( "double", 1.5d );
+
+        Object clone = custom.cloneJson( original );
+        Assert.assertEquals( clone, roundTrip( custom, original ) );
+        Assert.assertTrue( ( (Map) clone ).get( "double" ) instanceof BigDecimal );
+    }
+
+    @Test
+    public void customSerializerStillRoundTrips() {
+
+        SimpleModule yesNo = new SimpleModule( "yesNo" ).addSerializer( Boolean.class, new StdSerializer<Boolean>( Boolean.class ) {
+            @Override
+            public void serialize( Boolean value, JsonGenerator generator, SerializerProvider provider ) throws IOException {
+                generator.writeString( value ? "yes" : "no" );
+            }
+        } );
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule( yesNo );
+        JsonUtil custom = new JsonUtilImpl( mapper );
+
+        Map<String, Object> original = new HashMap<>();
+        original.put( "flag", true );
+
+        Object clone = custom.cloneJson( original );
+        Assert.assertEquals( clone, roundTrip( custom, original ) );
+        Assert.assertEquals( ( (Map) clone ).get( "flag" ), "yes" );
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.JsonUnmarshalException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class ReadPathFilterTest {
+
+    private static final String DOCUMENT = "{" +
+            "  // comments are still allowed \n" +
+            "  \"data\" : {" +
+            "    \"product\" : { \"id\" : 12345678901, \"name\" : \"tuna\", \"tags\" : [ \"a\", \"b\" ] }," +
+            "    \"reviews\" : [ { \"id\" : 1, \"rating\" : 4.5 }, { \"id\" : 2, \"rating\" : 3 }, { \"id\" : 3 } ]," +
+            "    \"unused\" : { \"deep\" : [ [ 1, 2 ], { \"x\" : null } ] }" +
+            "  }," +
+            "  \"scalar\" : \"value\"," +
+            "  \"nothing\" : null" +
+            "}";
+
+    @Test
+    public void onlyTheReadPathsAreParsed() {
+
+        ReadPathFilter filter = new ReadPathFilter();
+        ReadPathFilter data = filter.child( "data" );
+        data.child( "product" ).child( "name" );
+        data.child( "reviews" ).anyChild().child( "rating" );
+        filter.child( "scalar" );
+
+        Object actual = JsonUtils.jsonToObject( DOCUMENT, filter );
+
+        Object expected = JsonUtils.javason( "{" +
+                "  'data' : {" +
+                "    'product' : { 'name' : 'tuna' }," +
+                "    'reviews' : [ { 'rating' : 4.5 }, { 'rating' : 3 }, {} ]" +
+                "  }," +
+                "  'scalar' : 'value'" +
+                "}" );
+
+        Assert.assertEquals( actual, expected );
+    }
+
+    @Test
+    public void containersOnTheReadPathAreKeptEvenIfEmpty() {
+
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.child( "data" ).child( "unused" ).child( "missing" );
+        filter.child( "nothing" ).child( "below" );
+
+        Object actual = JsonUtils.jsonToObject( DOCUMENT, filter );
+
+        Map<String, Object> unused = new LinkedHashMap<>();
+        unused.put( "unused", new LinkedHashMap<>() );
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put( "data", unused );
+        expected.put( "nothing", null );
+
+        Assert.assertEquals( actual, expected );
+    }
+
+    @Test
+    public void skippedListElementsKeepTheIndexesOfTheOthers() {
+
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.child( "data" ).child( "reviews" ).child( "1" ).readAll();
+
+        Map<?, ?> actual = (Map<?, ?>) JsonUtils.jsonToObject( DOCUMENT, filter );
+        List<?> reviews = (List<?>) ( (Map<?, ?>) actual.get( "data" ) ).get( "reviews" );
+
+        Assert.assertEquals( reviews, Arrays.asList( null, JsonUtils.javason( "{ 'id' : 2, 'rating' : 3 }" ), null ) );
+    }
+
+    @Test
+    public void anyChildIsMergedWithNamedChildren() {
+
+        ReadPathFilter filter = new ReadPathFilter();
+        ReadPathFilter data = filter.child( "data" );
+        data.anyChild().child( "id" );
+        data.child( "product" ).child( "name" );
+        data.child( "product" ).child( "tags" ).anyChild();
+
+        Map<?, ?> actual = (Map<?, ?>) JsonUtils.jsonToObject( DOCUMENT, filter );
+        Map<?, ?> product = (Map<?, ?>) ( (Map<?, ?>) actual.get( "data" ) ).get( "product" );
+
+        Assert.assertEquals( product.keySet(), new LinkedHashSet<>( Arrays.asList( "id", "name", "tags" ) ) );
+        Assert.assertEquals( product.get( "id" ), 12345678901L );
+        Assert.assertEquals( product.get( "tags" ), Arrays.asList( "a", "b" ) );
+    }
+
+    @Test
+    public void readsEverythingIsAFullParse() {
+
+        Assert.assertEquals( JsonUtils.jsonToObject( DOCUMENT, ReadPathFilter.readsEverything() ), JsonUtils.jsonToObject( DOCUMENT ) );
+
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.child( "data" ).readAll();
+        filter.child( "scalar" );
+        filter.child( "nothing" );
+        Assert.assertEquals( JsonUtils.jsonToObject( DOCUMENT, filter ), JsonUtils.jsonToObject( DOCUMENT ) );
+    }
+
+    @Test( expectedExceptions = JsonUnmarshalException.class )
+    public void emptyInputFails() {
+        JsonUtils.jsonToObject( "  ", new ReadPathFilter() );
+    }
+
+    @Test
+    public void fromReadPathsMatchesBuildingTheTree() {
+
+        ReadPathFilter built = new ReadPathFilter();
+        ReadPathFilter data = built.child( "data" );
+        data.child( "product" ).child( "name" );
+        data.child( "reviews" ).anyChild().child( "rating" );
+        built.child( "scalar" );
+
+        ReadPathFilter fromJson = ReadPathFilter.fromReadPaths( JsonUtils.javason(
+                "{ 'data' : { 'product' : { 'name' : {} }, 'reviews' : { '*' : { 'rating' : {} } } }, 'scalar' : {} }" ) );
+
+        Assert.assertEquals( fromJson.toString(), built.toString() );
+        Assert.assertEquals( JsonUtils.jsonToObject( DOCUMENT, fromJson ), JsonUtils.jsonToObject( DOCUMENT, built ) );
+        Assert.assertTrue( ReadPathFilter.fromReadPaths( true ).readsAll() );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void fromReadPathsRejectsOtherValues() {
+        ReadPathFilter.fromReadPaths( JsonUtils.javason( "{ 'data' : 'yes' }" ) );
+    }
+
+    @Test
+    public void toStringShowsTheTree() {
+
+        ReadPathFilter filter = new ReadPathFilter();
+        filter.child( "a" ).readAll();
+        filter.anyChild().child( "b" );
+
+        Assert.assertEquals( filter.toString(), "{\"a\":true,\"*\":{\"b\":{}}}" );
+    }
+}